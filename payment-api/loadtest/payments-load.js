@@ -0,0 +1,86 @@
+// Mixed read/write load against the payment API, for comparing platform-thread and virtual-thread mode.
+//
+//   k6 run -e BASE_URL=http://localhost:5000 -e VUS=400 -e DURATION=3m loadtest/payments-load.js
+//
+// Every iteration runs without think time, so throughput is bounded by the server, not by the script.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:5000';
+const VUS = parseInt(__ENV.VUS || '400', 10);
+const DURATION = __ENV.DURATION || '3m';
+
+const rejected = new Counter('rejected_requests');
+
+export const options = {
+    scenarios: {
+        mixed: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: DURATION, target: VUS },
+                { duration: '10s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+function newPayment(i) {
+    return JSON.stringify({
+        amount: (1 + (i % 500)).toFixed(2),
+        currency: i % 2 === 0 ? 'EUR' : 'USD',
+        debtorIban: 'NL91ABNA0417164300',
+        creditorIban: 'DE89370400440532013000',
+        details: 'load test',
+        bicCode: 'ABNANL2A',
+        type: 1 + (i % 3),
+    });
+}
+
+export function setup() {
+    const ids = [];
+    for (let i = 0; i < 200; i++) {
+        const res = http.post(`${BASE_URL}/payments`, newPayment(i), { headers: JSON_HEADERS });
+        if (res.status === 201) {
+            ids.push(res.json('id'));
+        }
+    }
+    if (ids.length === 0) {
+        throw new Error(`Could not create seed payments at ${BASE_URL}`);
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const roll = Math.random();
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    let res;
+    if (roll < 0.40) {
+        res = http.get(`${BASE_URL}/payments/${id}`, { tags: { name: 'GET /payments/{id}' } });
+    } else if (roll < 0.65) {
+        res = http.get(`${BASE_URL}/payments/page?limit=50`, { tags: { name: 'GET /payments/page' } });
+    } else if (roll < 0.80) {
+        const ids = data.ids.slice(0, 20).join(',');
+        res = http.get(`${BASE_URL}/payments/cancellation-fees?ids=${ids}`, { tags: { name: 'GET /payments/cancellation-fees' } });
+    } else if (roll < 0.95) {
+        res = http.post(`${BASE_URL}/payments`, newPayment(__ITER), {
+            headers: Object.assign({ 'Idempotency-Key': `load-${__VU}-${__ITER}` }, JSON_HEADERS),
+            tags: { name: 'POST /payments' },
+        });
+    } else {
+        res = http.get(`${BASE_URL}/payments`, { tags: { name: 'GET /payments' } });
+    }
+    if (res.status === 503 || res.status === 500) {
+        rejected.add(1);
+    }
+    check(res, { 'status is 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
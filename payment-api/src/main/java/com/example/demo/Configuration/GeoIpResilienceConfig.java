@@ -0,0 +1,65 @@
+package com.example.demo.Configuration;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+@Configuration
+public class GeoIpResilienceConfig {
+
+    public static final String GEOIP = "geoip";
+
+    @Bean
+    public CircuitBreaker geoIpCircuitBreaker(@Value("${geoip.circuitBreaker.failureRateThreshold:50}") float failureRateThreshold,
+                                              @Value("${geoip.circuitBreaker.slowCallRateThreshold:50}") float slowCallRateThreshold,
+                                              @Value("${geoip.circuitBreaker.slowCallDurationThreshold:PT2S}") Duration slowCallDurationThreshold,
+                                              @Value("${geoip.circuitBreaker.slidingWindowSize:20}") int slidingWindowSize,
+                                              @Value("${geoip.circuitBreaker.minimumNumberOfCalls:10}") int minimumNumberOfCalls,
+                                              @Value("${geoip.circuitBreaker.waitDurationInOpenState:PT30S}") Duration waitDurationInOpenState,
+                                              @Value("${geoip.circuitBreaker.permittedCallsInHalfOpenState:3}") int permittedCallsInHalfOpenState,
+                                              MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDurationThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // A 4xx answer means the API is healthy but has no data for the address.
+                .recordException(GeoIpResilienceConfig::isDependencyFailure)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(GEOIP);
+    }
+
+    @Bean
+    public Bulkhead geoIpBulkhead(@Value("${geoip.bulkhead.maxConcurrentCalls:20}") int maxConcurrentCalls,
+                                  MeterRegistry meterRegistry) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(GEOIP);
+    }
+
+    public static boolean isDependencyFailure(Throwable throwable) {
+        return !(throwable instanceof WebClientResponseException response) || response.getStatusCode().is5xxServerError();
+    }
+}
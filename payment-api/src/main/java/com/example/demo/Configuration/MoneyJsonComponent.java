@@ -0,0 +1,84 @@
+package com.example.demo.Configuration;
+
+import com.example.demo.Model.Money;
+import com.example.demo.Model.Payment;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * JSON form of {@link Money}: {@code {"amount": 123.45, "currency": "EUR"}}.
+ * <p>
+ * The amount is written as a number with exactly two fraction digits straight from the minor units, and read
+ * from a number or a string with {@link Money#parseMinorUnits}, so neither direction creates a BigDecimal.
+ */
+@JsonComponent
+public class MoneyJsonComponent {
+
+    static final String AMOUNT = "amount";
+    static final String CURRENCY = "currency";
+
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject();
+            gen.writeFieldName(AMOUNT);
+            gen.writeNumber(value.toPlainString());
+            gen.writeStringField(CURRENCY, value.currency().name());
+            gen.writeEndObject();
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartObjectToken()) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            Payment.Currency currency = null;
+            Long minorUnits = null;
+            for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+                JsonToken token = p.nextToken();
+                if (AMOUNT.equals(field) && (token == JsonToken.VALUE_STRING || token.isNumeric())) {
+                    minorUnits = parseAmount(p, ctxt);
+                } else if (CURRENCY.equals(field) && token == JsonToken.VALUE_STRING) {
+                    currency = parseCurrency(p, ctxt);
+                } else if (AMOUNT.equals(field) || CURRENCY.equals(field)) {
+                    return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (minorUnits == null || currency == null) {
+                return ctxt.reportInputMismatch(Money.class, "Money requires both \"amount\" and \"currency\"");
+            }
+            return new Money(currency, minorUnits);
+        }
+
+        private static long parseAmount(JsonParser p, DeserializationContext ctxt) throws IOException {
+            try {
+                return Money.parseMinorUnits(CharBuffer.wrap(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+            } catch (NumberFormatException e) {
+                throw ctxt.weirdStringException(p.getText(), Money.class, "Use digits with up to two decimal places (e.g., 123.45)");
+            }
+        }
+
+        private static Payment.Currency parseCurrency(JsonParser p, DeserializationContext ctxt) throws IOException {
+            try {
+                return Payment.Currency.valueOf(p.getText());
+            } catch (IllegalArgumentException e) {
+                throw ctxt.weirdStringException(p.getText(), Payment.Currency.class, "Unsupported currency");
+            }
+        }
+    }
+}
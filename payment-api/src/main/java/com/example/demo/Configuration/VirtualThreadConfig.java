@@ -0,0 +1,66 @@
+package com.example.demo.Configuration;
+
+import com.example.demo.Util.ConcurrencyLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Additions for {@code spring.threads.virtual.enabled=true}, under which Spring Boot serves requests, MVC async
+ * work (export, SSE) and {@code @Scheduled} tasks on virtual threads.
+ * <p>
+ * The Hikari pool is wrapped in a {@link ConcurrencyLimitingDataSource} that admits at most
+ * {@code payments.datasource.maxConcurrency} connection holders, by default and at most the pool's
+ * {@code maximum-pool-size}; callers beyond that wait for up to {@code payments.datasource.acquireTimeout},
+ * by default Hikari's {@code connection-timeout}.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int poolSize = hikari.getMaximumPoolSize();
+                int maxConcurrency = environment.getProperty("payments.datasource.maxConcurrency", Integer.class, poolSize);
+                if (maxConcurrency > poolSize) {
+                    log.warn("payments.datasource.maxConcurrency={} exceeds the connection pool size {}, using {}.", maxConcurrency, poolSize, poolSize);
+                    maxConcurrency = poolSize;
+                }
+                Duration acquireTimeout = environment.getProperty("payments.datasource.acquireTimeout", Duration.class,
+                        Duration.ofMillis(hikari.getConnectionTimeout()));
+                log.info("Virtual threads enabled: admitting at most {} concurrent database connection holders (pool size {}), waiting up to {}.",
+                        maxConcurrency, poolSize, acquireTimeout);
+                return new ConcurrencyLimitingDataSource(hikari, maxConcurrency, acquireTimeout);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitingDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitingDataSource limited) {
+                Gauge.builder("datasource.admission.available", limited, ConcurrencyLimitingDataSource::getAvailablePermits).register(registry);
+                Gauge.builder("datasource.admission.waiting", limited, ConcurrencyLimitingDataSource::getWaitingCount).register(registry);
+            }
+        };
+    }
+}
@@ -1,4 +1,4 @@
-package java.com.example.demo.Configuration;
+package com.example.demo.Configuration;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
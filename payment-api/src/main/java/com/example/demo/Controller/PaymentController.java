@@ -1,21 +1,50 @@
 package com.example.demo.Controller;
 
+import com.example.demo.DTO.BulkCancellationResultDTO;
+import com.example.demo.DTO.BulkPaymentResultDTO;
+import com.example.demo.DTO.FeeForecastDTO;
+import com.example.demo.DTO.FeeQuotesDTO;
+import com.example.demo.DTO.PaymentChangesDTO;
 import com.example.demo.DTO.PaymentDTO;
+import com.example.demo.DTO.PaymentField;
+import com.example.demo.DTO.PaymentPageDTO;
+import com.example.demo.Exception.CancellationException;
+import com.example.demo.Exception.CancellationRetryException;
+import com.example.demo.Exception.IdempotencyKeyReusedException;
+import com.example.demo.Exception.IdempotentRequestInProgressException;
+import com.example.demo.Model.IdempotencyRecord;
 import com.example.demo.Model.Payment;
-import com.example.demo.Service.GeoIpService;
+import com.example.demo.Repository.PaymentFilter;
+import com.example.demo.Service.ActivePaymentSnapshot;
+import com.example.demo.Service.BulkPaymentService;
+import com.example.demo.Service.GeoIpEnrichmentService;
+import com.example.demo.Service.IdempotentPaymentService;
+import com.example.demo.Service.PaymentChangeStreamService;
+import com.example.demo.Service.PaymentExportService;
 import com.example.demo.Service.PaymentService;
 import com.example.demo.Util.IpAddressUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -23,28 +52,50 @@ import java.util.UUID;
 public class PaymentController {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
     private final PaymentService paymentService;
+    private final IdempotentPaymentService idempotentPaymentService;
+    private final PaymentExportService paymentExportService;
+    private final BulkPaymentService bulkPaymentService;
+    private final PaymentChangeStreamService paymentChangeStreamService;
     private final IpAddressUtil ipAddressUtil;
-    private final GeoIpService geoIpService;
+    private final GeoIpEnrichmentService geoIpEnrichmentService;
 
     @Autowired
     public PaymentController(PaymentService paymentService,
+                             IdempotentPaymentService idempotentPaymentService,
+                             PaymentExportService paymentExportService,
+                             BulkPaymentService bulkPaymentService,
+                             PaymentChangeStreamService paymentChangeStreamService,
                              IpAddressUtil ipAddressUtil,
-                             GeoIpService geoIpService) {
+                             GeoIpEnrichmentService geoIpEnrichmentService) {
         this.paymentService = paymentService;
+        this.idempotentPaymentService = idempotentPaymentService;
+        this.paymentExportService = paymentExportService;
+        this.bulkPaymentService = bulkPaymentService;
+        this.paymentChangeStreamService = paymentChangeStreamService;
         this.ipAddressUtil = ipAddressUtil;
-        this.geoIpService = geoIpService;
+        this.geoIpEnrichmentService = geoIpEnrichmentService;
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllPayments(HttpServletRequest request) {
+    public ResponseEntity<?> getAllPayments(@RequestParam(required = false) String fields,
+                                            HttpServletRequest request, WebRequest webRequest) {
+        Set<PaymentField> selectedFields;
+        try {
+            selectedFields = fields == null ? null : PaymentField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected payment list request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         try {
             try {
                 String clientIp = ipAddressUtil.getClientIpAddress(request);
                 if (!"Unknown".equals(clientIp) && !ipAddressUtil.isLocalhost(clientIp)) {
-                    String country = geoIpService.getCountryFromIp(clientIp)
-                            .orElse("Unknown");
-                    log.info("User connection from country: {} (IP: {}) accessing payment list.", country, clientIp);
+                    geoIpEnrichmentService.logPaymentListAccess(clientIp);
                 } else {
                     log.debug("Skipping GeoIP logging for internal/unknown IP: {}", clientIp);
                 }
@@ -52,10 +103,15 @@ public class PaymentController {
                 log.error("Non-critical error during GeoIP lookup for payment list access: {}", geoEx.getMessage(), geoEx);
             }
 
-            log.debug("Attempting to fetch non-cancelled payments.");
-            List<Payment> payments = paymentService.getAllNonCancelledPayments();
-            log.debug("Successfully fetched {} non-cancelled payments.", payments.size());
-            return new ResponseEntity<>(payments, HttpStatus.OK);
+            ActivePaymentSnapshot.Snapshot snapshot = paymentService.getActivePaymentsSnapshot();
+            // Sets the ETag header, and the 304 status if the client's copy is current.
+            String etag = selectedFields == null ? snapshot.etag() : snapshot.etag(selectedFields);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            log.debug("Serving {} non-cancelled payments from snapshot version {}.", snapshot.payments().size(), snapshot.version());
+            byte[] body = selectedFields == null ? snapshot.json() : snapshot.json(selectedFields);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
 
         } catch (Exception e) {
             log.error("Failed to process GET /payments request", e);
@@ -65,25 +121,164 @@ public class PaymentController {
         }
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<?> getPaymentsPage(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) Payment.Currency currency,
+                                             @RequestParam(required = false) Integer type,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            PaymentPageDTO page = paymentService.getActivePaymentsPage(new PaymentFilter(currency, type, from, to), cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected payment page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(defaultValue = "0") long since,
+                                        @RequestParam(required = false) Integer limit) {
+        try {
+            PaymentChangesDTO changes = paymentService.getChangesSince(since, limit);
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected payment changes request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam(required = false) Long since,
+                                                    @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        // A reconnecting EventSource resumes after the last event it received.
+        long cursor = lastEventId != null ? lastEventId : since != null ? since : 0;
+        try {
+            SseEmitter emitter = paymentChangeStreamService.subscribe(cursor);
+            return ResponseEntity.ok(emitter);
+        } catch (IllegalArgumentException e) {
+            // The emitter type must stay in the signature for MVC to start async handling, so this answer has no body.
+            log.debug("Rejected payment change stream request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportPayments() {
+        StreamingResponseBody body = out -> {
+            long exported = paymentExportService.exportActivePayments(out);
+            log.info("Exported {} active payments.", exported);
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Payment> getPaymentById(@PathVariable UUID id) {
+    public ResponseEntity<Payment> getPaymentById(@PathVariable UUID id, WebRequest webRequest) {
         Optional<Payment> payment = paymentService.getPaymentById(id);
-        return payment.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        if (payment.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (webRequest.checkNotModified(etag(payment.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok(payment.get());
     }
 
     @PostMapping
-    public ResponseEntity<PaymentDTO> savePayment(@Valid @RequestBody PaymentDTO paymentDTO) {
-        PaymentDTO savedPayment = paymentService.savePayment(paymentDTO);
-        return new ResponseEntity<>(savedPayment, HttpStatus.CREATED);
+    public ResponseEntity<?> savePayment(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                         @Valid @RequestBody PaymentDTO paymentDTO) {
+        if (idempotencyKey == null) {
+            PaymentDTO savedPayment = paymentService.savePayment(paymentDTO);
+            return new ResponseEntity<>(savedPayment, HttpStatus.CREATED);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyRecord.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(IDEMPOTENCY_KEY_HEADER + " must be 1 to " + IdempotencyRecord.MAX_KEY_LENGTH + " characters long.");
+        }
+        IdempotentPaymentService.Result result = idempotentPaymentService.savePayment(idempotencyKey, paymentDTO);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.payment());
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<?> bulkCreatePayments(InputStream body) throws IOException {
+        try {
+            BulkPaymentResultDTO result = bulkPaymentService.createPayments(body);
+            return ResponseEntity.ok(result);
+        } catch (JsonProcessingException e) {
+            log.debug("Rejected bulk payment request: {}", e.getOriginalMessage());
+            return ResponseEntity.badRequest().body("Malformed bulk payment request: " + e.getOriginalMessage());
+        }
+    }
+
+    @PostMapping("/bulk/cancel")
+    public ResponseEntity<BulkCancellationResultDTO> bulkCancelPayments(@RequestBody List<UUID> ids) {
+        return ResponseEntity.ok(bulkPaymentService.cancelPayments(ids));
+    }
+
+    @GetMapping("/cancellation-fees")
+    public ResponseEntity<?> quoteCancellationFees(@RequestParam List<UUID> ids) {
+        return quoteCancellationFeesFor(ids);
+    }
+
+    @PostMapping("/cancellation-fees")
+    public ResponseEntity<?> quoteCancellationFeesInBody(@RequestBody List<UUID> ids) {
+        return quoteCancellationFeesFor(ids);
+    }
+
+    @GetMapping("/{id}/cancellation-fee")
+    public ResponseEntity<FeeForecastDTO> getCancellationFeeForecast(@PathVariable UUID id) {
+        return paymentService.getCancellationFeeForecast(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<PaymentDTO> cancelPayment(@PathVariable UUID id) {
-        Optional<Payment> payment = paymentService.getPaymentById(id);
-        if (payment.isPresent()) {
-            return ResponseEntity.ok(paymentService.cancelPayment(payment.get()));
+        return paymentService.cancelPayment(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> quoteCancellationFeesFor(List<UUID> ids) {
+        try {
+            FeeQuotesDTO quotes = paymentService.quoteCancellationFees(ids);
+            return ResponseEntity.ok(quotes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        return ResponseEntity.notFound().build();
+    }
+
+    private static String etag(Payment payment) {
+        return "\"" + payment.getId() + "-" + payment.getVersion() + "\"";
+    }
+
+    @ExceptionHandler(CancellationException.class)
+    public ResponseEntity<String> handleCancellationException(CancellationException e) {
+        log.debug("Rejected payment cancellation: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(CancellationRetryException.class)
+    public ResponseEntity<String> handleCancellationRetry(CancellationRetryException e) {
+        log.debug("Payment cancellation raced with another change: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReused(IdempotencyKeyReusedException e) {
+        log.debug("Rejected reused idempotency key: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ResponseEntity<String> handleIdempotentRequestInProgress(IdempotentRequestInProgressException e) {
+        log.debug("Idempotent request still in progress: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
     }
 
 }
\ No newline at end of file
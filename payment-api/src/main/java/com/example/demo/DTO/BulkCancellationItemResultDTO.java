@@ -0,0 +1,36 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCancellationItemResultDTO {
+
+    public enum Outcome {
+        CANCELLED,
+        ALREADY_CANCELLED,
+        NOT_SAME_DAY,
+        INVALID_TYPE,
+        NOT_FOUND
+    }
+
+    private UUID id;
+    private Outcome outcome;
+    /** The applied cancellation fee, set only when the outcome is {@link Outcome#CANCELLED}. */
+    private BigDecimal fee;
+    private String message;
+
+    public static BulkCancellationItemResultDTO cancelled(UUID id, BigDecimal fee) {
+        return new BulkCancellationItemResultDTO(id, Outcome.CANCELLED, fee, null);
+    }
+
+    public static BulkCancellationItemResultDTO failed(UUID id, Outcome outcome, String message) {
+        return new BulkCancellationItemResultDTO(id, outcome, null, message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class BulkCancellationResultDTO {
+
+    private int requested;
+    /** Number of payments per outcome. */
+    private Map<BulkCancellationItemResultDTO.Outcome, Integer> summary = new EnumMap<>(BulkCancellationItemResultDTO.Outcome.class);
+    /** One entry per distinct requested id, in request order. */
+    private List<BulkCancellationItemResultDTO> items = new ArrayList<>();
+
+    public void add(BulkCancellationItemResultDTO item) {
+        items.add(item);
+        summary.merge(item.getOutcome(), 1, Integer::sum);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentItemResultDTO {
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    /** Zero-based position of the payment in the submitted array or NDJSON stream. */
+    private int index;
+    private Status status;
+    private UUID id;
+    private List<String> errors;
+
+    public static BulkPaymentItemResultDTO created(int index, UUID id) {
+        return new BulkPaymentItemResultDTO(index, Status.CREATED, id, List.of());
+    }
+
+    public static BulkPaymentItemResultDTO rejected(int index, List<String> errors) {
+        return new BulkPaymentItemResultDTO(index, Status.REJECTED, null, errors);
+    }
+}
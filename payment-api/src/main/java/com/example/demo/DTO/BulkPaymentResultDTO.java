@@ -0,0 +1,27 @@
+package com.example.demo.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkPaymentResultDTO {
+
+    private int received;
+    private int created;
+    private int rejected;
+    /** One entry per submitted payment, ordered by index. */
+    private List<BulkPaymentItemResultDTO> items = new ArrayList<>();
+
+    public void add(BulkPaymentItemResultDTO item) {
+        items.add(item);
+        if (item.getStatus() == BulkPaymentItemResultDTO.Status.CREATED) {
+            created++;
+        } else {
+            rejected++;
+        }
+    }
+}
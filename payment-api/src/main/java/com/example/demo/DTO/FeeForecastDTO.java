@@ -0,0 +1,31 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeForecastDTO {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Step {
+        private LocalDateTime from;
+        private Money fee;
+    }
+
+    /** The quote as of now. */
+    private FeeQuoteDTO quote;
+    /**
+     * The fees that will apply for the rest of the day, starting with the current one; each step lasts until
+     * the next one starts, the last one until the end of the day. Empty unless the payment is cancellable.
+     */
+    private List<Step> steps;
+}
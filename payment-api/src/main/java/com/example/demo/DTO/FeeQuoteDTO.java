@@ -0,0 +1,40 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Model.Money;
+import com.example.demo.Model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeQuoteDTO {
+
+    public enum Status {
+        CANCELLABLE,
+        ALREADY_CANCELLED,
+        NOT_SAME_DAY,
+        INVALID_TYPE,
+        NOT_FOUND
+    }
+
+    private UUID id;
+    private Status status;
+    /** The fee a cancellation would be charged now, set only when the status is {@link Status#CANCELLABLE}. */
+    private Money fee;
+    /** When the quoted fee stops applying, because the next full hour starts or the day ends. */
+    private LocalDateTime validUntil;
+    private String message;
+
+    public static FeeQuoteDTO cancellable(Payment payment, Money fee, LocalDateTime validUntil) {
+        return new FeeQuoteDTO(payment.getId(), Status.CANCELLABLE, fee, validUntil, null);
+    }
+
+    public static FeeQuoteDTO rejected(UUID id, Status status, String message) {
+        return new FeeQuoteDTO(id, status, null, null, message);
+    }
+}
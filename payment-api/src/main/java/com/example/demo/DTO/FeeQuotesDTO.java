@@ -0,0 +1,19 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeQuotesDTO {
+
+    /** The point in time all quotes were computed for. */
+    private LocalDateTime quotedAt;
+    /** One quote per distinct requested id, in request order. */
+    private List<FeeQuoteDTO> quotes;
+}
@@ -0,0 +1,28 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentChangeDTO {
+
+    public enum Type {
+        CREATED,
+        CANCELLED
+    }
+
+    /** Position of this change in the feed; pass the last one seen as {@code since} to resume after it. */
+    private long seq;
+    private Type type;
+    /** The payment as of this change. */
+    private Payment payment;
+
+    public static PaymentChangeDTO fromEntity(Payment payment) {
+        Type type = payment.getCancelation() == null ? Type.CREATED : Type.CANCELLED;
+        return new PaymentChangeDTO(payment.getChangeSeq(), type, payment);
+    }
+}
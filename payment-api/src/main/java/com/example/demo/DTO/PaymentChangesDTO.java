@@ -0,0 +1,20 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentChangesDTO {
+
+    /** The changes in feed order. A payment appears at most once, with its latest state. */
+    private List<PaymentChangeDTO> changes;
+    /** The {@code since} value for the next request; unchanged when there were no changes. */
+    private long nextCursor;
+    /** Whether more changes are available right away. */
+    private boolean hasMore;
+}
@@ -1,7 +1,10 @@
 package com.example.demo.DTO;
 
+import com.example.demo.Model.Money;
 import com.example.demo.Model.Payment;
-import jakarta.validation.constraints.Pattern;
+import com.example.demo.Validation.ValidAmount;
+import com.example.demo.Validation.ValidBic;
+import com.example.demo.Validation.ValidIban;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,13 +19,16 @@ import java.util.UUID;
 public class PaymentDTO {
 
     private UUID id;
-    @Pattern(regexp = "^\\d+(\\.\\d{1,2})?$", message = "Invalid amount format. Use digits with up to two decimal places (e.g., 123.45)")
+    @ValidAmount
     private String amount;
     private BigDecimal cancelation;
     private Payment.Currency currency;
+    @ValidIban
     private String debtorIban;
+    @ValidIban
     private String creditorIban;
     private String details;
+    @ValidBic
     private String bicCode;
     private int type;
     private LocalDateTime creationDate;
@@ -110,7 +116,7 @@ public class PaymentDTO {
     public Payment toEntity() {
         Payment payment = new Payment();
         payment.setId(this.id);
-        payment.setAmount(new BigDecimal(this.amount.trim()));
+        payment.setAmount(BigDecimal.valueOf(Money.parseMinorUnits(this.amount), Money.SCALE));
         payment.setCancelation(this.cancelation);
         payment.setCurrency(this.currency);
         payment.setDebtorIban(this.debtorIban);
@@ -0,0 +1,75 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Model.Payment;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The payment properties a client can select for the list projection ({@code GET /payments?fields=...}).
+ * Property names match the JSON of a full {@link Payment}.
+ */
+public enum PaymentField {
+
+    ID("id", Payment::getId),
+    AMOUNT("amount", Payment::getAmount),
+    CANCELATION("cancelation", Payment::getCancelation),
+    CURRENCY("currency", Payment::getCurrency),
+    DEBTOR_IBAN("debtorIban", Payment::getDebtorIban),
+    CREDITOR_IBAN("creditorIban", Payment::getCreditorIban),
+    DETAILS("details", Payment::getDetails),
+    BIC_CODE("bicCode", Payment::getBicCode),
+    TYPE("type", Payment::getType),
+    CREATION_DATE("creationDate", Payment::getCreationDate),
+    VERSION("version", Payment::getVersion);
+
+    private final String property;
+    private final Function<Payment, Object> accessor;
+
+    PaymentField(String property, Function<Payment, Object> accessor) {
+        this.property = property;
+        this.accessor = accessor;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public Object valueOf(Payment payment) {
+        return accessor.apply(payment);
+    }
+
+    /**
+     * Parses a comma-separated list of property names, e.g. {@code "id,amount,currency"}.
+     *
+     * @param fields The property names, case-insensitive. Whitespace around names is ignored.
+     * @return The selected fields in declaration order, so equal selections produce identical output.
+     * @throws IllegalArgumentException if the list is blank or names an unknown property.
+     */
+    public static Set<PaymentField> parse(String fields) {
+        EnumSet<PaymentField> selected = EnumSet.noneOf(PaymentField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(fromProperty(trimmed));
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("At least one field must be selected.");
+        }
+        return selected;
+    }
+
+    private static PaymentField fromProperty(String name) {
+        String lowerCase = name.toLowerCase(Locale.ROOT);
+        for (PaymentField field : values()) {
+            if (field.property.toLowerCase(Locale.ROOT).equals(lowerCase)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payment field: " + name);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPageDTO {
+
+    private List<Payment> items;
+    /** Opaque token for the next page, or null when this is the last page. */
+    private String nextCursor;
+}
@@ -0,0 +1,11 @@
+package com.example.demo.Exception;
+
+/**
+ * The payment changed while it was being cancelled and the cancellation may succeed when retried, unlike a
+ * {@link CancellationException}.
+ */
+public class CancellationRetryException extends RuntimeException {
+    public CancellationRetryException(String message) {
+        super(message);
+    }
+}
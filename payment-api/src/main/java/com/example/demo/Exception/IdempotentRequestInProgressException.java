@@ -0,0 +1,7 @@
+package com.example.demo.Exception;
+
+public class IdempotentRequestInProgressException extends RuntimeException {
+    public IdempotentRequestInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.Exception;
+
+public class PaymentAlreadyCancelledException extends CancellationNotAllowedException {
+    public PaymentAlreadyCancelledException(String message) {
+        super(message);
+    }
+}
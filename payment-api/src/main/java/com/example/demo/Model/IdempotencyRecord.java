@@ -0,0 +1,63 @@
+package com.example.demo.Model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Remembers which payment was created for an {@code Idempotency-Key}, so a retried request can be answered with
+ * the original payment instead of creating a second one.
+ */
+@Entity
+@Table(name = "idempotency_record")
+public class IdempotencyRecord {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Id
+    @Column(length = MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    /** SHA-256 of the request body the key was first used with. */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private UUID paymentId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(UUID paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.Model;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * An immutable amount of money as a whole number of minor units (e.g. cents) of its currency.
+ * <p>
+ * All amounts in this application have {@link #SCALE} fraction digits, matching the {@code numeric(38, 2)}
+ * columns and the minor units of the supported currencies. Parsing and formatting work on the characters
+ * directly, and cancellation fees are computed and quoted in minor units, so none of these go through
+ * {@link BigDecimal}. The {@link Payment} entity keeps {@code BigDecimal} fields for its numeric columns;
+ * {@link #toBigDecimal()} converts at that boundary.
+ */
+public record Money(Payment.Currency currency, long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    private static final int MINOR_PER_UNIT = 100;
+    /** The largest whole part whose amount, including any fraction, still fits a long in minor units. */
+    private static final long MAX_WHOLE_UNITS = (Long.MAX_VALUE - (MINOR_PER_UNIT - 1)) / MINOR_PER_UNIT;
+    private static final long INVALID = -1;
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more than {@link #SCALE} significant fraction digits or does
+     *                             not fit in minor units.
+     */
+    public static Money of(Payment.Currency currency, BigDecimal amount) {
+        return new Money(currency, amount.setScale(SCALE).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Same as {@link #parseMinorUnits(CharSequence)} with a currency.
+     */
+    public static Money parse(Payment.Currency currency, CharSequence amount) {
+        return new Money(currency, parseMinorUnits(amount));
+    }
+
+    /**
+     * Parses an amount in the request format: digits with up to two decimal places, e.g. {@code 123.45},
+     * optionally surrounded by whitespace. Nothing is allocated unless the amount is invalid.
+     *
+     * @return The amount in minor units.
+     * @throws NumberFormatException if the amount is not in that format or too large for a long in minor units.
+     */
+    public static long parseMinorUnits(CharSequence amount) {
+        int start = 0;
+        int end = amount.length();
+        while (start < end && Character.isWhitespace(amount.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(amount.charAt(end - 1))) {
+            end--;
+        }
+        long minorUnits = parseMinorUnits(amount, start, end);
+        if (minorUnits == INVALID) {
+            throw new NumberFormatException("Invalid amount: \"" + amount + "\"");
+        }
+        return minorUnits;
+    }
+
+    /**
+     * @return Whether the amount is in the request format, without surrounding whitespace.
+     */
+    public static boolean isValidAmount(CharSequence amount) {
+        return parseMinorUnits(amount, 0, amount.length()) != INVALID;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(currency, Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * @return The amount with exactly {@link #SCALE} fraction digits, e.g. {@code 123.40}.
+     */
+    public String toPlainString() {
+        long whole = Math.abs(minorUnits / MINOR_PER_UNIT);
+        int fraction = (int) Math.abs(minorUnits % MINOR_PER_UNIT);
+        StringBuilder sb = new StringBuilder(24);
+        if (minorUnits < 0) {
+            sb.append('-');
+        }
+        sb.append(whole).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the currencies differ.
+     */
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    private static long parseMinorUnits(CharSequence amount, int start, int end) {
+        long whole = 0;
+        int i = start;
+        while (i < end && isDigit(amount.charAt(i))) {
+            whole = whole * 10 + (amount.charAt(i) - '0');
+            if (whole > MAX_WHOLE_UNITS) {
+                return INVALID;
+            }
+            i++;
+        }
+        if (i == start) {
+            return INVALID;
+        }
+        long fraction = 0;
+        if (i < end) {
+            if (amount.charAt(i) != '.') {
+                return INVALID;
+            }
+            int fractionStart = ++i;
+            while (i < end && isDigit(amount.charAt(i))) {
+                fraction = fraction * 10 + (amount.charAt(i) - '0');
+                i++;
+            }
+            int fractionDigits = i - fractionStart;
+            if (fractionDigits == 0 || fractionDigits > SCALE || i != end) {
+                return INVALID;
+            }
+            if (fractionDigits == 1) {
+                fraction *= 10;
+            }
+        }
+        return whole * MINOR_PER_UNIT + fraction;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.demo.Model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,7 +12,7 @@ import java.util.UUID;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false)
@@ -39,6 +39,20 @@ public class Payment {
     @Column(nullable = false, updatable = false)
     private LocalDateTime creationDate;
 
+    /** Incremented on every change, including the native cancellation update; the basis of the payment's ETag. */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Position of the payment's latest change (creation or cancellation) in the change feed. Assigned on every insert
+     * and update by a database trigger from {@code payment_change_seq}, so it is only up to date on payments read back
+     * from the database.
+     */
+    @JsonIgnore
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long changeSeq;
+
     public int getType() {
         return type;
     }
@@ -119,6 +133,42 @@ public class Payment {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    /**
+     * @return A detached copy of this payment, for sharing with in-memory readers.
+     */
+    public Payment copy() {
+        Payment copy = new Payment();
+        copy.id = id;
+        copy.amount = amount;
+        copy.cancelation = cancelation;
+        copy.currency = currency;
+        copy.debtorIban = debtorIban;
+        copy.creditorIban = creditorIban;
+        copy.details = details;
+        copy.bicCode = bicCode;
+        copy.type = type;
+        copy.creationDate = creationDate;
+        copy.version = version;
+        copy.changeSeq = changeSeq;
+        return copy;
+    }
+
     public enum Currency {
         EUR, USD
     }
@@ -0,0 +1,38 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claims an idempotency key. If another transaction holds an uncommitted claim on the same key, this waits for
+     * it to finish instead of failing, and then reports whether the key was free.
+     *
+     * @return 1 if the record was inserted, 0 if the key was already taken.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO idempotency_record (idempotency_key, request_hash, payment_id, created_at)
+            VALUES (:key, :requestHash, :paymentId, :createdAt)
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """)
+    int insertIfAbsent(@Param("key") String key,
+                       @Param("requestHash") String requestHash,
+                       @Param("paymentId") UUID paymentId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,16 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.Payment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for the active payment listing. Null components are not applied.
+ * The creation date range is half-open: {@code from <= creationDate < to}.
+ */
+public record PaymentFilter(Payment.Currency currency, Integer type, LocalDateTime from, LocalDateTime to) {
+
+    public static PaymentFilter none() {
+        return new PaymentFilter(null, null, null, null);
+    }
+}
@@ -1,15 +1,128 @@
 package com.example.demo.Repository;
 
 import com.example.demo.Model.Payment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+public interface PaymentRepository extends JpaRepository<Payment, UUID>, PaymentRepositoryCustom {
 
+    /**
+     * Loads all active payments read-only, so Hibernate keeps no dirty-checking snapshots for them.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Payment> findByCancelationIsNull();
 
+    /**
+     * Forward-only cursor over all active payments. Must be consumed inside a transaction and closed afterwards;
+     * rows are fetched from the database in chunks of the JDBC fetch size instead of being buffered up front.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p from Payment p where p.cancelation is null order by p.creationDate, p.id")
+    Stream<Payment> streamActivePayments();
+
+    /**
+     * Loads the given payments read-only in one IN query, for callers that only look at them.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select p from Payment p where p.id in :ids")
+    List<Payment> findAllReadOnlyById(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Loads the given payments in one IN query and locks their rows until the transaction ends. Rows are
+     * locked in id order so concurrent batches cannot deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p where p.id in :ids order by p.id")
+    List<Payment> lockAllById(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Returns the payments created or cancelled in {@code (since, upTo]} of the change feed, in change order.
+     */
+    @Query("select p from Payment p where p.changeSeq > :since and p.changeSeq <= :upTo order by p.changeSeq")
+    List<Payment> findChangedBetween(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
+
+    /**
+     * @return The highest change feed position drawn so far, committed or not.
+     */
+    @Query(nativeQuery = true, value = "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM payment_change_seq")
+    long findLastChangeSeq();
+
+    /**
+     * @return The transaction id bounds of a new snapshot: every transaction below {@code xmin} has finished, every
+     * transaction that was assigned its id before the snapshot is below {@code xmax}.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint) AS xmin,
+                   CAST(CAST(pg_snapshot_xmax(pg_current_snapshot()) AS text) AS bigint) AS xmax
+            """)
+    SnapshotBounds findSnapshotBounds();
+
+    interface SnapshotBounds {
+
+        long getXmin();
+
+        long getXmax();
+    }
+
+    /**
+     * Cancels a payment in a single statement if it is still active, was created in {@code [startOfDay,
+     * startOfNextDay)} and the fee schedule has a rule for its currency and type. The fee is looked up in
+     * {@code fees} (minor units, see {@link com.example.demo.Strategy.CancellationFeeSchedule#sqlFees()}, -1 for no rule) by
+     * currency, type and full hours elapsed since creation, so concurrent cancellations of the same payment cannot
+     * both succeed. Like every update, it moves the payment to the end of the change feed.
+     *
+     * @return The cancelled payment, or empty if no row matched (missing, already cancelled, too late or no fee rule).
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            WITH fee AS (
+                SELECT id,
+                       NULLIF((CAST(:fees AS bigint[]))[CAST(
+                           ((array_position(CAST(:currencies AS text[]), CAST(currency AS text)) - 1) * :maxType + type - 1) * 24
+                           + LEAST(GREATEST(FLOOR(EXTRACT(EPOCH FROM (CAST(:now AS timestamp) - creation_date)) / 3600), 0), 23)
+                           + 1 AS integer)], -1) AS minor_units
+                  FROM payment
+                 WHERE id = :id
+                   AND type BETWEEN 1 AND :maxType
+            )
+            UPDATE payment
+               SET cancelation = fee.minor_units * 0.01,
+                   version = version + 1
+              FROM fee
+             WHERE payment.id = fee.id
+               AND fee.minor_units IS NOT NULL
+               AND payment.cancelation IS NULL
+               AND payment.creation_date >= :startOfDay
+               AND payment.creation_date < :startOfNextDay
+            RETURNING payment.*
+            """)
+    Optional<Payment> cancelIfAllowed(@Param("id") UUID id,
+                                      @Param("fees") long[] fees,
+                                      @Param("currencies") String[] currencies,
+                                      @Param("maxType") int maxType,
+                                      @Param("now") LocalDateTime now,
+                                      @Param("startOfDay") LocalDateTime startOfDay,
+                                      @Param("startOfNextDay") LocalDateTime startOfNextDay);
+
 }
@@ -0,0 +1,30 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.Payment;
+import com.example.demo.Util.PageCursor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Fetches active (non-cancelled) payments ordered by (creationDate, id), starting strictly after the given cursor.
+     *
+     * @param filter Optional listing filters.
+     * @param after  The position of the last row of the previous page, or null for the first page.
+     * @param limit  The maximum number of rows to return.
+     * @return At most {@code limit} payments in keyset order.
+     */
+    List<Payment> findActivePage(PaymentFilter filter, PageCursor after, int limit);
+
+    /**
+     * Reads the payment's row as it is now, even if this persistence context already holds the payment (e.g. one
+     * read earlier in an open-in-view request), and detaches it, so later reads and native {@code RETURNING}
+     * results are not resolved to a stale instance either.
+     *
+     * @return The payment, or empty if it does not exist.
+     */
+    Optional<Payment> findCurrentById(UUID id);
+}
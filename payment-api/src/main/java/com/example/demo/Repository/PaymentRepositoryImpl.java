@@ -0,0 +1,71 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.Payment;
+import com.example.demo.Util.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Payment> findActivePage(PaymentFilter filter, PageCursor after, int limit) {
+        StringBuilder hql = new StringBuilder("select p from Payment p where p.cancelation is null");
+        if (filter.currency() != null) {
+            hql.append(" and p.currency = :currency");
+        }
+        if (filter.type() != null) {
+            hql.append(" and p.type = :type");
+        }
+        if (filter.from() != null) {
+            hql.append(" and p.creationDate >= :from");
+        }
+        if (filter.to() != null) {
+            hql.append(" and p.creationDate < :to");
+        }
+        if (after != null) {
+            // Row-value comparison so the (creation_date, id) index can seek straight to the cursor.
+            hql.append(" and (p.creationDate, p.id) > (:afterCreationDate, :afterId)");
+        }
+        hql.append(" order by p.creationDate asc, p.id asc");
+
+        TypedQuery<Payment> query = entityManager.createQuery(hql.toString(), Payment.class);
+        if (filter.currency() != null) {
+            query.setParameter("currency", filter.currency());
+        }
+        if (filter.type() != null) {
+            query.setParameter("type", filter.type());
+        }
+        if (filter.from() != null) {
+            query.setParameter("from", filter.from());
+        }
+        if (filter.to() != null) {
+            query.setParameter("to", filter.to());
+        }
+        if (after != null) {
+            query.setParameter("afterCreationDate", after.creationDate());
+            query.setParameter("afterId", after.id());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Payment> findCurrentById(UUID id) {
+        Payment payment = entityManager.find(Payment.class, id);
+        if (payment == null) {
+            return Optional.empty();
+        }
+        entityManager.refresh(payment);
+        entityManager.detach(payment);
+        return Optional.of(payment);
+    }
+}
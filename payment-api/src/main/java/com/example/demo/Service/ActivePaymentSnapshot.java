@@ -0,0 +1,270 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.PaymentField;
+import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentRepository;
+import com.example.demo.Util.AfterCommit;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory, copy-on-write view of all active (non-cancelled) payments, ordered by creation.
+ * <p>
+ * Readers get the current {@link Snapshot} with a single volatile read and never block. Writers build a new
+ * snapshot from a copy of the previous one and publish it atomically with a higher version, after their
+ * transaction has committed. Each snapshot serializes itself to JSON at most once, so serving the list is a
+ * pointer read plus a byte copy; projections to a subset of fields are streamed from the same in-memory rows.
+ * The version also yields the list's strong {@link Snapshot#etag() ETag}.
+ * <p>
+ * The snapshot is loaded from the database on first use and reloaded every
+ * {@code payments.snapshot.refreshInterval}, which bounds staleness from writes made by other instances or
+ * directly in the database.
+ */
+@Component
+public class ActivePaymentSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivePaymentSnapshot.class);
+    /** Distinguishes versions of this process from those of earlier runs or other instances, which restart at 1. */
+    private static final String INSTANCE_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    private static final Comparator<Payment> CREATION_ORDER =
+            Comparator.comparing(Payment::getCreationDate).thenComparing(Payment::getId);
+
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+    /** Not a monitor: reload() queries the database while holding it, which would pin a virtual thread's carrier. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Snapshot current;
+    private long lastVersion;
+
+    @Autowired
+    public ActivePaymentSnapshot(PaymentRepository paymentRepository, ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        writeLock.lock();
+        try {
+            return current != null ? current : reload();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the given payments once the current transaction commits. Cancelled payments are removed.
+     */
+    public void paymentsSaved(Collection<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        List<Payment> copies = payments.stream().map(Payment::copy).toList();
+        AfterCommit.run(() -> update(byId -> {
+            for (Payment payment : copies) {
+                if (payment.getCancelation() == null) {
+                    byId.put(payment.getId(), payment);
+                } else {
+                    byId.remove(payment.getId());
+                }
+            }
+        }));
+    }
+
+    /**
+     * Removes the given payments once the current transaction commits.
+     */
+    public void paymentsCancelled(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<UUID> removed = List.copyOf(ids);
+        AfterCommit.run(() -> update(byId -> removed.forEach(byId::remove)));
+    }
+
+    @Scheduled(fixedDelayString = "${payments.snapshot.refreshInterval:PT1M}",
+            initialDelayString = "${payments.snapshot.refreshInterval:PT1M}")
+    public void refresh() {
+        if (current == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            reload();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Called with writeLock held, so no write can be published between the query and the new snapshot.
+    private Snapshot reload() {
+        List<Payment> payments = paymentRepository.findByCancelationIsNull().stream()
+                .map(Payment::copy)
+                .sorted(CREATION_ORDER)
+                .toList();
+        Snapshot previous = current;
+        if (previous != null && sameRows(previous.byId, payments)) {
+            // Keep the version, so the ETag of an unchanged list stays valid.
+            return previous;
+        }
+        Map<UUID, Payment> byId = new LinkedHashMap<>(payments.size() * 2);
+        payments.forEach(payment -> byId.put(payment.getId(), payment));
+        Snapshot snapshot = publish(byId);
+        log.debug("Loaded active payment snapshot version {} with {} payments.", snapshot.version(), byId.size());
+        return snapshot;
+    }
+
+    private static boolean sameRows(Map<UUID, Payment> byId, List<Payment> payments) {
+        if (byId.size() != payments.size()) {
+            return false;
+        }
+        for (Payment payment : payments) {
+            Payment known = byId.get(payment.getId());
+            if (known == null || known.getVersion() != payment.getVersion()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void update(Consumer<Map<UUID, Payment>> change) {
+        writeLock.lock();
+        try {
+            Snapshot snapshot = current;
+            if (snapshot == null) {
+                // Nothing loaded yet; the first load reads the committed state.
+                return;
+            }
+            Map<UUID, Payment> byId = new LinkedHashMap<>(snapshot.byId);
+            change.accept(byId);
+            publish(byId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot publish(Map<UUID, Payment> byId) {
+        Snapshot snapshot = new Snapshot(++lastVersion, Collections.unmodifiableMap(byId), objectMapper);
+        current = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * An immutable version of the active payment list.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final Map<UUID, Payment> byId;
+        private final List<Payment> payments;
+        private final ObjectMapper objectMapper;
+        private volatile byte[] json;
+
+        public Snapshot(long version, Map<UUID, Payment> byId, ObjectMapper objectMapper) {
+            this.version = version;
+            this.byId = byId;
+            this.payments = List.copyOf(byId.values());
+            this.objectMapper = objectMapper;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        /**
+         * @return A strong entity tag (quoted) that changes whenever the list changes.
+         */
+        public String etag() {
+            return "\"" + INSTANCE_EPOCH + "-" + version + "\"";
+        }
+
+        /**
+         * @return The entity tag of the projection to the given fields, distinct from that of every other selection.
+         */
+        public String etag(Set<PaymentField> fields) {
+            long mask = 0;
+            for (PaymentField field : fields) {
+                mask |= 1L << field.ordinal();
+            }
+            return "\"" + INSTANCE_EPOCH + "-" + version + "-" + Long.toString(mask, 36) + "\"";
+        }
+
+        /**
+         * @return The active payments in creation order. The payments are shared and must not be modified.
+         */
+        public List<Payment> payments() {
+            return payments;
+        }
+
+        /**
+         * @return The payments serialized as a JSON array. Computed on first use; callers must not modify it.
+         */
+        public byte[] json() {
+            byte[] bytes = json;
+            if (bytes == null) {
+                // Concurrent first calls may both serialize; they produce identical bytes.
+                try {
+                    bytes = objectMapper.writeValueAsBytes(payments);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Could not serialize active payments.", e);
+                }
+                json = bytes;
+            }
+            return bytes;
+        }
+
+        /**
+         * Serializes only the given fields of each payment, streaming straight from the shared payments without
+         * building per-row maps or DTOs. Not memoized, since clients may pick any combination of fields.
+         *
+         * @return The projected payments as a JSON array of objects, in the order of {@link #payments()}.
+         */
+        public byte[] json(Set<PaymentField> fields) {
+            if (fields.size() == PaymentField.values().length) {
+                return json();
+            }
+            ObjectWriter valueWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payments.size() * fields.size() * 16 + 2);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                for (Payment payment : payments) {
+                    generator.writeStartObject();
+                    for (PaymentField field : fields) {
+                        generator.writeFieldName(field.property());
+                        valueWriter.writeValue(generator, field.valueOf(payment));
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not serialize active payments.", e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
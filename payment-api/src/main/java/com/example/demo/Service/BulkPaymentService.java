@@ -0,0 +1,256 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.BulkCancellationItemResultDTO;
+import com.example.demo.DTO.BulkCancellationResultDTO;
+import com.example.demo.DTO.BulkPaymentItemResultDTO;
+import com.example.demo.DTO.BulkPaymentResultDTO;
+import com.example.demo.DTO.PaymentDTO;
+import com.example.demo.Exception.CancellationNotAllowedException;
+import com.example.demo.Exception.PaymentAlreadyCancelledException;
+import com.example.demo.Exception.PaymentTypeIndeterminateException;
+import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class BulkPaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkPaymentService.class);
+
+    private final PaymentRepository paymentRepository;
+    private final CancellationService cancellationService;
+    private final PaymentCache paymentCache;
+    private final ActivePaymentSnapshot activePaymentSnapshot;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader paymentReader;
+
+    @Value("${payments.bulk.batchSize:500}")
+    private int batchSize;
+
+    @Autowired
+    public BulkPaymentService(PaymentRepository paymentRepository,
+                              CancellationService cancellationService,
+                              PaymentCache paymentCache,
+                              ActivePaymentSnapshot activePaymentSnapshot,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              Validator validator,
+                              ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.cancellationService = cancellationService;
+        this.paymentCache = paymentCache;
+        this.activePaymentSnapshot = activePaymentSnapshot;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.paymentReader = objectMapper.readerFor(PaymentDTO.class);
+    }
+
+    /**
+     * Creates payments from a JSON array or a newline-delimited JSON stream of {@link PaymentDTO}s.
+     * <p>
+     * Payments are read one at a time, validated, and inserted in chunks of {@code payments.bulk.batchSize},
+     * each chunk in its own transaction so Hibernate can send it as JDBC batches and the persistence context
+     * is cleared in between. If a chunk is rejected by the database, its rows are retried one by one so only
+     * the offending payments are reported as rejected. Client-supplied ids are ignored.
+     * A syntax error ends the import at that item, since the rest of the stream cannot be located reliably.
+     *
+     * @param body The request body.
+     * @return One result per received payment.
+     * @throws JsonProcessingException if the body is neither a JSON array nor a sequence of JSON objects.
+     */
+    public BulkPaymentResultDTO createPayments(InputStream body) throws IOException {
+        BulkPaymentResultDTO result = new BulkPaymentResultDTO();
+        List<PendingPayment> chunk = new ArrayList<>(batchSize);
+        int index = 0;
+
+        try (MappingIterator<PaymentDTO> items = paymentReader.readValues(body)) {
+            while (true) {
+                PaymentDTO paymentDTO;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    paymentDTO = items.nextValue();
+                } catch (JsonProcessingException e) {
+                    result.add(BulkPaymentItemResultDTO.rejected(index++, List.of("Malformed payment: " + e.getOriginalMessage())));
+                    break;
+                }
+
+                List<String> errors = validate(paymentDTO);
+                if (errors.isEmpty()) {
+                    Payment payment = paymentDTO.toEntity();
+                    payment.setId(null);
+                    chunk.add(new PendingPayment(index, payment));
+                } else {
+                    result.add(BulkPaymentItemResultDTO.rejected(index, errors));
+                }
+                index++;
+
+                if (chunk.size() >= batchSize) {
+                    persist(chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+        persist(chunk, result);
+
+        result.setReceived(index);
+        result.getItems().sort(Comparator.comparingInt(BulkPaymentItemResultDTO::getIndex));
+        log.info("Bulk import finished: {} received, {} created, {} rejected.", index, result.getCreated(), result.getRejected());
+        return result;
+    }
+
+    /**
+     * Cancels the given payments with the same rules and fees as a single cancellation, all at one point in time.
+     * <p>
+     * Ids are processed in chunks of {@code payments.bulk.batchSize}. Each chunk is loaded and row-locked with
+     * one IN query, and its updates are flushed as JDBC batches in the same transaction. A payment that cannot be
+     * cancelled only affects its own outcome. Duplicate ids are reported once.
+     *
+     * @param ids The payments to cancel.
+     * @return One outcome per distinct id, in request order.
+     */
+    public BulkCancellationResultDTO cancelPayments(List<UUID> ids) {
+        List<UUID> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.removeIf(Objects::isNull);
+        LocalDateTime cancellationTime = LocalDateTime.now();
+
+        BulkCancellationResultDTO result = new BulkCancellationResultDTO();
+        for (int from = 0; from < distinctIds.size(); from += batchSize) {
+            List<UUID> chunk = distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size()));
+            List<BulkCancellationItemResultDTO> outcomes = transactionTemplate.execute(status -> cancelChunk(chunk, cancellationTime));
+            outcomes.forEach(result::add);
+        }
+        result.setRequested(distinctIds.size());
+        log.info("Bulk cancellation finished for {} payments: {}", distinctIds.size(), result.getSummary());
+        return result;
+    }
+
+    private List<BulkCancellationItemResultDTO> cancelChunk(List<UUID> ids, LocalDateTime cancellationTime) {
+        Map<UUID, Payment> payments = paymentRepository.lockAllById(ids).stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+
+        List<BulkCancellationItemResultDTO> outcomes = new ArrayList<>(ids.size());
+        List<Payment> cancelled = new ArrayList<>(payments.size());
+        for (UUID id : ids) {
+            Payment payment = payments.get(id);
+            if (payment == null) {
+                outcomes.add(BulkCancellationItemResultDTO.failed(id, BulkCancellationItemResultDTO.Outcome.NOT_FOUND, "Payment not found."));
+                continue;
+            }
+            try {
+                cancellationService.cancelPayment(payment, cancellationTime);
+                cancelled.add(payment);
+                outcomes.add(BulkCancellationItemResultDTO.cancelled(id, payment.getCancelation()));
+            } catch (PaymentAlreadyCancelledException e) {
+                outcomes.add(BulkCancellationItemResultDTO.failed(id, BulkCancellationItemResultDTO.Outcome.ALREADY_CANCELLED, e.getMessage()));
+            } catch (CancellationNotAllowedException e) {
+                outcomes.add(BulkCancellationItemResultDTO.failed(id, BulkCancellationItemResultDTO.Outcome.NOT_SAME_DAY, e.getMessage()));
+            } catch (PaymentTypeIndeterminateException e) {
+                outcomes.add(BulkCancellationItemResultDTO.failed(id, BulkCancellationItemResultDTO.Outcome.INVALID_TYPE, e.getMessage()));
+            }
+        }
+
+        paymentRepository.saveAll(cancelled);
+        entityManager.flush();
+        entityManager.clear();
+        List<UUID> cancelledIds = cancelled.stream().map(Payment::getId).toList();
+        paymentCache.invalidateAll(cancelledIds);
+        activePaymentSnapshot.paymentsCancelled(cancelledIds);
+        return outcomes;
+    }
+
+    private List<String> validate(PaymentDTO paymentDTO) {
+        List<String> errors = new ArrayList<>();
+        if (paymentDTO == null) {
+            errors.add("Payment must not be null");
+            return errors;
+        }
+        for (ConstraintViolation<PaymentDTO> violation : validator.validate(paymentDTO)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        // Mirrors the non-null columns of Payment, so one bad row cannot fail a whole batch at the database.
+        if (paymentDTO.getAmount() == null || paymentDTO.getAmount().isBlank()) {
+            errors.add("amount: must not be blank");
+        }
+        if (paymentDTO.getCurrency() == null) {
+            errors.add("currency: must not be null");
+        }
+        if (paymentDTO.getDebtorIban() == null || paymentDTO.getDebtorIban().isBlank()) {
+            errors.add("debtorIban: must not be blank");
+        }
+        if (paymentDTO.getCreditorIban() == null || paymentDTO.getCreditorIban().isBlank()) {
+            errors.add("creditorIban: must not be blank");
+        }
+        return errors;
+    }
+
+    private void persist(List<PendingPayment> chunk, BulkPaymentResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(chunk.stream().map(PendingPayment::payment).toList()));
+            for (PendingPayment pending : chunk) {
+                result.add(BulkPaymentItemResultDTO.created(pending.index(), pending.payment().getId()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Bulk insert of {} payments failed, retrying them individually: {}", chunk.size(), e.getMessage());
+            for (PendingPayment pending : chunk) {
+                insertSingle(pending, result);
+            }
+        }
+    }
+
+    private void insertSingle(PendingPayment pending, BulkPaymentResultDTO result) {
+        // The failed batch already assigned ids; clear them so the payment is persisted as new again.
+        pending.payment().setId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(List.of(pending.payment())));
+            result.add(BulkPaymentItemResultDTO.created(pending.index(), pending.payment().getId()));
+        } catch (RuntimeException e) {
+            Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+            result.add(BulkPaymentItemResultDTO.rejected(pending.index(), List.of("Could not be stored: " + cause.getMessage())));
+        }
+    }
+
+    private void insert(List<Payment> payments) {
+        paymentRepository.saveAll(payments);
+        entityManager.flush();
+        entityManager.clear();
+        activePaymentSnapshot.paymentsSaved(payments);
+    }
+
+    private record PendingPayment(int index, Payment payment) {
+    }
+}
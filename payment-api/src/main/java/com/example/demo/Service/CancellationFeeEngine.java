@@ -0,0 +1,114 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Money;
+import com.example.demo.Model.Payment;
+import com.example.demo.Strategy.CancellationFeeSchedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Computes cancellation fees from the {@link CancellationFeeSchedule} loaded from {@code payments.fees.schedule}.
+ * <p>
+ * The schedule file is checked for changes every {@code payments.fees.reloadInterval}; a changed file is compiled
+ * in full and then swapped in with a single volatile write, so a fee is always computed from one consistent
+ * schedule. A file that fails to parse is logged and the previous schedule stays in effect.
+ */
+@Component
+public class CancellationFeeEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(CancellationFeeEngine.class);
+
+    private final Resource scheduleResource;
+    private volatile CancellationFeeSchedule schedule;
+    private long loadedLastModified;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    @Autowired
+    public CancellationFeeEngine(@Value("${payments.fees.schedule:classpath:fee-schedule.properties}") Resource scheduleResource) throws IOException {
+        this.scheduleResource = scheduleResource;
+        this.loadedLastModified = lastModified();
+        this.schedule = load();
+    }
+
+    public CancellationFeeSchedule schedule() {
+        return schedule;
+    }
+
+    /**
+     * @return The fee for cancelling the payment at the given time under the given schedule.
+     * @throws IllegalArgumentException if the schedule has no rule for the payment's currency and type.
+     */
+    public static Money fee(CancellationFeeSchedule schedule, Payment payment, LocalDateTime cancellationTime) {
+        long fullHours = ChronoUnit.HOURS.between(payment.getCreationDate(), cancellationTime);
+        if (fullHours < 0) {
+            log.error("Error processing time (likely due to clock issues). Cancellation time {} is before creation date {}", cancellationTime, payment.getCreationDate());
+        }
+        return schedule.fee(payment.getCurrency(), payment.getType(), fullHours);
+    }
+
+    public Money fee(Payment payment, LocalDateTime cancellationTime) {
+        return fee(schedule, payment, cancellationTime);
+    }
+
+    /**
+     * Recompiles the schedule if the file changed since it was last loaded.
+     *
+     * @return Whether a new schedule was loaded.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a valid schedule.
+     */
+    public boolean reloadIfChanged() throws IOException {
+        reloadLock.lock();
+        try {
+            long lastModified = lastModified();
+            if (lastModified == loadedLastModified) {
+                return false;
+            }
+            schedule = load();
+            loadedLastModified = lastModified;
+            log.info("Reloaded cancellation fee schedule from {}.", scheduleResource.getDescription());
+            return true;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payments.fees.reloadInterval:PT30S}",
+            initialDelayString = "${payments.fees.reloadInterval:PT30S}")
+    public void reloadQuietly() {
+        try {
+            reloadIfChanged();
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to reload cancellation fee schedule from {}, keeping the previous schedule: {}", scheduleResource.getDescription(), e.getMessage(), e);
+        }
+    }
+
+    private CancellationFeeSchedule load() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = scheduleResource.getInputStream()) {
+            properties.load(in);
+        }
+        return CancellationFeeSchedule.parse(properties);
+    }
+
+    private long lastModified() {
+        try {
+            return scheduleResource.lastModified();
+        } catch (IOException e) {
+            // E.g. a classpath resource inside a jar without a modification time; it cannot change anyway.
+            return 0;
+        }
+    }
+}
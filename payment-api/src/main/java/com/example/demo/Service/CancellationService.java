@@ -1,62 +1,146 @@
 package com.example.demo.Service;
 
+import com.example.demo.DTO.FeeForecastDTO;
+import com.example.demo.DTO.FeeQuoteDTO;
 import com.example.demo.Exception.CancellationNotAllowedException;
+import com.example.demo.Exception.PaymentAlreadyCancelledException;
 import com.example.demo.Exception.PaymentTypeIndeterminateException;
+import com.example.demo.Model.Money;
 import com.example.demo.Model.Payment;
-import com.example.demo.Strategy.CancellationFeeStrategy;
-import com.example.demo.Strategy.CancellationFeeStrategyType1;
-import com.example.demo.Strategy.CancellationFeeStrategyType2;
-import com.example.demo.Strategy.CancellationFeeStrategyType3;
+import com.example.demo.Strategy.CancellationFeeSchedule;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class CancellationService {
 
-    private final CancellationFeeStrategy type1Strategy = new CancellationFeeStrategyType1();
-    private final CancellationFeeStrategy type2Strategy = new CancellationFeeStrategyType2();
-    private final CancellationFeeStrategy type3Strategy = new CancellationFeeStrategyType3();
+    private final CancellationFeeEngine feeEngine;
+
+    @Autowired
+    public CancellationService(CancellationFeeEngine feeEngine) {
+        this.feeEngine = feeEngine;
+    }
 
     public Payment cancelPayment(Payment payment) {
-        LocalDateTime cancellationTime = LocalDateTime.now();
-        LocalDate cancellationDate = cancellationTime.toLocalDate();
-        LocalDate creationDate = payment.getCreationDate().toLocalDate();
+        return cancelPayment(payment, LocalDateTime.now());
+    }
+
+    /**
+     * Same as {@link #cancelPayment(Payment)} at a given time, so a batch of cancellations shares one clock reading.
+     */
+    public Payment cancelPayment(Payment payment, LocalDateTime cancellationTime) {
+        CancellationFeeSchedule schedule = feeEngine.schedule();
+        verifyCancellable(payment, cancellationTime, schedule);
 
-        if (!creationDate.equals(cancellationDate)) {
-            throw new CancellationNotAllowedException("Payment can only be cancelled on the same day it was created. Creation date: " + creationDate + ", Attempted cancellation date: " + cancellationDate);
+        Money cancellationFee = CancellationFeeEngine.fee(schedule, payment, cancellationTime);
+
+        payment.setCancelation(cancellationFee.toBigDecimal());
+
+        return payment;
+    }
+
+    /**
+     * Applies the cancellation rules without computing a fee.
+     *
+     * @throws CancellationNotAllowedException   if the payment was created on another day.
+     * @throws PaymentAlreadyCancelledException  if the payment is already cancelled.
+     * @throws PaymentTypeIndeterminateException if the fee schedule has no rule for the payment type.
+     */
+    public void verifyCancellable(Payment payment, LocalDateTime cancellationTime) {
+        verifyCancellable(payment, cancellationTime, feeEngine.schedule());
+    }
+
+    /**
+     * Quotes the fee {@link #cancelPayment(Payment, LocalDateTime)} would charge, applying the same rules but
+     * without modifying the payment. A payment that cannot be cancelled is reported in the quote's status
+     * instead of with an exception, so a batch of quotes stays cheap.
+     */
+    public FeeQuoteDTO quote(Payment payment, LocalDateTime cancellationTime, CancellationFeeSchedule schedule) {
+        FeeQuoteDTO.Status status = status(payment, cancellationTime, schedule);
+        if (status != FeeQuoteDTO.Status.CANCELLABLE) {
+            return FeeQuoteDTO.rejected(payment.getId(), status, rejectionMessage(status, payment, cancellationTime));
         }
+        long fullHours = Math.max(ChronoUnit.HOURS.between(payment.getCreationDate(), cancellationTime), 0);
+        LocalDateTime validUntil = min(payment.getCreationDate().plusHours(fullHours + 1), startOfNextDay(cancellationTime));
+        return FeeQuoteDTO.cancellable(payment, schedule.fee(payment.getCurrency(), payment.getType(), fullHours), validUntil);
+    }
 
-        if (payment.getCancelation() != null) {
-            throw new CancellationNotAllowedException("Payment with ID " + payment.getId() + " has already been cancelled.");
+    /**
+     * Same as {@link #quote}, together with the fees that will apply for the rest of the day. Hours with an
+     * unchanged fee, e.g. once a cap is reached, are merged into one step.
+     */
+    public FeeForecastDTO forecast(Payment payment, LocalDateTime cancellationTime, CancellationFeeSchedule schedule) {
+        FeeQuoteDTO quote = quote(payment, cancellationTime, schedule);
+        List<FeeForecastDTO.Step> steps = new ArrayList<>();
+        if (quote.getStatus() == FeeQuoteDTO.Status.CANCELLABLE) {
+            steps.add(new FeeForecastDTO.Step(cancellationTime, quote.getFee()));
+            LocalDateTime endOfDay = startOfNextDay(cancellationTime);
+            for (LocalDateTime from = quote.getValidUntil(); from.isBefore(endOfDay); from = from.plusHours(1)) {
+                long fullHours = ChronoUnit.HOURS.between(payment.getCreationDate(), from);
+                Money fee = schedule.fee(payment.getCurrency(), payment.getType(), fullHours);
+                if (!fee.equals(steps.get(steps.size() - 1).getFee())) {
+                    steps.add(new FeeForecastDTO.Step(from, fee));
+                }
+            }
         }
+        return new FeeForecastDTO(quote, steps);
+    }
 
-        CancellationFeeStrategy selectedStrategy = getCancellationFeeStrategy(payment);
+    /**
+     * @return The fee schedule currently in effect; pass it on as a whole so all fees come from one version.
+     */
+    public CancellationFeeSchedule getFeeSchedule() {
+        return feeEngine.schedule();
+    }
 
-        BigDecimal cancellationFee = selectedStrategy.calculateFee(payment, cancellationTime);
+    private void verifyCancellable(Payment payment, LocalDateTime cancellationTime, CancellationFeeSchedule schedule) {
+        FeeQuoteDTO.Status status = status(payment, cancellationTime, schedule);
+        switch (status) {
+            case NOT_SAME_DAY -> throw new CancellationNotAllowedException(rejectionMessage(status, payment, cancellationTime));
+            case ALREADY_CANCELLED -> throw new PaymentAlreadyCancelledException(rejectionMessage(status, payment, cancellationTime));
+            case INVALID_TYPE -> throw new PaymentTypeIndeterminateException(rejectionMessage(status, payment, cancellationTime));
+            default -> {
+            }
+        }
+    }
 
-        payment.setCancelation(cancellationFee);
+    private static FeeQuoteDTO.Status status(Payment payment, LocalDateTime cancellationTime, CancellationFeeSchedule schedule) {
+        if (!payment.getCreationDate().toLocalDate().equals(cancellationTime.toLocalDate())) {
+            return FeeQuoteDTO.Status.NOT_SAME_DAY;
+        }
+        if (payment.getCancelation() != null) {
+            return FeeQuoteDTO.Status.ALREADY_CANCELLED;
+        }
+        if (!schedule.supports(payment.getCurrency(), payment.getType())) {
+            return FeeQuoteDTO.Status.INVALID_TYPE;
+        }
+        return FeeQuoteDTO.Status.CANCELLABLE;
+    }
 
-        return payment;
+    private static String rejectionMessage(FeeQuoteDTO.Status status, Payment payment, LocalDateTime cancellationTime) {
+        return switch (status) {
+            case NOT_SAME_DAY -> {
+                LocalDate creationDate = payment.getCreationDate().toLocalDate();
+                LocalDate cancellationDate = cancellationTime.toLocalDate();
+                yield "Payment can only be cancelled on the same day it was created. Creation date: " + creationDate + ", Attempted cancellation date: " + cancellationDate;
+            }
+            case ALREADY_CANCELLED -> "Payment with ID " + payment.getId() + " has already been cancelled.";
+            case INVALID_TYPE -> "Could not determine payment type for cancellation fee calculation for payment ID: " + payment.getId() + ". Currency: " + payment.getCurrency() + ", BIC present: " + (payment.getBicCode() != null && !payment.getBicCode().isBlank()) + ", Details present: " + (payment.getDetails() != null && !payment.getDetails().isBlank());
+            default -> null;
+        };
     }
 
-    private CancellationFeeStrategy getCancellationFeeStrategy(Payment payment) {
-        CancellationFeeStrategy selectedStrategy;
-        switch (payment.getType()){
-            case 1:
-                selectedStrategy = type1Strategy;
-                break;
-            case 2:
-                selectedStrategy = type2Strategy;
-                break;
-            case 3:
-                selectedStrategy = type3Strategy;
-                break;
-            default:
-                throw new PaymentTypeIndeterminateException("Could not determine payment type for cancellation fee calculation for payment ID: " + payment.getId() + ". Currency: " + payment.getCurrency() + ", BIC present: " + (payment.getBicCode() != null && !payment.getBicCode().isBlank()) + ", Details present: " + (payment.getDetails() != null && !payment.getDetails().isBlank()));
-        }
-        return selectedStrategy;
+    private static LocalDateTime startOfNextDay(LocalDateTime time) {
+        return time.toLocalDate().plusDays(1).atStartOfDay();
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.example.demo.Service;
+
+import com.example.demo.Repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+
+/**
+ * The change feed position up to which no change can still appear.
+ * <p>
+ * Positions are drawn when a write executes, not when it commits, so a transaction can commit a lower position
+ * after a higher one is already visible. A reader that served the higher one would move its client's cursor past
+ * the lower one for good; readers therefore serve positions up to {@link #current()} only.
+ * <p>
+ * The {@code payment_assign_change_seq} trigger gives a writing transaction its id before drawing a position. So if
+ * the sequence is read at {@code L} and a snapshot taken afterwards has {@code xmax X}, every position up to
+ * {@code L} belongs to a transaction with an id below {@code X}, and {@code L} is final once no transaction below
+ * {@code X} is running, i.e. once a snapshot's {@code xmin} reaches {@code X}. Each call records such a candidate and
+ * advances the watermark past the candidates that became final. Without concurrent writes that happens in the same
+ * call; a long-running transaction anywhere in the database cluster holds the feed back until it ends, it can never
+ * make the feed skip a change.
+ * <p>
+ * Must not be called inside a transaction that has written, which would hold back its own candidates.
+ */
+@Component
+public class ChangeFeedWatermark {
+
+    /** Bounds memory while a long transaction holds candidates back; skipping a candidate only delays the feed. */
+    static final int MAX_PENDING = 1024;
+
+    private final PaymentRepository paymentRepository;
+    private final ArrayDeque<Candidate> pending = new ArrayDeque<>();
+    private long watermark;
+
+    @Autowired
+    public ChangeFeedWatermark(PaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    /**
+     * @return The highest change feed position below which every change is committed and visible.
+     */
+    public long current() {
+        long lastSeq = paymentRepository.findLastChangeSeq();
+        PaymentRepository.SnapshotBounds snapshot = paymentRepository.findSnapshotBounds();
+        return advance(lastSeq, snapshot.getXmin(), snapshot.getXmax());
+    }
+
+    private synchronized long advance(long lastSeq, long xmin, long xmax) {
+        Candidate newest = pending.peekLast();
+        if (lastSeq > watermark && (newest == null || lastSeq > newest.seq()) && pending.size() < MAX_PENDING) {
+            pending.addLast(new Candidate(lastSeq, xmax));
+        }
+        while (!pending.isEmpty() && pending.peekFirst().xmax() <= xmin) {
+            watermark = Math.max(watermark, pending.pollFirst().seq());
+        }
+        return watermark;
+    }
+
+    private record Candidate(long seq, long xmax) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Size-bounded (W-TinyLFU) cache of GeoIP results keyed by IP address.
+ * Resolved countries live for {@code geoip.cache.ttl}; empty results (API errors, timeouts, missing country)
+ * are cached as {@link Optional#empty()} for the shorter {@code geoip.cache.negativeTtl} so a failing
+ * address is retried soon but not on every request.
+ * Hit, miss and eviction statistics are published under the {@code cache.*} meters with {@code cache=geoip}.
+ */
+@Component
+public class GeoIpCache {
+
+    private final Cache<String, Optional<String>> cache;
+
+    @Autowired
+    public GeoIpCache(@Value("${geoip.cache.maxSize:10000}") long maxSize,
+                      @Value("${geoip.cache.ttl:PT6H}") Duration ttl,
+                      @Value("${geoip.cache.negativeTtl:PT1M}") Duration negativeTtl,
+                      MeterRegistry meterRegistry) {
+        this(maxSize, ttl, negativeTtl, meterRegistry, Ticker.systemTicker());
+    }
+
+    GeoIpCache(long maxSize, Duration ttl, Duration negativeTtl, MeterRegistry meterRegistry, Ticker ticker) {
+        long ttlNanos = ttl.toNanos();
+        long negativeTtlNanos = negativeTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<String>>() {
+                    @Override
+                    public long expireAfterCreate(String ip, Optional<String> country, long currentTime) {
+                        return country.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String ip, Optional<String> country, long currentTime, long currentDuration) {
+                        return expireAfterCreate(ip, country, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String ip, Optional<String> country, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "geoip");
+    }
+
+    /**
+     * @param ip The IP address.
+     * @return The cached result, or null if the address is not cached. A cached failure is {@link Optional#empty()}.
+     */
+    public Optional<String> getIfPresent(String ip) {
+        return cache.getIfPresent(ip);
+    }
+
+    public void put(String ip, Optional<String> country) {
+        cache.put(ip, country);
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compiles an IPv4 range-to-country CSV into the sorted binary file served by {@link OfflineGeoIpDatabase}.
+ * <p>
+ * CSV rows are {@code start,end,country} where start and end are dotted IPv4 addresses (inclusive) or
+ * unsigned 32-bit integers and country is an ISO 3166-1 alpha-2 code. Blank lines, lines starting with
+ * {@code #} and a header row are ignored. The output is written to a temporary file and atomically moved
+ * into place, so a running {@link OfflineGeoIpDatabase} never observes a half-written dataset.
+ * <p>
+ * Binary layout (big endian): magic {@code 'GEO1'}, record count, then {@code count} records of
+ * {@code [start:int][end:int][country:2 ASCII bytes]} sorted by unsigned start address.
+ */
+public final class GeoIpDatabaseCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIpDatabaseCompiler.class);
+
+    static final int MAGIC = 0x47454F31;
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    static final int RECORD_BYTES = 2 * Integer.BYTES + 2;
+
+    private GeoIpDatabaseCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            log.error("Usage: GeoIpDatabaseCompiler <ranges.csv> <output.bin>");
+            System.exit(1);
+        }
+        int count = compile(Path.of(args[0]), Path.of(args[1]));
+        log.info("Compiled {} ranges into {}.", count, args[1]);
+    }
+
+    /**
+     * @param csv    The source CSV file.
+     * @param output The binary file to (re)place.
+     * @return The number of compiled ranges.
+     * @throws IllegalArgumentException if a row is malformed or ranges overlap.
+     */
+    public static int compile(Path csv, Path output) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            boolean firstRow = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = trimmed.replace("\"", "").split(",");
+                if (columns.length < 3) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": expected start,end,country but got: " + line);
+                }
+                long start = parseAddress(columns[0].trim());
+                long end = parseAddress(columns[1].trim());
+                boolean headerRow = firstRow;
+                firstRow = false;
+                if (start < 0 || end < 0) {
+                    if (headerRow) {
+                        continue;
+                    }
+                    throw new IllegalArgumentException("Line " + lineNumber + ": invalid IPv4 address in: " + line);
+                }
+                if (end < start) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": range end is before start: " + line);
+                }
+                ranges.add(new long[]{start, end, encodeCountry(columns[2].trim(), lineNumber)});
+            }
+        }
+
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        for (int i = 1; i < ranges.size(); i++) {
+            if (ranges.get(i)[0] <= ranges.get(i - 1)[1]) {
+                throw new IllegalArgumentException("Overlapping ranges starting at " + formatAddress(ranges.get(i)[0]));
+            }
+        }
+
+        Path directory = output.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, output.getFileName().toString(), ".tmp");
+        try (OutputStream fileOut = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(ranges.size());
+            for (long[] range : ranges) {
+                out.writeInt((int) range[0]);
+                out.writeInt((int) range[1]);
+                out.writeShort((int) range[2]);
+            }
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return ranges.size();
+    }
+
+    private static long parseAddress(String value) {
+        if (value.indexOf('.') < 0) {
+            try {
+                long numeric = Long.parseLong(value);
+                return numeric >= 0 && numeric <= 0xFFFFFFFFL ? numeric : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return OfflineGeoIpDatabase.parseIpv4(value);
+    }
+
+    private static long encodeCountry(String country, int lineNumber) {
+        String upper = country.toUpperCase(Locale.ROOT);
+        if (upper.length() != 2 || !isAsciiLetter(upper.charAt(0)) || !isAsciiLetter(upper.charAt(1))) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": invalid country code: " + country);
+        }
+        return ((long) upper.charAt(0) << 8) | upper.charAt(1);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static String formatAddress(long address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+}
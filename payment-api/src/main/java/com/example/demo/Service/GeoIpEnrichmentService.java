@@ -0,0 +1,97 @@
+package com.example.demo.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves client countries for access logging off the request thread.
+ * Work goes through a bounded queue drained by a fixed worker pool; when the queue is full
+ * the lookup is dropped, so a slow GeoIP API can never hold up or pile up request threads.
+ * With {@code spring.threads.virtual.enabled} the workers are virtual threads, so {@code geoip.enrichment.workers}
+ * can be raised towards {@code geoip.bulkhead.maxConcurrentCalls} without costing platform threads.
+ */
+@Service
+public class GeoIpEnrichmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIpEnrichmentService.class);
+
+    private final GeoIpService geoIpService;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter submitted;
+    private final Counter dropped;
+    private final Counter completed;
+    private final Counter failed;
+
+    @Autowired
+    public GeoIpEnrichmentService(GeoIpService geoIpService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${geoip.enrichment.workers:2}") int workers,
+                                  @Value("${geoip.enrichment.queueCapacity:1000}") int queueCapacity,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.geoIpService = geoIpService;
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("geoip-enrichment-", 1).factory()
+                : new CustomizableThreadFactory("geoip-enrichment-");
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.submitted = Counter.builder("geoip.enrichment.tasks").tag("outcome", "submitted").register(meterRegistry);
+        this.dropped = Counter.builder("geoip.enrichment.tasks").tag("outcome", "dropped").register(meterRegistry);
+        this.completed = Counter.builder("geoip.enrichment.tasks").tag("outcome", "completed").register(meterRegistry);
+        this.failed = Counter.builder("geoip.enrichment.tasks").tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("geoip.enrichment.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("geoip.enrichment.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    /**
+     * Queues a country lookup for the given client and logs the payment list access once it resolves.
+     * Never blocks the caller.
+     *
+     * @param clientIp The client IP address to resolve.
+     * @return true if the lookup was queued, false if it was dropped because the queue is full.
+     */
+    public boolean logPaymentListAccess(String clientIp) {
+        try {
+            executor.execute(() -> resolveAndLog(clientIp));
+            submitted.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.debug("GeoIP enrichment queue full, dropping lookup for IP: {}", clientIp);
+            return false;
+        }
+    }
+
+    private void resolveAndLog(String clientIp) {
+        try {
+            String country = geoIpService.getCountryFromIp(clientIp).orElse("Unknown");
+            log.info("User connection from country: {} (IP: {}) accessing payment list.", country, clientIp);
+            completed.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Non-critical error during GeoIP lookup for payment list access: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,6 +2,14 @@ package com.example.demo.Service;
 
 import com.example.demo.Util.IpAddressUtil;
 import com.fasterxml.jackson.databind.JsonNode;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +21,8 @@ import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class GeoIpService {
@@ -21,6 +31,16 @@ public class GeoIpService {
 
     private final WebClient webClient;
     private final IpAddressUtil ipAddressUtil;
+    private final GeoIpCache geoIpCache;
+    private final Optional<OfflineGeoIpDatabase> offlineDatabase;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    // Single-flight: at most one outbound request per IP; concurrent callers share its Mono.
+    private final ConcurrentHashMap<String, Mono<Optional<String>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter remoteLookups;
+    private final Counter coalescedLookups;
+    private final Counter rejectedLookups;
 
     @Value("${geoip.api.urlTemplate}")
     private String apiUrlTemplate;
@@ -29,63 +49,131 @@ public class GeoIpService {
     private long apiTimeoutSeconds;
 
     @Autowired
-    public GeoIpService(WebClient.Builder webClientBuilder, IpAddressUtil ipAddressUtil) {
+    public GeoIpService(WebClient.Builder webClientBuilder,
+                        IpAddressUtil ipAddressUtil,
+                        GeoIpCache geoIpCache,
+                        Optional<OfflineGeoIpDatabase> offlineDatabase,
+                        CircuitBreaker geoIpCircuitBreaker,
+                        Bulkhead geoIpBulkhead,
+                        MeterRegistry meterRegistry) {
         this.webClient = webClientBuilder.build();
         this.ipAddressUtil = ipAddressUtil;
+        this.geoIpCache = geoIpCache;
+        this.offlineDatabase = offlineDatabase;
+        this.circuitBreaker = geoIpCircuitBreaker;
+        this.bulkhead = geoIpBulkhead;
+        this.remoteLookups = Counter.builder("geoip.lookups").tag("source", "remote").register(meterRegistry);
+        this.coalescedLookups = Counter.builder("geoip.lookups").tag("source", "coalesced").register(meterRegistry);
+        this.rejectedLookups = Counter.builder("geoip.lookups").tag("source", "rejected").register(meterRegistry);
     }
 
     public Optional<String> getCountryFromIp(String ipAddress) {
+        try {
+            return lookupCountry(ipAddress).blockOptional().flatMap(country -> country);
+        } catch (IllegalStateException e) {
+            log.error("Error processing api.country.is response (likely due to prior error): {}", e.getMessage());
+            return Optional.empty();
+        } catch (Exception e) {
+            log.error("Unexpected error during api.country.is lookup for {}: {}", ipAddress, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #getCountryFromIp(String)}. Concurrent lookups of the same address that
+     * miss the cache share a single outbound request; callers arriving while it is in flight attach to it.
+     *
+     * @param ipAddress The IP address to resolve.
+     * @return A Mono emitting the country code, or {@link Optional#empty()} if it could not be resolved.
+     */
+    public Mono<Optional<String>> lookupCountry(String ipAddress) {
         if (ipAddress == null || ipAddress.isBlank() || "Unknown".equalsIgnoreCase(ipAddress)) {
             log.debug("Skipping GeoIP lookup for address: {}", ipAddress);
-            return Optional.of("Unknown");
+            return Mono.just(Optional.of("Unknown"));
         }
 
         if (ipAddressUtil.isLocalhost(ipAddress)) {
             log.debug("Skipping GeoIP lookup for localhost address: {}", ipAddress);
-            return Optional.of("Localhost");
+            return Mono.just(Optional.of("Localhost"));
+        }
+
+        if (offlineDatabase.isPresent()) {
+            // Local lookups are cheaper than a cache probe, so they bypass the cache entirely.
+            return Mono.just(Optional.ofNullable(offlineDatabase.get().lookupCountryCode(ipAddress)));
+        }
+
+        Optional<String> cached = geoIpCache.getIfPresent(ipAddress);
+        if (cached != null) {
+            log.debug("GeoIP cache hit for {}: {}", ipAddress, cached);
+            return Mono.just(cached);
+        }
+
+        return sharedRemoteLookup(ipAddress);
+    }
+
+    private Mono<Optional<String>> sharedRemoteLookup(String ipAddress) {
+        AtomicReference<Mono<Optional<String>>> self = new AtomicReference<>();
+        Mono<Optional<String>> candidate = fetchCountry(ipAddress)
+                .doOnNext(country -> geoIpCache.put(ipAddress, country))
+                // Open circuit or full bulkhead: answer immediately and do not cache, the API may be fine again soon.
+                .onErrorResume(GeoIpService::isRejection, ex -> {
+                    rejectedLookups.increment();
+                    log.debug("GeoIP lookup for {} rejected ({}), falling back to Unknown.", ipAddress, ex.getMessage());
+                    return Mono.just(Optional.of("Unknown"));
+                })
+                .doFinally(signal -> inFlight.remove(ipAddress, self.get()))
+                .cache();
+        self.set(candidate);
+
+        Mono<Optional<String>> existing = inFlight.putIfAbsent(ipAddress, candidate);
+        if (existing != null) {
+            coalescedLookups.increment();
+            log.debug("Joining in-flight GeoIP lookup for {}", ipAddress);
+            return existing;
         }
+        remoteLookups.increment();
+        return candidate;
+    }
 
+    private Mono<Optional<String>> fetchCountry(String ipAddress) {
         String requestUrl = apiUrlTemplate.replace("{ip}", ipAddress);
         log.debug("Requesting GeoIP info from: {}", requestUrl);
 
-        try {
-            Optional<JsonNode> responseBodyOpt = webClient.get()
-                    .uri(requestUrl)
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .timeout(Duration.ofSeconds(apiTimeoutSeconds))
-                    .onErrorResume(WebClientResponseException.class, ex -> {
-                        log.warn("api.country.is request for {} failed with status {}: {}", ipAddress, ex.getStatusCode(), ex.getResponseBodyAsString());
-                        return Mono.empty();
-                    })
-                    .onErrorResume(Exception.class, ex -> {
-                        log.error("Error calling api.country.is service for {}: {}", ipAddress, ex.getMessage());
-                        return Mono.empty();
-                    })
-                    .blockOptional();
-
-            if (responseBodyOpt.isPresent()) {
-                JsonNode body = responseBodyOpt.get();
-                if (body.hasNonNull("country") && body.get("country").isTextual()) {
-                    String countryCode = body.get("country").asText();
-                    if (!countryCode.isBlank()) {
-                        log.debug("Resolved country code '{}' for IP {}", countryCode, ipAddress);
-                        return Optional.of(countryCode);
-                    } else {
-                        log.warn("api.country.is response for {} had blank 'country' field.", ipAddress);
-                    }
-                } else {
-                    log.warn("api.country.is response for {} missing or invalid 'country' field: {}", ipAddress, body);
-                }
-            }
-            return Optional.empty();
+        return webClient.get()
+                .uri(requestUrl)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(Duration.ofSeconds(apiTimeoutSeconds))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .map(body -> extractCountry(ipAddress, body))
+                .onErrorResume(WebClientResponseException.class, ex -> {
+                    log.warn("api.country.is request for {} failed with status {}: {}", ipAddress, ex.getStatusCode(), ex.getResponseBodyAsString());
+                    return Mono.empty();
+                })
+                .onErrorResume(ex -> !isRejection(ex), ex -> {
+                    log.error("Error calling api.country.is service for {}: {}", ipAddress, ex.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(Optional.empty());
+    }
 
-        } catch (IllegalStateException e) {
-            log.error("Error processing api.country.is response (likely due to prior error): {}", e.getMessage());
-            return Optional.empty();
-        } catch (Exception e) {
-            log.error("Unexpected error during api.country.is lookup for {}: {}", ipAddress, e.getMessage(), e);
-            return Optional.empty();
+    private static boolean isRejection(Throwable throwable) {
+        return throwable instanceof CallNotPermittedException || throwable instanceof BulkheadFullException;
+    }
+
+    private Optional<String> extractCountry(String ipAddress, JsonNode body) {
+        if (body.hasNonNull("country") && body.get("country").isTextual()) {
+            String countryCode = body.get("country").asText();
+            if (!countryCode.isBlank()) {
+                log.debug("Resolved country code '{}' for IP {}", countryCode, ipAddress);
+                return Optional.of(countryCode);
+            } else {
+                log.warn("api.country.is response for {} had blank 'country' field.", ipAddress);
+            }
+        } else {
+            log.warn("api.country.is response for {} missing or invalid 'country' field: {}", ipAddress, body);
         }
+        return Optional.empty();
     }
 }
@@ -0,0 +1,209 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.PaymentDTO;
+import com.example.demo.Exception.IdempotencyKeyReusedException;
+import com.example.demo.Exception.IdempotentRequestInProgressException;
+import com.example.demo.Repository.IdempotencyRecordRepository;
+import com.example.demo.Repository.PaymentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates payments at most once per {@code Idempotency-Key}.
+ * <p>
+ * Keys are looked up in a bounded in-memory map first. It holds one future per key: the first request for a key
+ * installs it and creates the payment, concurrent duplicates wait on it, and later retries get the completed
+ * result without touching the database. Behind the map, the {@code idempotency_record} table is the source of
+ * truth across restarts and instances. A key is claimed with {@code INSERT ... ON CONFLICT DO NOTHING} in the same
+ * transaction as the payment, so only one payment can ever be committed per key.
+ * <p>
+ * A key reused with a different request body is rejected. Keys are honoured for at least
+ * {@code payments.idempotency.ttl}; expired records are purged every {@code payments.idempotency.purgeInterval}.
+ */
+@Service
+public class IdempotentPaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentPaymentService.class);
+
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final ConcurrentMap<String, CompletableFuture<StoredPayment>> requests;
+
+    @Autowired
+    public IdempotentPaymentService(PaymentService paymentService,
+                                    PaymentRepository paymentRepository,
+                                    IdempotencyRecordRepository idempotencyRecordRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${payments.idempotency.ttl:PT24H}") Duration ttl,
+                                    @Value("${payments.idempotency.cache.maxSize:100000}") long maxSize,
+                                    @Value("${payments.idempotency.waitTimeout:PT10S}") Duration waitTimeout) {
+        this.paymentService = paymentService;
+        this.paymentRepository = paymentRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        Cache<String, CompletableFuture<StoredPayment>> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+        this.requests = cache.asMap();
+    }
+
+    /**
+     * @param idempotencyKey The client-chosen key identifying this logical request.
+     * @param paymentDTO     The payment to create.
+     * @return The payment created for this key, and whether it was created by an earlier request.
+     * @throws IdempotencyKeyReusedException        if the key was already used with a different payment.
+     * @throws IdempotentRequestInProgressException if a request with the same key did not finish within
+     *                                              {@code payments.idempotency.waitTimeout}.
+     */
+    public Result savePayment(String idempotencyKey, PaymentDTO paymentDTO) {
+        String requestHash = requestHash(paymentDTO);
+        while (true) {
+            CompletableFuture<StoredPayment> claim = new CompletableFuture<>();
+            CompletableFuture<StoredPayment> existing = requests.putIfAbsent(idempotencyKey, claim);
+            if (existing == null) {
+                return execute(idempotencyKey, requestHash, paymentDTO, claim);
+            }
+            Optional<StoredPayment> stored = await(idempotencyKey, existing);
+            if (stored.isPresent()) {
+                return replay(idempotencyKey, requestHash, stored.get());
+            }
+            // The request we waited for failed and released the key; try to claim it ourselves.
+        }
+    }
+
+    private Result execute(String idempotencyKey, String requestHash, PaymentDTO paymentDTO, CompletableFuture<StoredPayment> claim) {
+        StoredPayment recorded;
+        try {
+            recorded = findRecorded(idempotencyKey).orElse(null);
+            if (recorded == null) {
+                StoredPayment created = transactionTemplate.execute(status -> {
+                    PaymentDTO saved = paymentService.savePayment(paymentDTO);
+                    if (idempotencyRecordRepository.insertIfAbsent(idempotencyKey, requestHash, saved.getId(), LocalDateTime.now()) == 1) {
+                        return new StoredPayment(requestHash, saved);
+                    }
+                    status.setRollbackOnly();
+                    return null;
+                });
+                if (created != null) {
+                    claim.complete(created);
+                    meterRegistry.counter("payments.idempotency", "outcome", "created").increment();
+                    return new Result(created.payment(), false);
+                }
+                // Another instance committed the same key first; our payment was rolled back.
+                recorded = findRecorded(idempotencyKey)
+                        .orElseThrow(() -> new IllegalStateException("Idempotency record for key " + idempotencyKey + " disappeared."));
+            }
+        } catch (RuntimeException e) {
+            requests.remove(idempotencyKey, claim);
+            claim.completeExceptionally(e);
+            throw e;
+        }
+        claim.complete(recorded);
+        return replay(idempotencyKey, requestHash, recorded);
+    }
+
+    private Optional<StoredPayment> findRecorded(String idempotencyKey) {
+        return idempotencyRecordRepository.findById(idempotencyKey).map(record -> new StoredPayment(
+                record.getRequestHash(),
+                paymentRepository.findById(record.getPaymentId())
+                        .map(PaymentDTO::fromEntity)
+                        .orElseThrow(() -> new IllegalStateException("Payment " + record.getPaymentId()
+                                + " recorded for idempotency key " + idempotencyKey + " does not exist."))));
+    }
+
+    /**
+     * @return The outcome of the in-flight request, or empty if it failed and the key can be claimed again.
+     */
+    private Optional<StoredPayment> await(String idempotencyKey, CompletableFuture<StoredPayment> inFlight) {
+        try {
+            return Optional.of(inFlight.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException("A request with Idempotency-Key " + idempotencyKey + " is still being processed.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException("Interrupted while waiting for the request with Idempotency-Key " + idempotencyKey + ".");
+        }
+    }
+
+    private Result replay(String idempotencyKey, String requestHash, StoredPayment stored) {
+        if (!stored.requestHash().equals(requestHash)) {
+            meterRegistry.counter("payments.idempotency", "outcome", "rejected").increment();
+            throw new IdempotencyKeyReusedException("Idempotency-Key " + idempotencyKey + " was already used for a different payment.");
+        }
+        meterRegistry.counter("payments.idempotency", "outcome", "replayed").increment();
+        return new Result(stored.payment(), true);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.idempotency.purgeInterval:PT1H}",
+            initialDelayString = "${payments.idempotency.purgeInterval:PT1H}")
+    public void purgeExpiredRecords() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency records.", purged);
+        }
+    }
+
+    /**
+     * Hash of the fields a client sends when creating a payment; server-assigned fields are ignored.
+     */
+    static String requestHash(PaymentDTO paymentDTO) {
+        String canonical = String.join("\u0000",
+                Objects.toString(paymentDTO.getAmount(), ""),
+                Objects.toString(paymentDTO.getCurrency(), ""),
+                Objects.toString(paymentDTO.getDebtorIban(), ""),
+                Objects.toString(paymentDTO.getCreditorIban(), ""),
+                Objects.toString(paymentDTO.getDetails(), ""),
+                Objects.toString(paymentDTO.getBicCode(), ""),
+                Integer.toString(paymentDTO.getType()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    public record Result(PaymentDTO payment, boolean replayed) {
+    }
+
+    private record StoredPayment(String requestHash, PaymentDTO payment) {
+    }
+}
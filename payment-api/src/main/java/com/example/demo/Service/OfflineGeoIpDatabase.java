@@ -0,0 +1,236 @@
+package com.example.demo.Service;
+
+import com.example.demo.Util.IpAddressParser;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local IPv4 range-to-country lookup used when {@code geoip.mode=offline}.
+ * <p>
+ * The compiled dataset (see {@link GeoIpDatabaseCompiler}) is memory-mapped read-only and searched with a
+ * binary search over fixed-size records, so a lookup touches O(log n) pages, takes no locks and allocates
+ * nothing: addresses are parsed in place and country codes come from a pre-built table of constants.
+ * <p>
+ * The file is polled for changes every {@code geoip.offline.reloadIntervalSeconds}; a new dataset is mapped
+ * and swapped in atomically, and in-flight lookups finish against the previous mapping. If
+ * {@code geoip.offline.csvPath} is set, the CSV is compiled on startup and whenever it is newer than the
+ * binary file. A file that fails validation (header, size, record order or country codes) is rejected when it
+ * is mapped, so startup fails or a reload keeps the previous dataset. IPv6 addresses are not covered by the
+ * dataset and resolve to empty.
+ */
+@Component
+@ConditionalOnProperty(name = "geoip.mode", havingValue = "offline")
+public class OfflineGeoIpDatabase {
+
+    private static final Logger log = LoggerFactory.getLogger(OfflineGeoIpDatabase.class);
+
+    private static final String[] COUNTRY_CODES = new String[26 * 26];
+
+    static {
+        for (char first = 'A'; first <= 'Z'; first++) {
+            for (char second = 'A'; second <= 'Z'; second++) {
+                COUNTRY_CODES[(first - 'A') * 26 + (second - 'A')] = new String(new char[]{first, second});
+            }
+        }
+    }
+
+    private final Path databasePath;
+    private final Path csvPath;
+    private final ScheduledExecutorService reloader;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile Dataset dataset;
+
+    @Autowired
+    public OfflineGeoIpDatabase(@Value("${geoip.offline.databasePath}") String databasePath,
+                                @Value("${geoip.offline.csvPath:}") String csvPath,
+                                @Value("${geoip.offline.reloadIntervalSeconds:30}") long reloadIntervalSeconds) throws IOException {
+        this.databasePath = Path.of(databasePath);
+        this.csvPath = csvPath == null || csvPath.isBlank() ? null : Path.of(csvPath);
+        compileIfStale();
+        this.dataset = Dataset.map(this.databasePath);
+        log.info("Loaded offline GeoIP database {} with {} ranges.", this.databasePath, dataset.count);
+
+        if (reloadIntervalSeconds > 0) {
+            this.reloader = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("geoip-db-reload-"));
+            this.reloader.scheduleWithFixedDelay(this::reloadQuietly, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            this.reloader = null;
+        }
+    }
+
+    /**
+     * @param ipAddress A dotted IPv4 address.
+     * @return The ISO country code, or null if the address is not IPv4 or not covered by the dataset.
+     */
+    public String lookupCountryCode(CharSequence ipAddress) {
+        long address = parseIpv4(ipAddress);
+        return address < 0 ? null : lookupCountryCode((int) address);
+    }
+
+    /**
+     * @param address The IPv4 address as an unsigned 32-bit value.
+     * @return The ISO country code, or null if the address is not covered by the dataset.
+     */
+    public String lookupCountryCode(int address) {
+        Dataset current = dataset;
+        ByteBuffer buffer = current.buffer;
+        int low = 0;
+        int high = current.count - 1;
+        int match = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int start = buffer.getInt(GeoIpDatabaseCompiler.HEADER_BYTES + mid * GeoIpDatabaseCompiler.RECORD_BYTES);
+            if (Integer.compareUnsigned(start, address) <= 0) {
+                match = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (match < 0) {
+            return null;
+        }
+        int offset = GeoIpDatabaseCompiler.HEADER_BYTES + match * GeoIpDatabaseCompiler.RECORD_BYTES;
+        int end = buffer.getInt(offset + Integer.BYTES);
+        if (Integer.compareUnsigned(address, end) > 0) {
+            return null;
+        }
+        int first = buffer.get(offset + 2 * Integer.BYTES) - 'A';
+        int second = buffer.get(offset + 2 * Integer.BYTES + 1) - 'A';
+        // Validated when mapped; only a file rewritten in place instead of replaced can fail this.
+        if (first < 0 || first >= 26 || second < 0 || second >= 26) {
+            return null;
+        }
+        return COUNTRY_CODES[first * 26 + second];
+    }
+
+    public int size() {
+        return dataset.count;
+    }
+
+    /**
+     * Re-maps the dataset if the binary file (or the source CSV) changed since it was last loaded.
+     *
+     * @return true if a new dataset was swapped in.
+     */
+    public boolean reloadIfChanged() throws IOException {
+        reloadLock.lock();
+        try {
+            compileIfStale();
+            FileTime modified = Files.getLastModifiedTime(databasePath);
+            long size = Files.size(databasePath);
+            if (modified.equals(dataset.modified) && size == dataset.fileSize) {
+                return false;
+            }
+            Dataset reloaded = Dataset.map(databasePath);
+            dataset = reloaded;
+            log.info("Reloaded offline GeoIP database {} with {} ranges.", databasePath, reloaded.count);
+            return true;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reloadIfChanged();
+        } catch (Exception e) {
+            log.error("Failed to reload offline GeoIP database {}, keeping the previous dataset: {}", databasePath, e.getMessage(), e);
+        }
+    }
+
+    private void compileIfStale() throws IOException {
+        if (csvPath == null) {
+            return;
+        }
+        if (Files.notExists(databasePath)
+                || Files.getLastModifiedTime(csvPath).compareTo(Files.getLastModifiedTime(databasePath)) > 0) {
+            int count = GeoIpDatabaseCompiler.compile(csvPath, databasePath);
+            log.info("Compiled {} GeoIP ranges from {} into {}.", count, csvPath, databasePath);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address without allocating.
+     *
+     * @param value The candidate address.
+     * @return The address as an unsigned 32-bit value, or -1 if the value is not a valid IPv4 address.
+     */
+    static long parseIpv4(CharSequence value) {
+        return value == null ? -1 : IpAddressParser.parseIpv4(value, 0, value.length());
+    }
+
+    private record Dataset(ByteBuffer buffer, int count, FileTime modified, long fileSize) {
+
+        static Dataset map(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                FileTime modified = Files.getLastModifiedTime(path);
+                long fileSize = channel.size();
+                if (fileSize < GeoIpDatabaseCompiler.HEADER_BYTES) {
+                    throw new IOException("GeoIP database " + path + " is truncated.");
+                }
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                if (buffer.getInt(0) != GeoIpDatabaseCompiler.MAGIC) {
+                    throw new IOException("GeoIP database " + path + " has an unknown format.");
+                }
+                int count = buffer.getInt(Integer.BYTES);
+                if (count < 0 || fileSize != GeoIpDatabaseCompiler.HEADER_BYTES + (long) count * GeoIpDatabaseCompiler.RECORD_BYTES) {
+                    throw new IOException("GeoIP database " + path + " is corrupt: size does not match " + count + " records.");
+                }
+                validateRecords(path, buffer, count);
+                return new Dataset(buffer, count, modified, fileSize);
+            }
+        }
+
+        /**
+         * Checks once per mapping what lookups rely on without checking: ranges sorted and disjoint, and
+         * country codes of two letters {@code A-Z}, so they index {@link #COUNTRY_CODES} in bounds.
+         */
+        private static void validateRecords(Path path, ByteBuffer buffer, int count) throws IOException {
+            long previousEnd = -1;
+            for (int i = 0; i < count; i++) {
+                int offset = GeoIpDatabaseCompiler.HEADER_BYTES + i * GeoIpDatabaseCompiler.RECORD_BYTES;
+                long start = Integer.toUnsignedLong(buffer.getInt(offset));
+                long end = Integer.toUnsignedLong(buffer.getInt(offset + Integer.BYTES));
+                if (start <= previousEnd || end < start) {
+                    throw new IOException("GeoIP database " + path + " is corrupt: record " + i + " is out of order.");
+                }
+                if (!isCountryLetter(buffer.get(offset + 2 * Integer.BYTES))
+                        || !isCountryLetter(buffer.get(offset + 2 * Integer.BYTES + 1))) {
+                    throw new IOException("GeoIP database " + path + " is corrupt: record " + i + " has an invalid country code.");
+                }
+                previousEnd = end;
+            }
+        }
+
+        private static boolean isCountryLetter(byte b) {
+            return b >= 'A' && b <= 'Z';
+        }
+    }
+}
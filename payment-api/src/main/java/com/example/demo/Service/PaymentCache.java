@@ -0,0 +1,92 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Payment;
+import com.example.demo.Util.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Size-bounded read-through cache of payments keyed by id.
+ * <p>
+ * Entries are shared between callers and must be treated as read-only. Writers update or invalidate entries
+ * through {@link #put} and {@link #invalidateAll}; inside a transaction this happens only after commit, so a
+ * rolled-back write never becomes visible. Because Caffeine serialises a load with later writes to the same key,
+ * a load that read the old row cannot overwrite a newer entry. Entries also expire after
+ * {@code payments.cache.ttl} as a safety net for changes made outside the application.
+ * Hit, miss and eviction statistics are published under the {@code cache.*} meters with {@code cache=payments}.
+ */
+@Component
+public class PaymentCache {
+
+    private final Cache<UUID, Payment> cache;
+
+    @Autowired
+    public PaymentCache(@Value("${payments.cache.maxSize:10000}") long maxSize,
+                        @Value("${payments.cache.ttl:PT10M}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "payments");
+    }
+
+    /**
+     * @param id     The payment id.
+     * @param loader Loads the payment on a miss. Concurrent misses for the same id share one load.
+     * @return The payment, or empty if the loader found none. Missing payments are not cached. Loaded payments are
+     * cached as copies, so a managed entity returned by the loader is never shared.
+     */
+    public Optional<Payment> get(UUID id, Function<UUID, Optional<Payment>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).map(Payment::copy).orElse(null)));
+    }
+
+    /**
+     * Bulk variant of {@link #get}: all misses are passed to the loader in one call.
+     *
+     * @param ids    The payment ids.
+     * @param loader Loads the missing payments, keyed by id; ids it returns no payment for are not cached.
+     * @return The found payments keyed by id. Like in {@link #get}, loaded payments are cached as copies.
+     */
+    public Map<UUID, Payment> getAll(Collection<UUID> ids, Function<Set<? extends UUID>, Map<UUID, Payment>> loader) {
+        return cache.getAll(ids, keys -> {
+            Map<UUID, Payment> copies = new HashMap<>();
+            loader.apply(keys).forEach((id, payment) -> copies.put(id, payment.copy()));
+            return copies;
+        });
+    }
+
+    /**
+     * Caches a snapshot of the given payment, so later changes to the entity by the caller are not shared.
+     */
+    public void put(Payment payment) {
+        Payment copy = payment.copy();
+        AfterCommit.run(() -> cache.put(copy.getId(), copy));
+    }
+
+    public void invalidateAll(Collection<UUID> ids) {
+        List<UUID> keys = List.copyOf(ids);
+        AfterCommit.run(() -> cache.invalidateAll(keys));
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.PaymentChangeDTO;
+import com.example.demo.Repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the payment change feed to Server-Sent Events subscribers.
+ * <p>
+ * One poll every {@code payments.changes.pollInterval} reads the changes after the oldest subscriber cursor and
+ * fans them out, so the database load depends on the number of changes, not on the number of subscribers. Polling
+ * the database rather than listening to local writes also picks up changes made by other instances. Like the REST
+ * feed, a poll reads no further than the {@link ChangeFeedWatermark}, so no subscriber skips a late commit. Each event
+ * carries the change's sequence number as its id, so a reconnecting client resumes via {@code Last-Event-ID}.
+ * <p>
+ * The poll runs on the shared scheduler and never blocks on a client: it only queues changes, and a dedicated sender
+ * pool writes them to the connections. Subscribers that are caught up are read for separately from those catching
+ * up, and catching up is limited to {@code payments.changes.stream.maxBatchesPerPoll} batches per poll, so a client
+ * reconnecting with {@code since=0} neither stalls the scheduler nor delays everyone else. A subscriber whose queue
+ * overflows is disconnected; it loses nothing, because it resumes from its last event when it reconnects.
+ */
+@Service
+public class PaymentChangeStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentChangeStreamService.class);
+    static final String EVENT_NAME = "payment";
+
+    private final PaymentRepository paymentRepository;
+    private final ChangeFeedWatermark changeFeedWatermark;
+    private final Duration streamTimeout;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final int queueCapacity;
+    private final Executor sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public PaymentChangeStreamService(PaymentRepository paymentRepository,
+                                      ChangeFeedWatermark changeFeedWatermark,
+                                      @Value("${payments.changes.streamTimeout:PT30M}") Duration streamTimeout,
+                                      @Value("${payments.changes.stream.batchSize:500}") int batchSize,
+                                      @Value("${payments.changes.stream.maxBatchesPerPoll:4}") int maxBatchesPerPoll,
+                                      @Value("${payments.changes.stream.queueCapacity:5000}") int queueCapacity,
+                                      @Value("${payments.changes.stream.senderThreads:4}") int senderThreads,
+                                      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(paymentRepository, changeFeedWatermark, streamTimeout, batchSize, maxBatchesPerPoll, queueCapacity,
+                virtualThreads
+                        ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-change-stream-", 1).factory())
+                        : Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("payment-change-stream-")));
+    }
+
+    PaymentChangeStreamService(PaymentRepository paymentRepository,
+                               ChangeFeedWatermark changeFeedWatermark,
+                               Duration streamTimeout,
+                               int batchSize,
+                               int maxBatchesPerPoll,
+                               int queueCapacity,
+                               Executor sender) {
+        this.paymentRepository = paymentRepository;
+        this.changeFeedWatermark = changeFeedWatermark;
+        this.streamTimeout = streamTimeout;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.queueCapacity = queueCapacity;
+        this.sender = sender;
+    }
+
+    /**
+     * @param since The last change the client has seen, or 0 to receive every change.
+     * @return An emitter that receives all changes after {@code since}, starting with the next poll.
+     * @throws IllegalArgumentException if the cursor is negative.
+     */
+    public SseEmitter subscribe(long since) {
+        return subscribe(since, new SseEmitter(streamTimeout.toMillis()));
+    }
+
+    SseEmitter subscribe(long since, SseEmitter emitter) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Change cursor must not be negative, was: " + since);
+        }
+        Subscriber subscriber = new Subscriber(emitter, since);
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        emitter.onTimeout(emitter::complete);
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${payments.changes.pollInterval:PT1S}")
+    public void poll() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long watermark = changeFeedWatermark.current();
+        List<Subscriber> live = new ArrayList<>();
+        List<Subscriber> catchingUp = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            (subscriber.live ? live : catchingUp).add(subscriber);
+        }
+        deliver(live, watermark);
+        deliver(catchingUp, watermark);
+    }
+
+    /**
+     * Queues the changes after the group's oldest cursor, up to the watermark and at most
+     * {@code maxBatchesPerPoll} batches. Subscribers that reach the watermark count as live for the next poll.
+     */
+    private void deliver(List<Subscriber> group, long watermark) {
+        if (group.isEmpty()) {
+            return;
+        }
+        long from = group.stream().mapToLong(subscriber -> subscriber.cursor).min().orElseThrow();
+        int batches = 0;
+        while (from < watermark) {
+            if (batches++ == maxBatchesPerPoll) {
+                group.forEach(subscriber -> subscriber.live = false);
+                return;
+            }
+            List<PaymentChangeDTO> changes = paymentRepository.findChangedBetween(from, watermark, Limit.of(batchSize)).stream()
+                    .map(PaymentChangeDTO::fromEntity)
+                    .toList();
+            for (Subscriber subscriber : group) {
+                subscriber.enqueue(changes);
+            }
+            if (changes.size() < batchSize) {
+                break;
+            }
+            from = changes.getLast().getSeq();
+        }
+        group.forEach(subscriber -> subscriber.live = true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<PaymentChangeDTO> queue;
+        /** Set while a send task for this subscriber is queued or running, so its events go out in order. */
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Only touched by the polling thread after construction: the last queued change and the read group.
+        private long cursor;
+        private boolean live;
+        /** No more events are sent once set; {@code evicted} additionally completes the emitter. */
+        private volatile boolean closed;
+        private volatile boolean evicted;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.cursor = cursor;
+        }
+
+        private void enqueue(List<PaymentChangeDTO> changes) {
+            for (PaymentChangeDTO change : changes) {
+                if (closed) {
+                    return;
+                }
+                if (change.getSeq() <= cursor) {
+                    continue;
+                }
+                if (!queue.offer(change)) {
+                    log.debug("Disconnecting payment change subscriber that fell {} events behind.", queueCapacity);
+                    evicted = true;
+                    close();
+                    break;
+                }
+                cursor = change.getSeq();
+            }
+            scheduleDrain();
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void scheduleDrain() {
+            if ((closed || !queue.isEmpty()) && draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Payment change sender is shut down: {}", e.getMessage());
+                }
+            }
+        }
+
+        /** Runs on the sender pool; exits with {@code draining} still set once the subscriber is closed. */
+        private void drain() {
+            try {
+                PaymentChangeDTO change;
+                while (!closed && (change = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.getSeq()))
+                            .name(EVENT_NAME)
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+            } catch (Exception e) {
+                log.debug("Dropping payment change subscriber: {}", e.getMessage());
+                close();
+                emitter.completeWithError(e);
+                return;
+            }
+            if (closed) {
+                queue.clear();
+                if (evicted) {
+                    emitter.complete();
+                }
+                return;
+            }
+            draining.set(false);
+            scheduleDrain();
+        }
+    }
+}
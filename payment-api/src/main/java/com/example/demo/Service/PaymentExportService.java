@@ -0,0 +1,71 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class PaymentExportService {
+
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter paymentWriter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${payments.export.flushEvery:500}")
+    private int flushEvery;
+
+    @Autowired
+    public PaymentExportService(PaymentRepository paymentRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.paymentWriter = objectMapper.writerFor(Payment.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes every active payment to the given stream as newline-delimited JSON, one payment per line.
+     * Rows are read through a forward-only database cursor and detached as soon as they are written,
+     * so memory use does not depend on the number of exported payments.
+     *
+     * @param out The stream to write to. It is flushed but not closed.
+     * @return The number of exported payments.
+     */
+    @Transactional(readOnly = true)
+    public long exportActivePayments(OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<Payment> payments = paymentRepository.streamActivePayments();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                paymentWriter.writeValue(generator, payment);
+                generator.writeRaw('\n');
+                entityManager.detach(payment);
+
+                if (++exported % flushEvery == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return exported;
+    }
+}
@@ -1,43 +1,247 @@
 package com.example.demo.Service;
+import com.example.demo.DTO.FeeForecastDTO;
+import com.example.demo.DTO.FeeQuoteDTO;
+import com.example.demo.DTO.FeeQuotesDTO;
+import com.example.demo.DTO.PaymentChangeDTO;
+import com.example.demo.DTO.PaymentChangesDTO;
 import com.example.demo.DTO.PaymentDTO;
+import com.example.demo.DTO.PaymentPageDTO;
+import com.example.demo.Exception.CancellationNotAllowedException;
+import com.example.demo.Exception.CancellationRetryException;
+import com.example.demo.Exception.PaymentTypeIndeterminateException;
 import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentFilter;
 import com.example.demo.Repository.PaymentRepository;
+import com.example.demo.Strategy.CancellationFeeSchedule;
+import com.example.demo.Util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class PaymentService {
 
+    private static final int CANCEL_ATTEMPTS = 2;
+
     private final PaymentRepository paymentRepository;
     private final CancellationService cancelationService;
+    private final PaymentCache paymentCache;
+    private final ActivePaymentSnapshot activePaymentSnapshot;
+    private final ChangeFeedWatermark changeFeedWatermark;
+
+    @Value("${payments.page.defaultSize:50}")
+    private int defaultPageSize;
+
+    @Value("${payments.page.maxSize:500}")
+    private int maxPageSize;
+
+    @Value("${payments.changes.defaultSize:100}")
+    private int defaultChangesSize;
+
+    @Value("${payments.changes.maxSize:1000}")
+    private int maxChangesSize;
+
+    @Value("${payments.quotes.maxIds:1000}")
+    private int maxQuoteIds;
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository, CancellationService cancelationService) {
+    public PaymentService(PaymentRepository paymentRepository,
+                          CancellationService cancelationService,
+                          PaymentCache paymentCache,
+                          ActivePaymentSnapshot activePaymentSnapshot,
+                          ChangeFeedWatermark changeFeedWatermark) {
         this.paymentRepository = paymentRepository;
         this.cancelationService = cancelationService;
+        this.paymentCache = paymentCache;
+        this.activePaymentSnapshot = activePaymentSnapshot;
+        this.changeFeedWatermark = changeFeedWatermark;
     }
 
+    /**
+     * Creates a payment. An id sent by the client is ignored: ids are always generated, so they stay time-ordered
+     * and a create can never overwrite an existing payment.
+     */
     public PaymentDTO savePayment(PaymentDTO paymentDTO) {
         Payment payment = paymentDTO.toEntity();
+        payment.setId(null);
         Payment savedPayment = paymentRepository.save(payment);
+        paymentCache.put(savedPayment);
+        activePaymentSnapshot.paymentsSaved(List.of(savedPayment));
         return PaymentDTO.fromEntity(savedPayment);
     }
 
-    public PaymentDTO cancelPayment(Payment payment) {
-        Payment savedPayment = paymentRepository.save(cancelationService.cancelPayment(payment));
-        return PaymentDTO.fromEntity(savedPayment);
+    /**
+     * Cancels a payment with one conditional UPDATE. Only when no row was updated is the payment read back,
+     * to report why. If it passes the checks on re-read, it changed between the two statements (e.g. a midnight
+     * rollover) and the update is retried once with a new clock reading.
+     *
+     * @param id The payment to cancel.
+     * @return The cancelled payment, or empty if no payment with that id exists.
+     * @throws CancellationNotAllowedException   if the payment is already cancelled or was not created today.
+     * @throws PaymentTypeIndeterminateException if the fee schedule has no rule for the payment type.
+     * @throws CancellationRetryException        if the payment still passes the checks after the retry.
+     */
+    public Optional<PaymentDTO> cancelPayment(UUID id) {
+        for (int attempt = 1; attempt <= CANCEL_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<Payment> cancelled = cancelIfAllowed(id, now);
+            if (cancelled.isPresent()) {
+                paymentCache.put(cancelled.get());
+                activePaymentSnapshot.paymentsCancelled(List.of(id));
+                return cancelled.map(PaymentDTO::fromEntity);
+            }
+
+            // Not findById: the persistence context may hold this payment as it was before the UPDATE lost.
+            Optional<Payment> existing = paymentRepository.findCurrentById(id);
+            if (existing.isEmpty()) {
+                return Optional.empty();
+            }
+            cancelationService.verifyCancellable(existing.get(), now);
+        }
+        throw new CancellationRetryException("Payment with ID " + id + " changed while it was being cancelled, please retry.");
+    }
+
+    private Optional<Payment> cancelIfAllowed(UUID id, LocalDateTime now) {
+        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+        CancellationFeeSchedule feeSchedule = cancelationService.getFeeSchedule();
+        return paymentRepository.cancelIfAllowed(id, feeSchedule.sqlFees(), feeSchedule.sqlCurrencies(),
+                feeSchedule.maxType(), now, startOfDay, startOfDay.plusDays(1));
     }
 
     public List<Payment> getAllNonCancelledPayments() {
         return paymentRepository.findByCancelationIsNull();
     }
 
+    /**
+     * @return The in-memory list of active payments, kept up to date by this service's writes.
+     */
+    public ActivePaymentSnapshot.Snapshot getActivePaymentsSnapshot() {
+        return activePaymentSnapshot.current();
+    }
+
+    /**
+     * Returns one keyset page of active payments ordered by (creationDate, id).
+     *
+     * @param filter Optional listing filters.
+     * @param cursor The token returned as {@code nextCursor} by the previous page, or null for the first page.
+     * @param limit  The requested page size; null means the configured default, larger values are capped.
+     * @return The page and the cursor for the following one.
+     * @throws IllegalArgumentException if the cursor or the limit is invalid.
+     */
+    public PaymentPageDTO getActivePaymentsPage(PaymentFilter filter, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive, was: " + pageSize);
+        }
+        pageSize = Math.min(pageSize, maxPageSize);
+
+        PageCursor after = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+        // One extra row tells us whether another page exists without a count query.
+        List<Payment> rows = paymentRepository.findActivePage(filter, after, pageSize + 1);
+
+        if (rows.size() <= pageSize) {
+            return new PaymentPageDTO(rows, null);
+        }
+        List<Payment> items = rows.subList(0, pageSize);
+        Payment last = items.get(pageSize - 1);
+        return new PaymentPageDTO(items, new PageCursor(last.getCreationDate(), last.getId()).encode());
+    }
+
+    /**
+     * Returns the payments created or cancelled after the given change feed position, so clients can sync
+     * incrementally instead of reloading the full list. Changes are only served up to the
+     * {@link ChangeFeedWatermark}, so a write that commits after a later one is never left behind a client's cursor.
+     *
+     * @param since The {@code nextCursor} of the previous call, or 0 to start from the beginning.
+     * @param limit The requested number of changes; null means the configured default, larger values are capped.
+     * @return The changes in feed order and the cursor to continue from.
+     * @throws IllegalArgumentException if the cursor or the limit is invalid.
+     */
+    public PaymentChangesDTO getChangesSince(long since, Integer limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Change cursor must not be negative, was: " + since);
+        }
+        int size = limit == null ? defaultChangesSize : limit;
+        if (size < 1) {
+            throw new IllegalArgumentException("Limit must be positive, was: " + size);
+        }
+        size = Math.min(size, maxChangesSize);
+
+        long watermark = changeFeedWatermark.current();
+        if (since >= watermark) {
+            return new PaymentChangesDTO(List.of(), since, false);
+        }
+        List<Payment> rows = paymentRepository.findChangedBetween(since, watermark, Limit.of(size + 1));
+        boolean hasMore = rows.size() > size;
+        List<PaymentChangeDTO> changes = (hasMore ? rows.subList(0, size) : rows).stream()
+                .map(PaymentChangeDTO::fromEntity)
+                .toList();
+        long nextCursor = changes.isEmpty() ? since : changes.getLast().getSeq();
+        return new PaymentChangesDTO(changes, nextCursor, hasMore);
+    }
+
+    /**
+     * Quotes the cancellation fee of each given payment without cancelling anything.
+     * <p>
+     * All payments are quoted at one point in time against one fee schedule. They are read through
+     * {@link PaymentCache}, with all misses loaded in a single read-only query. Duplicate ids are quoted once.
+     *
+     * @param ids The payments to quote.
+     * @return One quote per distinct id, in request order.
+     * @throws IllegalArgumentException if more than {@code payments.quotes.maxIds} distinct ids are given.
+     */
+    public FeeQuotesDTO quoteCancellationFees(List<UUID> ids) {
+        List<UUID> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.removeIf(Objects::isNull);
+        if (distinctIds.size() > maxQuoteIds) {
+            throw new IllegalArgumentException("At most " + maxQuoteIds + " payments can be quoted at once, got: " + distinctIds.size());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        CancellationFeeSchedule feeSchedule = cancelationService.getFeeSchedule();
+
+        Map<UUID, Payment> payments = paymentCache.getAll(distinctIds, missing -> paymentRepository.findAllReadOnlyById(List.copyOf(missing)).stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity())));
+        List<FeeQuoteDTO> quotes = new ArrayList<>(distinctIds.size());
+        for (UUID id : distinctIds) {
+            Payment payment = payments.get(id);
+            quotes.add(payment == null
+                    ? FeeQuoteDTO.rejected(id, FeeQuoteDTO.Status.NOT_FOUND, "Payment not found.")
+                    : cancelationService.quote(payment, now, feeSchedule));
+        }
+        return new FeeQuotesDTO(now, quotes);
+    }
+
+    /**
+     * @return The current cancellation fee quote of the payment and the fees for the rest of the day, or empty if
+     * no payment with that id exists.
+     */
+    public Optional<FeeForecastDTO> getCancellationFeeForecast(UUID id) {
+        LocalDateTime now = LocalDateTime.now();
+        CancellationFeeSchedule feeSchedule = cancelationService.getFeeSchedule();
+        return getPaymentById(id).map(payment -> cancelationService.forecast(payment, now, feeSchedule));
+    }
+
+    /**
+     * Reads through {@link PaymentCache}; the returned payment is shared and must not be modified.
+     */
     public Optional<Payment> getPaymentById(UUID id) {
-        return paymentRepository.findById(id);
+        if (id == null) {
+            // Not a valid cache key; let the repository reject it as before.
+            return paymentRepository.findById(id);
+        }
+        return paymentCache.get(id, paymentRepository::findById);
     }
 
 }
@@ -0,0 +1,223 @@
+package com.example.demo.Strategy;
+
+import com.example.demo.Model.Money;
+import com.example.demo.Model.Payment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, compiled cancellation fee schedule.
+ * <p>
+ * The fee of every (currency, payment type, full hours elapsed) combination a same-day cancellation can hit is
+ * computed once, with exact decimal rounding to the minor unit ({@link Money#SCALE} digits), and stored in minor units
+ * in a flat table at index {@code ((currency.ordinal() * maxType) + type - 1) * 24 + hours}. A lookup is then index
+ * arithmetic plus an array read, with no BigDecimal involved. Unsupported types are marked with {@link #NO_RULE}.
+ * <p>
+ * Schedules are parsed from properties; see {@code fee-schedule.properties} for the format.
+ */
+public final class CancellationFeeSchedule {
+
+    public static final int HOURS_PER_DAY = 24;
+    static final long NO_RULE = -1;
+    /** Guards against a typo like {@code type.100000.perHour} compiling a huge table. */
+    private static final int MAX_TYPE = 1000;
+
+    private static final Pattern TYPE_KEY = Pattern.compile("type\\.(\\d+)\\.(perHour|cap)");
+    private static final Pattern CURRENCY_TYPE_KEY = Pattern.compile("currency\\.([A-Z]{3})\\.type\\.(\\d+)\\.(perHour|cap)");
+    private static final Pattern CURRENCY_ROUNDING_KEY = Pattern.compile("currency\\.([A-Z]{3})\\.rounding");
+
+    private static final Payment.Currency[] CURRENCIES = Payment.Currency.values();
+
+    private final int maxType;
+    private final long[] feesMinor;
+
+    private CancellationFeeSchedule(int maxType, long[] feesMinor) {
+        this.maxType = maxType;
+        this.feesMinor = feesMinor;
+    }
+
+    /**
+     * Parses and compiles a schedule.
+     *
+     * @throws IllegalArgumentException if a key is unknown or a value is invalid, so a bad schedule is never
+     *                                  half-applied.
+     */
+    public static CancellationFeeSchedule parse(Properties properties) {
+        RoundingMode defaultRounding = RoundingMode.HALF_EVEN;
+        Map<Payment.Currency, RoundingMode> roundings = new EnumMap<>(Payment.Currency.class);
+        Map<Integer, Rule> typeRules = new TreeMap<>();
+        Map<Payment.Currency, Map<Integer, Rule>> currencyRules = new EnumMap<>(Payment.Currency.class);
+
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            Matcher matcher;
+            if (key.equals("rounding")) {
+                defaultRounding = roundingMode(key, value);
+            } else if ((matcher = TYPE_KEY.matcher(key)).matches()) {
+                int type = type(key, matcher.group(1));
+                typeRules.put(type, typeRules.getOrDefault(type, Rule.EMPTY).with(matcher.group(2), amount(key, value)));
+            } else if ((matcher = CURRENCY_TYPE_KEY.matcher(key)).matches()) {
+                Map<Integer, Rule> rules = currencyRules.computeIfAbsent(currency(key, matcher.group(1)), c -> new HashMap<>());
+                int type = type(key, matcher.group(2));
+                rules.put(type, rules.getOrDefault(type, Rule.EMPTY).with(matcher.group(3), amount(key, value)));
+            } else if ((matcher = CURRENCY_ROUNDING_KEY.matcher(key)).matches()) {
+                roundings.put(currency(key, matcher.group(1)), roundingMode(key, value));
+            } else {
+                throw new IllegalArgumentException("Unknown fee schedule key: " + key);
+            }
+        }
+
+        int maxType = typeRules.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        for (Map<Integer, Rule> rules : currencyRules.values()) {
+            maxType = Math.max(maxType, rules.keySet().stream().mapToInt(Integer::intValue).max().orElse(0));
+        }
+        if (maxType == 0) {
+            throw new IllegalArgumentException("Fee schedule defines no payment types.");
+        }
+
+        long[] feesMinor = new long[CURRENCIES.length * maxType * HOURS_PER_DAY];
+        for (Payment.Currency currency : CURRENCIES) {
+            RoundingMode rounding = roundings.getOrDefault(currency, defaultRounding);
+            Map<Integer, Rule> overrides = currencyRules.getOrDefault(currency, Map.of());
+            for (int type = 1; type <= maxType; type++) {
+                Rule rule = typeRules.getOrDefault(type, Rule.EMPTY).overriddenBy(overrides.get(type));
+                if (rule.perHour == null && rule.cap != null) {
+                    throw new IllegalArgumentException("Fee schedule sets a cap but no perHour for type " + type + " in " + currency + ".");
+                }
+                int base = (currency.ordinal() * maxType + type - 1) * HOURS_PER_DAY;
+                for (int hours = 0; hours < HOURS_PER_DAY; hours++) {
+                    feesMinor[base + hours] = rule.perHour == null ? NO_RULE : rule.feeMinor(hours, rounding);
+                }
+            }
+        }
+        return new CancellationFeeSchedule(maxType, feesMinor);
+    }
+
+    public boolean supports(Payment.Currency currency, int type) {
+        return currency != null && type >= 1 && type <= maxType && feesMinor[index(currency, type, 0)] != NO_RULE;
+    }
+
+    /**
+     * @param fullHours Full hours elapsed since creation. Negative values count as 0, values past the day as 23.
+     * @return The fee in minor units of the currency, e.g. cents.
+     * @throws IllegalArgumentException if the schedule has no rule for the currency and type.
+     */
+    public long feeMinorUnits(Payment.Currency currency, int type, long fullHours) {
+        requireSupported(currency, type);
+        return feesMinor[index(currency, type, fullHours)];
+    }
+
+    /**
+     * Same as {@link #feeMinorUnits} as {@link Money}.
+     */
+    public Money fee(Payment.Currency currency, int type, long fullHours) {
+        return new Money(currency, feeMinorUnits(currency, type, fullHours));
+    }
+
+    public int maxType() {
+        return maxType;
+    }
+
+    /**
+     * @return A copy of all fees in minor units in table order, with {@code -1} for unsupported types. Bound as a
+     * {@code bigint[]} by {@link com.example.demo.Repository.PaymentRepository#cancelIfAllowed} to compute the fee
+     * in the database.
+     */
+    public long[] sqlFees() {
+        return feesMinor.clone();
+    }
+
+    /**
+     * @return The currency names in table order, bound as a {@code text[]} next to {@link #sqlFees()}.
+     */
+    public String[] sqlCurrencies() {
+        return Arrays.stream(CURRENCIES).map(Enum::name).toArray(String[]::new);
+    }
+
+    private void requireSupported(Payment.Currency currency, int type) {
+        if (!supports(currency, type)) {
+            throw new IllegalArgumentException("No cancellation fee rule for type " + type + " in " + currency + ".");
+        }
+    }
+
+    private int index(Payment.Currency currency, int type, long fullHours) {
+        int hours = (int) Math.min(Math.max(fullHours, 0), HOURS_PER_DAY - 1);
+        return (currency.ordinal() * maxType + type - 1) * HOURS_PER_DAY + hours;
+    }
+
+    private static int type(String key, String value) {
+        int type;
+        try {
+            type = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid payment type in fee schedule key: " + key);
+        }
+        if (type < 1 || type > MAX_TYPE) {
+            throw new IllegalArgumentException("Payment type must be between 1 and " + MAX_TYPE + " in fee schedule key: " + key);
+        }
+        return type;
+    }
+
+    private static Payment.Currency currency(String key, String code) {
+        try {
+            return Payment.Currency.valueOf(code);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported currency in fee schedule key: " + key);
+        }
+    }
+
+    private static BigDecimal amount(String key, String value) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount for fee schedule key " + key + ": " + value);
+        }
+        if (amount.signum() < 0) {
+            throw new IllegalArgumentException("Amount must not be negative for fee schedule key " + key + ": " + value);
+        }
+        return amount;
+    }
+
+    private static RoundingMode roundingMode(String key, String value) {
+        try {
+            return RoundingMode.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid rounding mode for fee schedule key " + key + ": " + value);
+        }
+    }
+
+    private record Rule(BigDecimal perHour, BigDecimal cap) {
+
+        private static final Rule EMPTY = new Rule(null, null);
+
+        private Rule with(String property, BigDecimal amount) {
+            return property.equals("perHour") ? new Rule(amount, cap) : new Rule(perHour, amount);
+        }
+
+        private Rule overriddenBy(Rule override) {
+            if (override == null) {
+                return this;
+            }
+            return new Rule(override.perHour != null ? override.perHour : perHour, override.cap != null ? override.cap : cap);
+        }
+
+        private long feeMinor(int hours, RoundingMode rounding) {
+            BigDecimal fee = perHour.multiply(BigDecimal.valueOf(hours)).setScale(Money.SCALE, rounding);
+            if (cap != null) {
+                fee = fee.min(cap.setScale(Money.SCALE, rounding));
+            }
+            return fee.unscaledValue().longValueExact();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.Util;
+
+/**
+ * Structural BIC check (ISO 9362): a 4 character business party prefix, a 2 letter country code, a 2 character
+ * location code and an optional 3 character branch code, all upper case letters or digits. Whether the code is
+ * actually registered is not checked.
+ */
+public final class Bic {
+
+    private Bic() {
+    }
+
+    public static boolean isValid(CharSequence bic) {
+        int length = bic.length();
+        if (length != 8 && length != 11) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = bic.charAt(i);
+            boolean valid = i == 4 || i == 5 ? isUpper(c) : isUpper(c) || isDigit(c);
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+}
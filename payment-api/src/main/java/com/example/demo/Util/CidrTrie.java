@@ -0,0 +1,117 @@
+package com.example.demo.Util;
+
+import java.util.Arrays;
+
+/**
+ * Binary prefix trie of IPv4/IPv6 CIDR ranges. {@link #contains(long, long)} walks at most one node per prefix
+ * bit, so classification costs O(prefix length) regardless of how many ranges are registered.
+ * <p>
+ * IPv4 ranges are stored in their IPv4-mapped IPv6 form (see {@link IpAddressParser}), so a single trie
+ * answers for both address families. Nodes live in flat arrays; the trie is meant to be built once and then
+ * only read, and is safe for concurrent reads once published.
+ */
+public final class CidrTrie {
+
+    private static final int IPV4_MAPPED_PREFIX_BITS = 96;
+
+    // children[2 * node + bit] is the child node index, 0 means no child (the root is never a child).
+    private int[] children = new int[64];
+    private boolean[] terminal = new boolean[32];
+    private int nodeCount = 1;
+
+    public static CidrTrie of(String... cidrs) {
+        CidrTrie trie = new CidrTrie();
+        for (String cidr : cidrs) {
+            trie.add(cidr);
+        }
+        return trie;
+    }
+
+    /**
+     * @param cidr A range such as {@code 172.16.0.0/12} or {@code fc00::/7}; a bare address is a single-host range.
+     * @return This trie.
+     * @throws IllegalArgumentException if the range is malformed.
+     */
+    public CidrTrie add(String cidr) {
+        String value = cidr.trim();
+        int slash = value.indexOf('/');
+        int addressEnd = slash < 0 ? value.length() : slash;
+        long[] address = new long[2];
+        if (!IpAddressParser.parse(value, 0, addressEnd, address)) {
+            throw new IllegalArgumentException("Invalid CIDR range: " + cidr);
+        }
+        boolean ipv4 = IpAddressParser.parseIpv4(value, 0, addressEnd) >= 0;
+        int maxBits = ipv4 ? 32 : 128;
+        int prefixLength = maxBits;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(value.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CIDR range: " + cidr, e);
+            }
+            if (prefixLength < 0 || prefixLength > maxBits) {
+                throw new IllegalArgumentException("Invalid prefix length in CIDR range: " + cidr);
+            }
+        }
+        insert(address[0], address[1], ipv4 ? IPV4_MAPPED_PREFIX_BITS + prefixLength : prefixLength);
+        return this;
+    }
+
+    /**
+     * @param address An IPv4 or IPv6 address.
+     * @return true if the address is valid and falls inside any registered range.
+     */
+    public boolean contains(CharSequence address) {
+        long[] parsed = new long[2];
+        return IpAddressParser.parse(address, parsed) && contains(parsed[0], parsed[1]);
+    }
+
+    /**
+     * @param high The upper 64 bits of the address as produced by {@link IpAddressParser}.
+     * @param low  The lower 64 bits.
+     * @return true if the address falls inside any registered range.
+     */
+    public boolean contains(long high, long low) {
+        int node = 0;
+        for (int depth = 0; depth < 128; depth++) {
+            if (terminal[node]) {
+                return true;
+            }
+            node = children[2 * node + bit(high, low, depth)];
+            if (node == 0) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    private void insert(long high, long low, int prefixLength) {
+        int node = 0;
+        for (int depth = 0; depth < prefixLength; depth++) {
+            if (terminal[node]) {
+                return; // Already covered by a shorter prefix.
+            }
+            int slot = 2 * node + bit(high, low, depth);
+            int child = children[slot];
+            if (child == 0) {
+                child = newNode(); // May grow the arrays, so it must not be inlined into the store below.
+                children[slot] = child;
+            }
+            node = child;
+        }
+        terminal[node] = true;
+    }
+
+    private int newNode() {
+        if (nodeCount == terminal.length) {
+            terminal = Arrays.copyOf(terminal, nodeCount * 2);
+            children = Arrays.copyOf(children, nodeCount * 4);
+        }
+        return nodeCount++;
+    }
+
+    private static int bit(long high, long low, int depth) {
+        long word = depth < 64 ? high : low;
+        return (int) (word >>> (63 - (depth & 63))) & 1;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.Util;
+
+/**
+ * Structural IBAN check (ISO 13616) in electronic format: upper case, no spaces.
+ * <p>
+ * An IBAN is valid if its country is known, its length matches that country's length, the check digits are
+ * digits, the rest is letters and digits, and the mod-97 checksum is 1. The checksum is computed in one pass
+ * over the characters, reading the first four last instead of moving them, with letters expanded to their two
+ * digit values on the fly; the remainder is kept in a long and only reduced when it grows large. Nothing is
+ * allocated.
+ */
+public final class Iban {
+
+    /** IBAN lengths by country, from the SWIFT IBAN registry. */
+    private static final String COUNTRY_LENGTHS =
+            "AD24AE23AL28AT20AZ28BA20BE16BG22BH22BI27BR29BY28CH21CR22CY28CZ24DE22DJ27DK18DO28EE20EG29ES24FI18FK18"
+                    + "FO18FR27GB22GE22GI23GL18GR27GT28HN28HR21HU28IE22IL23IQ23IS26IT27JO30KW30KZ20LB28LC32LI21LT20LU20"
+                    + "LV21LY25MC27MD24ME22MK19MN20MR27MT31MU30NI28NL18NO15OM23PK24PL28PS29PT25QA29RO24RS22RU33SA24SC31"
+                    + "SD18SE24SI19SK24SM27SO23ST25SV28TL23TN24TR26UA29VA22VG24XK20YE30";
+    private static final byte[] LENGTHS = new byte[26 * 26];
+    private static final int MIN_LENGTH;
+    private static final int MAX_LENGTH;
+    /** Below this, multiplying by 100 and adding a letter's value cannot overflow a long. */
+    private static final long REDUCE_THRESHOLD = 1_000_000_000_000_000L;
+
+    static {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int i = 0; i < COUNTRY_LENGTHS.length(); i += 4) {
+            int length = Integer.parseInt(COUNTRY_LENGTHS, i + 2, i + 4, 10);
+            LENGTHS[countryIndex(COUNTRY_LENGTHS.charAt(i), COUNTRY_LENGTHS.charAt(i + 1))] = (byte) length;
+            min = Math.min(min, length);
+            max = Math.max(max, length);
+        }
+        MIN_LENGTH = min;
+        MAX_LENGTH = max;
+    }
+
+    private Iban() {
+    }
+
+    public static boolean isValid(CharSequence iban) {
+        int length = iban.length();
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return false;
+        }
+        char country0 = iban.charAt(0);
+        char country1 = iban.charAt(1);
+        if (!isUpper(country0) || !isUpper(country1) || LENGTHS[countryIndex(country0, country1)] != length) {
+            return false;
+        }
+        if (!isDigit(iban.charAt(2)) || !isDigit(iban.charAt(3))) {
+            return false;
+        }
+
+        long remainder = 0;
+        for (int i = 4, end = length + 4; i < end; i++) {
+            char c = iban.charAt(i < length ? i : i - length);
+            if (isDigit(c)) {
+                remainder = remainder * 10 + (c - '0');
+            } else if (isUpper(c)) {
+                remainder = remainder * 100 + (c - 'A' + 10);
+            } else {
+                return false;
+            }
+            if (remainder >= REDUCE_THRESHOLD) {
+                remainder %= 97;
+            }
+        }
+        return remainder % 97 == 1;
+    }
+
+    private static int countryIndex(char c0, char c1) {
+        return (c0 - 'A') * 26 + (c1 - 'A');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+}
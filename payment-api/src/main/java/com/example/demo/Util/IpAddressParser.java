@@ -0,0 +1,216 @@
+package com.example.demo.Util;
+
+/**
+ * Hand-written IPv4/IPv6 address parser that works directly on a region of a {@link CharSequence}
+ * (typically a header value), so addresses can be validated and classified without substrings, regexes
+ * or {@link java.net.InetAddress} lookups.
+ * <p>
+ * Addresses are produced as 128 bits split over two longs ({@code [high, low]}); IPv4 addresses are
+ * returned in their IPv4-mapped IPv6 form ({@code ::ffff:a.b.c.d}) so both families share one key space.
+ */
+public final class IpAddressParser {
+
+    static final long IPV4_MAPPED_PREFIX = 0x0000_FFFF_0000_0000L;
+
+    private IpAddressParser() {
+    }
+
+    /**
+     * @param text The address, e.g. {@code 203.0.113.7}, {@code 2001:db8::1} or {@code fe80::1%eth0}.
+     * @param out  Receives the address as {@code [high 64 bits, low 64 bits]}; must have length of at least 2.
+     * @return true if the text is a valid IPv4 or IPv6 address.
+     */
+    public static boolean parse(CharSequence text, long[] out) {
+        return text != null && parse(text, 0, text.length(), out);
+    }
+
+    /**
+     * Parses {@code text[start, end)}. A trailing IPv6 zone id ({@code %eth0}) is accepted and ignored.
+     *
+     * @see #parse(CharSequence, long[])
+     */
+    public static boolean parse(CharSequence text, int start, int end, long[] out) {
+        if (start >= end) {
+            return false;
+        }
+        long ipv4 = parseIpv4(text, start, end);
+        if (ipv4 >= 0) {
+            out[0] = 0;
+            out[1] = IPV4_MAPPED_PREFIX | ipv4;
+            return true;
+        }
+        return parseIpv6(text, start, end, out);
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address.
+     *
+     * @return The address as an unsigned 32-bit value, or -1 if {@code text[start, end)} is not a valid IPv4 address.
+     */
+    public static long parseIpv4(CharSequence text, int start, int end) {
+        long address = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || ++dots > 3) {
+                    return -1;
+                }
+                address = (address << 8) | octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            return -1;
+        }
+        return (address << 8) | octet;
+    }
+
+    /**
+     * @return true if the parsed address is an IPv4 address (i.e. IPv4-mapped).
+     */
+    public static boolean isIpv4(long high, long low) {
+        return high == 0 && (low & 0xFFFF_FFFF_0000_0000L) == IPV4_MAPPED_PREFIX;
+    }
+
+    private static boolean parseIpv6(CharSequence text, int start, int end, long[] out) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '%') {
+                if (i == end - 1) {
+                    return false;
+                }
+                end = i;
+                break;
+            }
+        }
+
+        // Groups before "::" are written at their final position; groups after it are shifted into a
+        // right-aligned register and OR-ed in at the end.
+        long headHigh = 0;
+        long headLow = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = start;
+        if (text.charAt(i) == ':') {
+            if (i + 1 >= end || text.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            while (i < end) {
+                int hex = hexValue(text.charAt(i));
+                if (hex < 0) {
+                    break;
+                }
+                value = (value << 4) | hex;
+                if (++digits > 4) {
+                    return false;
+                }
+                i++;
+            }
+
+            if (i < end && text.charAt(i) == '.') {
+                // Embedded IPv4 address, e.g. ::ffff:192.0.2.1; it must be the last two groups.
+                long ipv4 = parseIpv4(text, groupStart, end);
+                if (ipv4 < 0) {
+                    return false;
+                }
+                if (!compressed) {
+                    if (headGroups != 6) {
+                        return false;
+                    }
+                    headLow |= ipv4;
+                    headGroups = 8;
+                } else {
+                    tailGroups += 2;
+                    if (headGroups + tailGroups > 7) {
+                        return false;
+                    }
+                    tailHigh = (tailHigh << 32) | (tailLow >>> 32);
+                    tailLow = (tailLow << 32) | ipv4;
+                }
+                i = end;
+                break;
+            }
+
+            if (digits == 0) {
+                return false;
+            }
+            if (!compressed) {
+                if (headGroups == 8) {
+                    return false;
+                }
+                if (headGroups < 4) {
+                    headHigh |= (long) value << (48 - 16 * headGroups);
+                } else {
+                    headLow |= (long) value << (48 - 16 * (headGroups - 4));
+                }
+                headGroups++;
+            } else {
+                if (headGroups + ++tailGroups > 7) {
+                    return false;
+                }
+                tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                tailLow = (tailLow << 16) | value;
+            }
+
+            if (i == end) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < end && text.charAt(i) == ':') {
+                // "::" stands for at least one zero group, so it cannot follow a full set of eight.
+                if (compressed || headGroups == 8) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            } else if (i == end) {
+                return false;
+            }
+        }
+
+        if (!compressed && headGroups != 8) {
+            return false;
+        }
+        out[0] = headHigh | tailHigh;
+        out[1] = headLow | tailLow;
+        return true;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
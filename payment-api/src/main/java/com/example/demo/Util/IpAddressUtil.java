@@ -2,12 +2,15 @@ package com.example.demo.Util;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component; // So Spring can manage it as a bean
 import org.springframework.util.StringUtils;
 
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Locale;
 
 @Component
 public class IpAddressUtil {
@@ -26,16 +29,60 @@ public class IpAddressUtil {
             "REMOTE_ADDR" // Fallback if no headers are found
     };
 
-    // Common localhost IP addresses
-    private static final List<String> LOCALHOST_IPS = Arrays.asList(
-            "127.0.0.1",
-            "0:0:0:0:0:0:0:1" // IPv6 localhost
+    // Loopback, private, link-local, shared, documentation, multicast and other non-routable ranges.
+    private static final CidrTrie NON_PUBLIC_RANGES = CidrTrie.of(
+            "0.0.0.0/8", "10.0.0.0/8", "100.64.0.0/10", "127.0.0.0/8", "169.254.0.0/16", "172.16.0.0/12",
+            "192.0.0.0/24", "192.0.2.0/24", "192.168.0.0/16", "198.18.0.0/15", "198.51.100.0/24",
+            "203.0.113.0/24", "224.0.0.0/4", "240.0.0.0/4",
+            "::/128", "::1/128", "100::/64", "2001:db8::/32", "fc00::/7", "fe80::/10", "ff00::/8"
     );
 
+    // Common localhost IP addresses
+    private static final CidrTrie LOCALHOST_RANGES = CidrTrie.of("127.0.0.0/8", "::1/128");
+
+    /**
+     * How the client address is derived from a request.
+     * <ul>
+     *     <li>{@code HEADERS}: first public address in any of the well-known proxy headers, else the remote address.
+     *     Cheap to set up but trivially spoofable by the client.</li>
+     *     <li>{@code TRUSTED_PROXIES}: headers are only honoured when the request comes from a configured proxy,
+     *     and the {@code X-Forwarded-For} (or RFC 7239 {@code Forwarded}) chain is walked right-to-left up to
+     *     the first hop that is not a trusted proxy. The result cannot be forged by the client and is suitable
+     *     as a cache or rate-limit key.</li>
+     * </ul>
+     */
+    public enum Mode {
+        HEADERS,
+        TRUSTED_PROXIES
+    }
+
+    private final Mode mode;
+    private final CidrTrie trustedProxies;
+
+    public IpAddressUtil() {
+        this.mode = Mode.HEADERS;
+        this.trustedProxies = new CidrTrie();
+    }
+
+    @Autowired
+    public IpAddressUtil(@Value("${clientip.mode:headers}") String mode,
+                         @Value("${clientip.trustedProxies:}") String[] trustedProxies) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        this.trustedProxies = new CidrTrie();
+        for (String cidr : trustedProxies) {
+            if (StringUtils.hasText(cidr)) {
+                this.trustedProxies.add(cidr);
+            }
+        }
+        if (this.mode == Mode.TRUSTED_PROXIES && trustedProxies.length == 0) {
+            throw new IllegalArgumentException("clientip.trustedProxies must list at least one CIDR range when clientip.mode=trusted-proxies");
+        }
+    }
+
 
     /**
-     * Extracts the client's IP address from the HttpServletRequest.
-     * It checks common proxy headers first before falling back to request.getRemoteAddr().
+     * Extracts the client's IP address from the HttpServletRequest according to the configured {@link Mode}.
+     * Header values are parsed in place; ports ({@code 1.2.3.4:8080}, {@code [2001:db8::1]:443}) are stripped.
      *
      * @param request The incoming HttpServletRequest.
      * @return The determined client IP address, or "Unknown" if it cannot be determined.
@@ -44,26 +91,42 @@ public class IpAddressUtil {
         if (request == null) {
             return "Unknown";
         }
+        return mode == Mode.TRUSTED_PROXIES ? resolveThroughTrustedProxies(request) : scanHeaders(request);
+    }
 
-        Pattern ipPattern = Pattern.compile(
-                "^([0-9]{1,3}\\.){3}[0-9]{1,3}$|^([0-9a-fA-F]{0,4}:){1,7}[0-9a-fA-F]{0,4}$"
-        );
-
+    /**
+     * Checks common proxy headers first before falling back to request.getRemoteAddr(); private or reserved
+     * addresses in headers are skipped.
+     */
+    private String scanHeaders(HttpServletRequest request) {
+        long[] address = new long[2];
         for (String header : IP_HEADER_CANDIDATES) {
             String ipList = request.getHeader(header);
-            if (StringUtils.hasText(ipList) && !"unknown".equalsIgnoreCase(ipList)) {
-                if (ipList.toLowerCase().trim().startsWith("unknown")) {
-                    continue;
-                }
+            if (ipList == null) {
+                continue;
+            }
+            int length = ipList.length();
+            int first = skipWhitespace(ipList, 0, length);
+            if (first == length || ipList.regionMatches(true, first, "unknown", 0, 7)) {
+                continue;
+            }
 
-                String[] ips = ipList.split(",");
-                for (String ip : ips) {
-                    String cleanIp = ip.trim().split(":")[0];
-                    if (ipPattern.matcher(cleanIp).matches() &&
-                            !isPrivateIp(cleanIp)) {
-                        return cleanIp;
+            int entryStart = 0;
+            while (true) {
+                int comma = ipList.indexOf(',', entryStart);
+                int entryEnd = comma < 0 ? length : comma;
+                long bounds = addressBounds(ipList, entryStart, entryEnd);
+                if (bounds >= 0) {
+                    int start = (int) (bounds >>> 32);
+                    int end = (int) bounds;
+                    if (IpAddressParser.parse(ipList, start, end, address) && !NON_PUBLIC_RANGES.contains(address[0], address[1])) {
+                        return ipList.substring(start, end);
                     }
                 }
+                if (comma < 0) {
+                    break;
+                }
+                entryStart = comma + 1;
             }
         }
 
@@ -71,21 +134,144 @@ public class IpAddressUtil {
         return StringUtils.hasText(remoteAddr) ? remoteAddr : "Unknown";
     }
 
-    private boolean isPrivateIp(String ip) {
-        return ip.startsWith("10.") ||
-                ip.startsWith("192.168.") ||
-                ip.startsWith("172.16.") ||
-                ip.startsWith("127.") ||
-                ip.equalsIgnoreCase("0:0:0:0:0:0:0:1");
-    }
-
     /**
-     * Checks if the given IP address is a common localhost address.
+     * Checks if the given IP address is a loopback address (127.0.0.0/8 or ::1).
      *
      * @param ip The IP address string to check.
-     * @return true if the IP matches a known localhost address, false otherwise.
+     * @return true if the IP is a loopback address, false otherwise.
      */
     public boolean isLocalhost(String ip) {
-        return ip != null && LOCALHOST_IPS.contains(ip);
+        return ip != null && LOCALHOST_RANGES.contains(ip);
+    }
+
+    /**
+     * @param ip The IP address string to check.
+     * @return true if the IP is valid and belongs to a private, loopback, link-local or otherwise reserved range.
+     */
+    public boolean isPrivateIp(String ip) {
+        return ip != null && NON_PUBLIC_RANGES.contains(ip);
+    }
+
+    /**
+     * Walks the forwarding chain right-to-left, skipping trusted proxies. Only one header is read: a request
+     * from an untrusted peer is answered from the socket address alone, and the walk stops at the first hop
+     * that is not a trusted proxy or cannot be parsed ({@code unknown}, obfuscated identifiers).
+     */
+    private String resolveThroughTrustedProxies(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!StringUtils.hasText(remoteAddr)) {
+            return "Unknown";
+        }
+        long[] address = new long[2];
+        if (!IpAddressParser.parse(remoteAddr, address) || !trustedProxies.contains(address[0], address[1])) {
+            return remoteAddr;
+        }
+
+        boolean rfc7239 = false;
+        List<String> values = headerValues(request, "X-Forwarded-For");
+        if (values.isEmpty()) {
+            values = headerValues(request, "Forwarded");
+            rfc7239 = true;
+        }
+
+        String client = remoteAddr;
+        // Proxies may append a new header line instead of extending the last one, so the last line is the nearest.
+        for (int line = values.size() - 1; line >= 0; line--) {
+            String value = values.get(line);
+            int end = value.length();
+            while (true) {
+                int comma = value.lastIndexOf(',', end - 1);
+                long bounds = rfc7239 ? forwardedForBounds(value, comma + 1, end) : addressBounds(value, comma + 1, end);
+                if (bounds < 0) {
+                    return client;
+                }
+                int start = (int) (bounds >>> 32);
+                int stop = (int) bounds;
+                if (!IpAddressParser.parse(value, start, stop, address)) {
+                    return client;
+                }
+                client = value.substring(start, stop);
+                if (!trustedProxies.contains(address[0], address[1])) {
+                    return client;
+                }
+                if (comma < 0) {
+                    break;
+                }
+                end = comma;
+            }
+        }
+        return client;
+    }
+
+    private static List<String> headerValues(HttpServletRequest request, String name) {
+        Enumeration<String> values = request.getHeaders(name);
+        return values == null ? List.of() : Collections.list(values);
+    }
+
+    /**
+     * Locates the {@code for=} parameter of one RFC 7239 {@code Forwarded} element in {@code text[start, end)}.
+     *
+     * @return The address bounds as for {@link #addressBounds(String, int, int)}, or -1 if there is no usable value.
+     */
+    private static long forwardedForBounds(String text, int start, int end) {
+        int pairStart = start;
+        while (pairStart < end) {
+            int semicolon = text.indexOf(';', pairStart);
+            int pairEnd = semicolon < 0 || semicolon > end ? end : semicolon;
+            int keyStart = skipWhitespace(text, pairStart, pairEnd);
+            if (pairEnd - keyStart > 4 && text.regionMatches(true, keyStart, "for=", 0, 4)) {
+                int valueStart = keyStart + 4;
+                int valueEnd = trimEnd(text, valueStart, pairEnd);
+                if (valueEnd - valueStart >= 2 && text.charAt(valueStart) == '"' && text.charAt(valueEnd - 1) == '"') {
+                    valueStart++;
+                    valueEnd--;
+                }
+                return addressBounds(text, valueStart, valueEnd);
+            }
+            pairStart = pairEnd + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the address inside {@code text[start, end)}, stripping surrounding whitespace, IPv6 brackets and an
+     * optional port. The address itself is not validated.
+     *
+     * @return {@code (addressStart << 32) | addressEnd}, or -1 if the region is empty or malformed.
+     */
+    private static long addressBounds(String text, int start, int end) {
+        start = skipWhitespace(text, start, end);
+        end = trimEnd(text, start, end);
+        if (start == end) {
+            return -1;
+        }
+        if (text.charAt(start) == '[') {
+            int close = text.indexOf(']', start);
+            if (close < 0 || close >= end) {
+                return -1;
+            }
+            start++;
+            end = close;
+        } else {
+            int colon = text.indexOf(':', start);
+            if (colon >= 0 && colon < end && text.lastIndexOf(':', end - 1) == colon) {
+                end = colon; // IPv4 with port; a lone colon cannot appear in an IPv6 address.
+            }
+        }
+        return ((long) start << 32) | end;
+    }
+
+    private static int trimEnd(String text, int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int skipWhitespace(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return start;
     }
 }
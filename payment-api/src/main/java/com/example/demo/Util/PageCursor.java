@@ -0,0 +1,64 @@
+package com.example.demo.Util;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a keyset page, i.e. the (creationDate, id) pair the next page starts after.
+ * Clients only ever see the opaque, URL-safe token produced by {@link #encode()}.
+ */
+public record PageCursor(LocalDateTime creationDate, UUID id) {
+
+    private static final int TOKEN_BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    public PageCursor {
+        if (creationDate == null || id == null) {
+            throw new IllegalArgumentException("Cursor requires both creation date and id.");
+        }
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES);
+        buffer.putLong(creationDate.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(creationDate.getNano());
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes a token previously produced by {@link #encode()}.
+     *
+     * @param token The opaque cursor token sent by the client.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static PageCursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token);
+        }
+        if (bytes.length != TOKEN_BYTES) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long epochSecond = buffer.getLong();
+        int nanos = buffer.getInt();
+        LocalDateTime creationDate;
+        try {
+            creationDate = LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            // Nanos outside 0..999,999,999 or a second beyond the supported year range.
+            throw new IllegalArgumentException("Invalid page cursor: " + token);
+        }
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        return new PageCursor(creationDate, id);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.Util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates time-ordered version 7 UUIDs (RFC 9562): a 48-bit Unix millisecond timestamp, a 12-bit counter in
+ * {@code rand_a} and 62 random bits. Values sort by creation time both as strings and byte-wise, which is how
+ * Postgres compares {@code uuid} columns, so new primary keys land on the right edge of the index.
+ * <p>
+ * Each thread keeps its own timestamp and counter, so generation never locks. Within a thread, ids are strictly
+ * increasing: if the clock does not move or goes backwards, the previous timestamp is reused and the counter
+ * incremented, and when the counter is exhausted the timestamp is advanced by one millisecond.
+ */
+public final class UuidV7 {
+
+    private static final int COUNTER_MAX = (1 << 12) - 1;
+    /** A new millisecond starts the counter in its lower half, leaving at least 2048 increments before rollover. */
+    private static final int COUNTER_SEED_BOUND = 1 << 11;
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        return next(System.currentTimeMillis());
+    }
+
+    static UUID next(long nowMillis) {
+        State state = STATE.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (nowMillis > state.millis) {
+            state.millis = nowMillis;
+            state.counter = random.nextInt(COUNTER_SEED_BOUND);
+        } else if (++state.counter > COUNTER_MAX) {
+            state.millis++;
+            state.counter = random.nextInt(COUNTER_SEED_BOUND);
+        }
+        long mostSigBits = (state.millis << 16) | VERSION | state.counter;
+        long leastSigBits = (random.nextLong() & RANDOM_MASK) | VARIANT;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * @param uuid A version 7 UUID.
+     * @return The Unix timestamp in milliseconds embedded in the UUID.
+     * @throws IllegalArgumentException if the UUID is not version 7.
+     */
+    public static long timestampMillis(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    private static final class State {
+        private long millis = Long.MIN_VALUE;
+        private int counter;
+    }
+}
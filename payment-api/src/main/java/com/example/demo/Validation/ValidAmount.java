@@ -0,0 +1,27 @@
+package com.example.demo.Validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated string must be an amount with up to two decimal places, e.g. {@code 123.45}, as accepted by
+ * {@link com.example.demo.Model.Money#isValidAmount}. {@code null} is valid.
+ */
+@Documented
+@Constraint(validatedBy = ValidAmountValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidAmount {
+
+    String message() default "Invalid amount format. Use digits with up to two decimal places (e.g., 123.45)";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,13 @@
+package com.example.demo.Validation;
+
+import com.example.demo.Model.Money;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ValidAmountValidator implements ConstraintValidator<ValidAmount, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || Money.isValidAmount(value);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.Validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated string must be a BIC that passes {@link com.example.demo.Util.Bic#isValid}. {@code null} is valid.
+ */
+@Documented
+@Constraint(validatedBy = ValidBicValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidBic {
+
+    String message() default "Invalid BIC. Use 8 or 11 upper case letters and digits (e.g., DEUTDEFF)";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
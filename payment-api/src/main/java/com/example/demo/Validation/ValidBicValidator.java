@@ -0,0 +1,13 @@
+package com.example.demo.Validation;
+
+import com.example.demo.Util.Bic;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ValidBicValidator implements ConstraintValidator<ValidBic, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || Bic.isValid(value);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.Validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated string must be an IBAN in electronic format that passes {@link com.example.demo.Util.Iban#isValid}.
+ * {@code null} is valid.
+ */
+@Documented
+@Constraint(validatedBy = ValidIbanValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidIban {
+
+    String message() default "Invalid IBAN. Use the electronic format without spaces (e.g., DE89370400440532013000)";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,13 @@
+package com.example.demo.Validation;
+
+import com.example.demo.Util.Iban;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ValidIbanValidator implements ConstraintValidator<ValidIban, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || Iban.isValid(value);
+    }
+}
@@ -0,0 +1,39 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update. Every statement is idempotent, so this
+-- migration also adopts databases that Hibernate already created (see spring.flyway.baseline-on-migrate).
+
+CREATE SEQUENCE IF NOT EXISTS payment_change_seq;
+
+CREATE TABLE IF NOT EXISTS payment (
+    id            uuid           NOT NULL,
+    amount        numeric(38, 2) NOT NULL,
+    cancelation   numeric(38, 2),
+    currency      varchar(255)   NOT NULL CHECK (currency IN ('EUR', 'USD')),
+    debtor_iban   varchar(255)   NOT NULL,
+    creditor_iban varchar(255)   NOT NULL,
+    details       varchar(255),
+    bic_code      varchar(255),
+    type          integer        NOT NULL,
+    creation_date timestamp(6)   NOT NULL,
+    version       bigint         NOT NULL DEFAULT 0,
+    change_seq    bigint         NOT NULL DEFAULT nextval('payment_change_seq'),
+    CONSTRAINT payment_pkey PRIMARY KEY (id)
+);
+
+-- Columns added after the first Hibernate-managed releases.
+ALTER TABLE payment ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE payment ADD COLUMN IF NOT EXISTS change_seq bigint NOT NULL DEFAULT nextval('payment_change_seq');
+
+-- Creation-date ranges over all payments, such as the same-day cancellation window.
+CREATE INDEX IF NOT EXISTS idx_payment_creation_date_id ON payment (creation_date, id);
+-- Change feed reads (change_seq > cursor).
+CREATE INDEX IF NOT EXISTS idx_payment_change_seq ON payment (change_seq);
+
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    idempotency_key varchar(255) NOT NULL,
+    request_hash    varchar(64)  NOT NULL,
+    payment_id      uuid         NOT NULL,
+    created_at      timestamp(6) NOT NULL,
+    CONSTRAINT idempotency_record_pkey PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_record_created_at ON idempotency_record (created_at);
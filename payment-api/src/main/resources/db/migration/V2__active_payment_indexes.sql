@@ -0,0 +1,16 @@
+-- Listing queries only ever read active payments (cancelation IS NULL), so their indexes are partial: they stay
+-- as small as the active set and let the planner answer the ordered scans without touching cancelled rows.
+
+-- findByCancelationIsNull, the NDJSON export and unfiltered keyset pages, all ordered by (creation_date, id).
+CREATE INDEX IF NOT EXISTS idx_payment_active_creation_date_id
+    ON payment (creation_date, id) WHERE cancelation IS NULL;
+
+-- Keyset pages filtered by currency or type.
+CREATE INDEX IF NOT EXISTS idx_payment_active_currency_creation_date_id
+    ON payment (currency, creation_date, id) WHERE cancelation IS NULL;
+CREATE INDEX IF NOT EXISTS idx_payment_active_type_creation_date_id
+    ON payment (type, creation_date, id) WHERE cancelation IS NULL;
+
+-- Superseded by the partial indexes above; created by Hibernate on databases it managed.
+DROP INDEX IF EXISTS idx_payment_currency_creation_date_id;
+DROP INDEX IF EXISTS idx_payment_type_creation_date_id;
@@ -0,0 +1,21 @@
+-- Change feed positions are drawn by a trigger on every insert and update, after the writing transaction has been
+-- given its transaction id. ChangeFeedWatermark relies on that order: a position drawn before the sequence was
+-- read belongs to a transaction whose id is below the xmax of any snapshot taken after that read.
+CREATE OR REPLACE FUNCTION payment_assign_change_seq() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    PERFORM pg_current_xact_id();
+    NEW.change_seq := nextval('payment_change_seq');
+    RETURN NEW;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS payment_assign_change_seq ON payment;
+CREATE TRIGGER payment_assign_change_seq
+    BEFORE INSERT OR UPDATE ON payment
+    FOR EACH ROW EXECUTE FUNCTION payment_assign_change_seq();
+
+-- V1 keeps the column default only to number payments of databases that predate the change feed; a default would
+-- draw the position before the transaction id is assigned.
+ALTER TABLE payment ALTER COLUMN change_seq DROP DEFAULT;
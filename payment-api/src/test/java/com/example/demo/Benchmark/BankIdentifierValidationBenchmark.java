@@ -0,0 +1,97 @@
+package com.example.demo.Benchmark;
+
+import com.example.demo.DTO.PaymentDTO;
+import com.example.demo.Model.Payment;
+import com.example.demo.Util.Bic;
+import com.example.demo.Util.Iban;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigInteger;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the IBAN and BIC checks behind {@code @ValidIban} and {@code @ValidBic}, a textbook BigInteger mod-97
+ * check as the baseline, and Bean Validation of a whole {@link PaymentDTO} as done per item on the bulk ingest path.
+ * <p>
+ * Run from the payment-api directory with:
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.example.demo.Benchmark.BankIdentifierValidationBenchmark
+ * </pre>
+ * Add {@code -prof gc} (via {@link org.openjdk.jmh.Main}) to compare allocation rates as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankIdentifierValidationBenchmark {
+
+    private static final BigInteger NINETY_SEVEN = BigInteger.valueOf(97);
+
+    @Param({"DE89370400440532013000", "FR1420041010050500013M02606", "LC55HEMM000100010012001200023015"})
+    public String iban;
+
+    private Validator validator;
+    private PaymentDTO payment;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        payment = new PaymentDTO();
+        payment.setAmount("1234.56");
+        payment.setCurrency(Payment.Currency.EUR);
+        payment.setDebtorIban(iban);
+        payment.setCreditorIban("NL91ABNA0417164300");
+        payment.setBicCode("DEUTDEFF500");
+        payment.setType(3);
+    }
+
+    @Benchmark
+    public boolean ibanStreaming() {
+        return Iban.isValid(iban);
+    }
+
+    @Benchmark
+    public boolean ibanBigInteger() {
+        String rearranged = iban.substring(4) + iban.substring(0, 4);
+        StringBuilder digits = new StringBuilder(rearranged.length() * 2);
+        for (int i = 0; i < rearranged.length(); i++) {
+            digits.append(Character.getNumericValue(rearranged.charAt(i)));
+        }
+        return new BigInteger(digits.toString()).mod(NINETY_SEVEN).intValue() == 1;
+    }
+
+    @Benchmark
+    public boolean bic() {
+        return Bic.isValid("DEUTDEFF500");
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PaymentDTO>> validatePaymentDTO() {
+        return validator.validate(payment);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BankIdentifierValidationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.Benchmark;
+
+import com.example.demo.Model.Money;
+import com.example.demo.Model.Payment;
+import com.example.demo.Service.CancellationFeeEngine;
+import com.example.demo.Strategy.CancellationFeeSchedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the table-driven {@link CancellationFeeEngine} against the previous per-type strategy classes.
+ * <p>
+ * Run from the payment-api directory with:
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.example.demo.Benchmark.CancellationFeeBenchmark
+ * </pre>
+ * Add {@code -prof gc} (via {@link org.openjdk.jmh.Main}) to compare allocation rates as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CancellationFeeBenchmark {
+
+    @Param({"1", "2", "3"})
+    public int type;
+
+    private Payment payment;
+    private LocalDateTime cancellationTime;
+    private CancellationFeeSchedule schedule;
+
+    @Setup
+    public void setUp() throws IOException {
+        payment = new Payment();
+        payment.setCurrency(Payment.Currency.EUR);
+        payment.setType(type);
+        payment.setCreationDate(LocalDateTime.of(2025, 5, 1, 8, 15));
+        cancellationTime = payment.getCreationDate().plusHours(7).plusMinutes(42);
+        schedule = new CancellationFeeEngine(new ClassPathResource("fee-schedule.properties")).schedule();
+    }
+
+    @Benchmark
+    public Money feeTable() {
+        return CancellationFeeEngine.fee(schedule, payment, cancellationTime);
+    }
+
+    @Benchmark
+    public long feeTableMinorUnits() {
+        return schedule.feeMinorUnits(payment.getCurrency(), payment.getType(), 7);
+    }
+
+    @Benchmark
+    public BigDecimal legacyStrategies() {
+        return LegacyFees.calculateFee(payment, cancellationTime);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CancellationFeeBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Copy of the strategy dispatch before the fee schedule, kept as the benchmark baseline.
+     */
+    static class LegacyFees {
+
+        private static final BigDecimal TYPE1_COEFFICIENT = new BigDecimal("0.05");
+        private static final BigDecimal TYPE2_COEFFICIENT = new BigDecimal("0.1");
+        private static final BigDecimal TYPE3_COEFFICIENT = new BigDecimal("0.15");
+
+        static BigDecimal calculateFee(Payment payment, LocalDateTime cancellationTime) {
+            BigDecimal coefficient;
+            switch (payment.getType()) {
+                case 1:
+                    coefficient = TYPE1_COEFFICIENT;
+                    break;
+                case 2:
+                    coefficient = TYPE2_COEFFICIENT;
+                    break;
+                case 3:
+                    coefficient = TYPE3_COEFFICIENT;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown type " + payment.getType());
+            }
+            Duration duration = Duration.between(payment.getCreationDate(), cancellationTime);
+            long fullHours = Math.max(duration.toHours(), 0);
+            return BigDecimal.valueOf(fullHours).multiply(coefficient);
+        }
+    }
+}
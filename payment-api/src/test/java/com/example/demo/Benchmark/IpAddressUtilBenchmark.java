@@ -0,0 +1,115 @@
+package com.example.demo.Benchmark;
+
+import com.example.demo.Util.IpAddressUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares client IP extraction of {@link IpAddressUtil} against the previous regex/split based implementation.
+ * <p>
+ * Run from the payment-api directory with:
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.example.demo.Benchmark.IpAddressUtilBenchmark
+ * </pre>
+ * Add {@code -prof gc} (via {@link org.openjdk.jmh.Main}) to compare allocation rates as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IpAddressUtilBenchmark {
+
+    @Param({
+            "8.8.4.4",
+            "10.0.0.1, 172.20.0.3, 81.2.69.142",
+            "[2a00:1450:4001:80b::200e]:443, 192.168.1.1"
+    })
+    public String forwardedFor;
+
+    private HttpServletRequest request;
+    private final IpAddressUtil current = new IpAddressUtil();
+    private final LegacyIpAddressUtil legacy = new LegacyIpAddressUtil();
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest mock = new MockHttpServletRequest();
+        mock.addHeader("X-Forwarded-For", forwardedFor);
+        mock.setRemoteAddr("198.51.100.1");
+        request = mock;
+    }
+
+    @Benchmark
+    public String parserAndTrie() {
+        return current.getClientIpAddress(request);
+    }
+
+    @Benchmark
+    public String legacyRegex() {
+        return legacy.getClientIpAddress(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IpAddressUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Copy of the implementation before the hand-written parser, kept as the benchmark baseline.
+     */
+    static class LegacyIpAddressUtil {
+
+        private static final String[] IP_HEADER_CANDIDATES = {
+                "X-Forwarded-For", "Proxy-Client-IP", "WL-Proxy-Client-IP", "HTTP_X_FORWARDED_FOR", "HTTP_X_FORWARDED",
+                "HTTP_X_CLUSTER_CLIENT_IP", "HTTP_CLIENT_IP", "HTTP_FORWARDED_FOR", "HTTP_FORWARDED", "HTTP_VIA",
+                "REMOTE_ADDR"
+        };
+
+        String getClientIpAddress(HttpServletRequest request) {
+            Pattern ipPattern = Pattern.compile(
+                    "^([0-9]{1,3}\\.){3}[0-9]{1,3}$|^([0-9a-fA-F]{0,4}:){1,7}[0-9a-fA-F]{0,4}$"
+            );
+            for (String header : IP_HEADER_CANDIDATES) {
+                String ipList = request.getHeader(header);
+                if (StringUtils.hasText(ipList) && !"unknown".equalsIgnoreCase(ipList)) {
+                    if (ipList.toLowerCase().trim().startsWith("unknown")) {
+                        continue;
+                    }
+                    for (String ip : ipList.split(",")) {
+                        String cleanIp = ip.trim().split(":")[0];
+                        if (ipPattern.matcher(cleanIp).matches() && !isPrivateIp(cleanIp)) {
+                            return cleanIp;
+                        }
+                    }
+                }
+            }
+            String remoteAddr = request.getRemoteAddr();
+            return StringUtils.hasText(remoteAddr) ? remoteAddr : "Unknown";
+        }
+
+        private boolean isPrivateIp(String ip) {
+            return ip.startsWith("10.") || ip.startsWith("192.168.") || ip.startsWith("172.16.")
+                    || ip.startsWith("127.") || ip.equalsIgnoreCase("0:0:0:0:0:0:0:1");
+        }
+    }
+}
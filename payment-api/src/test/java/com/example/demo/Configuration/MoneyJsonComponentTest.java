@@ -0,0 +1,67 @@
+package com.example.demo.Configuration;
+
+import com.example.demo.Model.Money;
+import com.example.demo.Model.Payment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyJsonComponentTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+            .addDeserializer(Money.class, new MoneyJsonComponent.Deserializer()));
+
+    @Test
+    @DisplayName("serialize - Should write the amount as a number with two decimals")
+    void serialize() throws Exception {
+        assertThat(objectMapper.writeValueAsString(new Money(Payment.Currency.EUR, 1230)))
+                .isEqualTo("{\"amount\":12.30,\"currency\":\"EUR\"}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"amount\":12.3,\"currency\":\"USD\"}",
+            "{\"currency\":\"USD\",\"amount\":\"12.30\"}",
+            "{\"amount\":12.30,\"note\":{\"x\":[1]},\"currency\":\"USD\"}"
+    })
+    @DisplayName("deserialize - Should read the amount from a number or a string, in any field order")
+    void deserialize(String json) throws Exception {
+        assertThat(objectMapper.readValue(json, Money.class)).isEqualTo(new Money(Payment.Currency.USD, 1230));
+    }
+
+    @Test
+    @DisplayName("Round trip - Should read back what it wrote")
+    void roundTrip() throws Exception {
+        Money money = new Money(Payment.Currency.EUR, 9_876_543_210L);
+
+        assertThat(objectMapper.readValue(objectMapper.writeValueAsString(money), Money.class)).isEqualTo(money);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"amount\":12.345,\"currency\":\"EUR\"}",
+            "{\"amount\":-1,\"currency\":\"EUR\"}",
+            "{\"amount\":\"ten\",\"currency\":\"EUR\"}",
+            "{\"amount\":1,\"currency\":\"GBP\"}"
+    })
+    @DisplayName("deserialize - Should reject invalid amounts and unsupported currencies")
+    void deserialize_InvalidValue(String json) {
+        assertThatThrownBy(() -> objectMapper.readValue(json, Money.class)).isInstanceOf(InvalidFormatException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"{\"amount\":1}", "{\"currency\":\"EUR\"}", "12.30", "{\"amount\":[1],\"currency\":\"EUR\"}"})
+    @DisplayName("deserialize - Should reject incomplete or malformed money")
+    void deserialize_Malformed(String json) {
+        assertThatThrownBy(() -> objectMapper.readValue(json, Money.class)).isInstanceOf(MismatchedInputException.class);
+    }
+}
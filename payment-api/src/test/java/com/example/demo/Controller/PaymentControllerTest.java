@@ -1,8 +1,28 @@
 package com.example.demo.Controller;
 
+import com.example.demo.DTO.BulkCancellationItemResultDTO;
+import com.example.demo.DTO.BulkCancellationResultDTO;
+import com.example.demo.DTO.BulkPaymentItemResultDTO;
+import com.example.demo.DTO.BulkPaymentResultDTO;
+import com.example.demo.DTO.FeeForecastDTO;
+import com.example.demo.DTO.FeeQuoteDTO;
+import com.example.demo.DTO.FeeQuotesDTO;
+import com.example.demo.DTO.PaymentChangeDTO;
+import com.example.demo.DTO.PaymentChangesDTO;
 import com.example.demo.DTO.PaymentDTO;
+import com.example.demo.DTO.PaymentPageDTO;
+import com.example.demo.Exception.CancellationNotAllowedException;
+import com.example.demo.Exception.CancellationRetryException;
+import com.example.demo.Exception.IdempotencyKeyReusedException;
+import com.example.demo.Model.Money;
 import com.example.demo.Model.Payment;
-import com.example.demo.Service.GeoIpService;
+import com.example.demo.Repository.PaymentFilter;
+import com.example.demo.Service.ActivePaymentSnapshot;
+import com.example.demo.Service.BulkPaymentService;
+import com.example.demo.Service.GeoIpEnrichmentService;
+import com.example.demo.Service.IdempotentPaymentService;
+import com.example.demo.Service.PaymentChangeStreamService;
+import com.example.demo.Service.PaymentExportService;
 import com.example.demo.Service.PaymentService;
 import com.example.demo.Util.IpAddressUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,19 +36,26 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -46,11 +73,23 @@ class PaymentControllerTest {
     @MockBean
     private PaymentService paymentService;
 
+    @MockBean
+    private PaymentExportService paymentExportService;
+
     @MockBean
     private IpAddressUtil ipAddressUtil;
 
     @MockBean
-    private GeoIpService geoIpService;
+    private GeoIpEnrichmentService geoIpEnrichmentService;
+
+    @MockBean
+    private BulkPaymentService bulkPaymentService;
+
+    @MockBean
+    private IdempotentPaymentService idempotentPaymentService;
+
+    @MockBean
+    private PaymentChangeStreamService paymentChangeStreamService;
 
     private Payment samplePayment;
     private PaymentDTO samplePaymentDTO;
@@ -67,7 +106,7 @@ class PaymentControllerTest {
         samplePayment.setAmount(new BigDecimal("100.50"));
         samplePayment.setCurrency(Payment.Currency.EUR);
         samplePayment.setDebtorIban("DE89370400440532013000");
-        samplePayment.setCreditorIban("DE89370400440532013001");
+        samplePayment.setCreditorIban("NL91ABNA0417164300");
         samplePayment.setType(1);
         samplePayment.setCreationDate(LocalDateTime.now().minusHours(1));
         samplePayment.setCancelation(null);
@@ -77,7 +116,15 @@ class PaymentControllerTest {
 
         when(ipAddressUtil.getClientIpAddress(any())).thenReturn("192.168.1.100");
         when(ipAddressUtil.isLocalhost(anyString())).thenReturn(false);
-        when(geoIpService.getCountryFromIp(anyString())).thenReturn(Optional.of("DE"));
+        when(geoIpEnrichmentService.logPaymentListAccess(anyString())).thenReturn(true);
+    }
+
+    private ActivePaymentSnapshot.Snapshot snapshotOf(Payment... payments) {
+        Map<UUID, Payment> byId = new LinkedHashMap<>();
+        for (Payment payment : payments) {
+            byId.put(payment.getId(), payment);
+        }
+        return new ActivePaymentSnapshot.Snapshot(1, byId, objectMapper);
     }
 
     @Nested
@@ -87,7 +134,7 @@ class PaymentControllerTest {
         @Test
         @DisplayName("Happy Path - Should return list of non-cancelled payments and status 200 OK")
         void getAllPayments_shouldReturnPaymentsAndOk() throws Exception {
-            when(paymentService.getAllNonCancelledPayments()).thenReturn(List.of(samplePayment));
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshotOf(samplePayment));
 
             ResultActions result = mockMvc.perform(get("/payments"));
 
@@ -98,15 +145,15 @@ class PaymentControllerTest {
                     .andExpect(jsonPath("$[0].amount", is(100.50)))
                     .andExpect(jsonPath("$[0].cancelation").doesNotExist());
 
-            verify(paymentService).getAllNonCancelledPayments();
+            verify(paymentService).getActivePaymentsSnapshot();
             verify(ipAddressUtil).getClientIpAddress(any());
-            verify(geoIpService).getCountryFromIp(eq("192.168.1.100"));
+            verify(geoIpEnrichmentService).logPaymentListAccess(eq("192.168.1.100"));
         }
 
         @Test
         @DisplayName("Edge Case - Should return empty list and status 200 OK when no payments exist")
         void getAllPayments_whenNoPayments_shouldReturnEmptyListAndOk() throws Exception {
-            when(paymentService.getAllNonCancelledPayments()).thenReturn(Collections.emptyList());
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshotOf());
 
             ResultActions result = mockMvc.perform(get("/payments"));
 
@@ -114,31 +161,45 @@ class PaymentControllerTest {
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                     .andExpect(jsonPath("$", hasSize(0)));
 
-            verify(paymentService).getAllNonCancelledPayments();
+            verify(paymentService).getActivePaymentsSnapshot();
             verify(ipAddressUtil).getClientIpAddress(any());
-            verify(geoIpService).getCountryFromIp(anyString());
+            verify(geoIpEnrichmentService).logPaymentListAccess(anyString());
         }
 
         @Test
-        @DisplayName("GeoIP Edge Case - Should still return payments when GeoIP fails")
+        @DisplayName("GeoIP Edge Case - Should still return payments when GeoIP enrichment fails")
         void getAllPayments_whenGeoIpFails_shouldReturnPaymentsAndOk() throws Exception {
-            when(paymentService.getAllNonCancelledPayments()).thenReturn(List.of(samplePayment));
-            when(geoIpService.getCountryFromIp(anyString())).thenThrow(new RuntimeException("GeoIP Service Unavailable"));
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshotOf(samplePayment));
+            when(geoIpEnrichmentService.logPaymentListAccess(anyString())).thenThrow(new RuntimeException("GeoIP Service Unavailable"));
 
             ResultActions result = mockMvc.perform(get("/payments"));
 
             result.andExpect(status().isOk())
                     .andExpect(jsonPath("$", hasSize(1)));
 
-            verify(paymentService).getAllNonCancelledPayments();
+            verify(paymentService).getActivePaymentsSnapshot();
             verify(ipAddressUtil).getClientIpAddress(any());
-            verify(geoIpService).getCountryFromIp(anyString());
+            verify(geoIpEnrichmentService).logPaymentListAccess(anyString());
+        }
+
+        @Test
+        @DisplayName("GeoIP Edge Case - Enrichment queue full - Should still return payments")
+        void getAllPayments_whenEnrichmentDropped_shouldReturnPaymentsAndOk() throws Exception {
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshotOf(samplePayment));
+            when(geoIpEnrichmentService.logPaymentListAccess(anyString())).thenReturn(false);
+
+            ResultActions result = mockMvc.perform(get("/payments"));
+
+            result.andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)));
+
+            verify(geoIpEnrichmentService).logPaymentListAccess("192.168.1.100");
         }
 
         @Test
         @DisplayName("GeoIP Edge Case - Localhost IP - Should skip GeoIP lookup")
         void getAllPayments_whenLocalhostIp_shouldSkipGeoIp() throws Exception {
-            when(paymentService.getAllNonCancelledPayments()).thenReturn(List.of(samplePayment));
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshotOf(samplePayment));
             when(ipAddressUtil.getClientIpAddress(any())).thenReturn("127.0.0.1");
             when(ipAddressUtil.isLocalhost("127.0.0.1")).thenReturn(true);
 
@@ -147,16 +208,16 @@ class PaymentControllerTest {
             result.andExpect(status().isOk())
                     .andExpect(jsonPath("$", hasSize(1)));
 
-            verify(paymentService).getAllNonCancelledPayments();
+            verify(paymentService).getActivePaymentsSnapshot();
             verify(ipAddressUtil).getClientIpAddress(any());
             verify(ipAddressUtil).isLocalhost("127.0.0.1");
-            verify(geoIpService, never()).getCountryFromIp(anyString());
+            verify(geoIpEnrichmentService, never()).logPaymentListAccess(anyString());
         }
 
         @Test
         @DisplayName("GeoIP Edge Case - Unknown IP - Should skip GeoIP lookup")
         void getAllPayments_whenUnknownIp_shouldSkipGeoIp() throws Exception {
-            when(paymentService.getAllNonCancelledPayments()).thenReturn(List.of(samplePayment));
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshotOf(samplePayment));
             when(ipAddressUtil.getClientIpAddress(any())).thenReturn("Unknown");
             when(ipAddressUtil.isLocalhost("Unknown")).thenReturn(false);
 
@@ -165,9 +226,219 @@ class PaymentControllerTest {
             result.andExpect(status().isOk())
                     .andExpect(jsonPath("$", hasSize(1)));
 
-            verify(paymentService).getAllNonCancelledPayments();
+            verify(paymentService).getActivePaymentsSnapshot();
             verify(ipAddressUtil).getClientIpAddress(any());
-            verify(geoIpService, never()).getCountryFromIp(anyString());
+            verify(geoIpEnrichmentService, never()).logPaymentListAccess(anyString());
+        }
+
+        @Test
+        @DisplayName("Conditional GET - Should return the snapshot ETag")
+        void getAllPayments_returnsSnapshotETag() throws Exception {
+            ActivePaymentSnapshot.Snapshot snapshot = snapshotOf(samplePayment);
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshot);
+
+            mockMvc.perform(get("/payments"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", snapshot.etag()));
+        }
+
+        @Test
+        @DisplayName("Conditional GET - Should return 304 without a body when the list is unchanged")
+        void getAllPayments_whenETagMatches_returnsNotModified() throws Exception {
+            ActivePaymentSnapshot.Snapshot snapshot = snapshotOf(samplePayment);
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshot);
+
+            mockMvc.perform(get("/payments").header("If-None-Match", snapshot.etag()))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("Conditional GET - A stale ETag should get the full list")
+        void getAllPayments_whenETagStale_returnsBody() throws Exception {
+            ActivePaymentSnapshot.Snapshot stale = snapshotOf(samplePayment);
+            Map<UUID, Payment> byId = new LinkedHashMap<>();
+            byId.put(samplePayment.getId(), samplePayment);
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(new ActivePaymentSnapshot.Snapshot(2, byId, objectMapper));
+
+            mockMvc.perform(get("/payments").header("If-None-Match", stale.etag()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)));
+        }
+
+        @Test
+        @DisplayName("Projection - Should return only the selected fields with their own ETag")
+        void getAllPayments_withFields_returnsProjection() throws Exception {
+            ActivePaymentSnapshot.Snapshot snapshot = snapshotOf(samplePayment);
+            when(paymentService.getActivePaymentsSnapshot()).thenReturn(snapshot);
+
+            mockMvc.perform(get("/payments").param("fields", "id,amount"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$[0].id", is(validUuid.toString())))
+                    .andExpect(jsonPath("$[0].amount", is(100.50)))
+                    .andExpect(jsonPath("$[0].debtorIban").doesNotExist())
+                    .andExpect(jsonPath("$[0].details").doesNotExist())
+                    .andExpect(header().string("ETag", not(snapshot.etag())));
+        }
+
+        @Test
+        @DisplayName("Projection - Should return 400 for an unknown field")
+        void getAllPayments_withUnknownField_returnsBadRequest() throws Exception {
+            mockMvc.perform(get("/payments").param("fields", "id,password"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("Unknown payment field: password")));
+
+            verify(paymentService, never()).getActivePaymentsSnapshot();
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /payments/page")
+    class GetPaymentsPageTests {
+
+        @Test
+        @DisplayName("Happy Path - Should pass filters through and return the page with its cursor")
+        void getPaymentsPage_shouldReturnPageAndOk() throws Exception {
+            when(paymentService.getActivePaymentsPage(any(PaymentFilter.class), eq("abc"), eq(10)))
+                    .thenReturn(new PaymentPageDTO(List.of(samplePayment), "next"));
+
+            ResultActions result = mockMvc.perform(get("/payments/page")
+                    .param("cursor", "abc")
+                    .param("limit", "10")
+                    .param("currency", "EUR")
+                    .param("type", "1")
+                    .param("from", "2025-01-01T00:00:00"));
+
+            result.andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].id", is(validUuid.toString())))
+                    .andExpect(jsonPath("$.nextCursor", is("next")));
+
+            verify(paymentService).getActivePaymentsPage(argThat(filter ->
+                    filter.currency() == Payment.Currency.EUR &&
+                            filter.type() == 1 &&
+                            filter.from().equals(LocalDateTime.of(2025, 1, 1, 0, 0)) &&
+                            filter.to() == null), eq("abc"), eq(10));
+        }
+
+        @Test
+        @DisplayName("Bad Request - Should return 400 when the service rejects the cursor")
+        void getPaymentsPage_whenInvalidCursor_shouldReturnBadRequest() throws Exception {
+            when(paymentService.getActivePaymentsPage(any(PaymentFilter.class), eq("broken"), isNull()))
+                    .thenThrow(new IllegalArgumentException("Invalid page cursor: broken"));
+
+            ResultActions result = mockMvc.perform(get("/payments/page").param("cursor", "broken"));
+
+            result.andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("Invalid page cursor")));
+        }
+
+        @Test
+        @DisplayName("Bad Request - Should return 400 for an unknown currency filter")
+        void getPaymentsPage_whenUnknownCurrency_shouldReturnBadRequest() throws Exception {
+            ResultActions result = mockMvc.perform(get("/payments/page").param("currency", "GBP"));
+
+            result.andExpect(status().isBadRequest());
+
+            verify(paymentService, never()).getActivePaymentsPage(any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /payments/changes")
+    class GetChangesTests {
+
+        @Test
+        @DisplayName("Happy Path - Should return the changes after the cursor")
+        void getChanges_shouldReturnChangesAndOk() throws Exception {
+            samplePayment.setChangeSeq(8);
+            when(paymentService.getChangesSince(7, 20)).thenReturn(new PaymentChangesDTO(
+                    List.of(PaymentChangeDTO.fromEntity(samplePayment)), 8, false));
+
+            ResultActions result = mockMvc.perform(get("/payments/changes").param("since", "7").param("limit", "20"));
+
+            result.andExpect(status().isOk())
+                    .andExpect(jsonPath("$.changes", hasSize(1)))
+                    .andExpect(jsonPath("$.changes[0].seq", is(8)))
+                    .andExpect(jsonPath("$.changes[0].type", is("CREATED")))
+                    .andExpect(jsonPath("$.changes[0].payment.id", is(validUuid.toString())))
+                    .andExpect(jsonPath("$.nextCursor", is(8)))
+                    .andExpect(jsonPath("$.hasMore", is(false)));
+        }
+
+        @Test
+        @DisplayName("Bad Request - Should return 400 when the service rejects the cursor")
+        void getChanges_whenInvalidCursor_shouldReturnBadRequest() throws Exception {
+            when(paymentService.getChangesSince(-1, null))
+                    .thenThrow(new IllegalArgumentException("Change cursor must not be negative, was: -1"));
+
+            ResultActions result = mockMvc.perform(get("/payments/changes").param("since", "-1"));
+
+            result.andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("must not be negative")));
+        }
+
+        @Test
+        @DisplayName("Stream - Should subscribe from the query cursor")
+        void streamChanges_shouldSubscribeFromSince() throws Exception {
+            when(paymentChangeStreamService.subscribe(anyLong())).thenReturn(new SseEmitter());
+
+            mockMvc.perform(get("/payments/changes/stream").param("since", "5").accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted());
+
+            verify(paymentChangeStreamService).subscribe(5);
+        }
+
+        @Test
+        @DisplayName("Stream - Last-Event-ID of a reconnecting client should take precedence")
+        void streamChanges_shouldResumeFromLastEventId() throws Exception {
+            when(paymentChangeStreamService.subscribe(anyLong())).thenReturn(new SseEmitter());
+
+            mockMvc.perform(get("/payments/changes/stream").param("since", "5")
+                            .header("Last-Event-ID", "12")
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted());
+
+            verify(paymentChangeStreamService).subscribe(12);
+        }
+
+        @Test
+        @DisplayName("Stream - Should return 400 without subscribing when the service rejects the cursor")
+        void streamChanges_whenInvalidCursor_shouldReturnBadRequest() throws Exception {
+            when(paymentChangeStreamService.subscribe(-1))
+                    .thenThrow(new IllegalArgumentException("Change cursor must not be negative, was: -1"));
+
+            mockMvc.perform(get("/payments/changes/stream").param("since", "-1").accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /payments/export")
+    class ExportPaymentsTests {
+
+        @Test
+        @DisplayName("Happy Path - Should stream NDJSON produced by the export service")
+        void exportPayments_shouldStreamNdjson() throws Exception {
+            when(paymentExportService.exportActivePayments(any(OutputStream.class))).thenAnswer(invocation -> {
+                OutputStream out = invocation.getArgument(0);
+                out.write("{\"id\":\"a\"}\n{\"id\":\"b\"}\n".getBytes(StandardCharsets.UTF_8));
+                return 2L;
+            });
+
+            MvcResult asyncResult = mockMvc.perform(get("/payments/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(asyncResult))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andExpect(content().string("{\"id\":\"a\"}\n{\"id\":\"b\"}\n"));
+
+            verify(paymentExportService).exportActivePayments(any(OutputStream.class));
+            verify(paymentService, never()).getActivePaymentsSnapshot();
         }
     }
 
@@ -214,6 +485,38 @@ class PaymentControllerTest {
 
             verify(paymentService, never()).getPaymentById(any());
         }
+
+        @Test
+        @DisplayName("Conditional GET - Should return an ETag derived from the payment version")
+        void getPaymentById_returnsVersionETag() throws Exception {
+            samplePayment.setVersion(3);
+            when(paymentService.getPaymentById(validUuid)).thenReturn(Optional.of(samplePayment));
+
+            mockMvc.perform(get("/payments/{id}", validUuid))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"" + validUuid + "-3\""));
+        }
+
+        @Test
+        @DisplayName("Conditional GET - Should return 304 without a body when the ETag matches")
+        void getPaymentById_whenETagMatches_returnsNotModified() throws Exception {
+            when(paymentService.getPaymentById(validUuid)).thenReturn(Optional.of(samplePayment));
+
+            mockMvc.perform(get("/payments/{id}", validUuid).header("If-None-Match", "\"" + validUuid + "-0\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("Conditional GET - Should return the new body once the payment changed")
+        void getPaymentById_whenVersionChanged_returnsBody() throws Exception {
+            samplePayment.setVersion(1);
+            when(paymentService.getPaymentById(validUuid)).thenReturn(Optional.of(samplePayment));
+
+            mockMvc.perform(get("/payments/{id}", validUuid).header("If-None-Match", "\"" + validUuid + "-0\""))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id", is(validUuid.toString())));
+        }
     }
 
     @Nested
@@ -226,8 +529,8 @@ class PaymentControllerTest {
             PaymentDTO inputDto = new PaymentDTO();
             inputDto.setAmount("250.75");
             inputDto.setCurrency(Payment.Currency.USD);
-            inputDto.setDebtorIban("US12345678901234567890");
-            inputDto.setCreditorIban("US98765432109876543210");
+            inputDto.setDebtorIban("GB82WEST12345698765432");
+            inputDto.setCreditorIban("CH9300762011623852957");
             inputDto.setType(2);
             inputDto.setDetails("Test Payment");
 
@@ -235,8 +538,8 @@ class PaymentControllerTest {
             savedPayment.setId(UUID.randomUUID());
             savedPayment.setAmount(new BigDecimal("250.75"));
             savedPayment.setCurrency(Payment.Currency.USD);
-            savedPayment.setDebtorIban("US12345678901234567890");
-            savedPayment.setCreditorIban("US98765432109876543210");
+            savedPayment.setDebtorIban("GB82WEST12345698765432");
+            savedPayment.setCreditorIban("CH9300762011623852957");
             savedPayment.setType(2);
             savedPayment.setDetails("Test Payment");
             savedPayment.setCreationDate(LocalDateTime.now());
@@ -268,8 +571,8 @@ class PaymentControllerTest {
             PaymentDTO inputDto = new PaymentDTO();
             inputDto.setAmount("100,50");
             inputDto.setCurrency(Payment.Currency.EUR);
-            inputDto.setDebtorIban("DE123");
-            inputDto.setCreditorIban("DE456");
+            inputDto.setDebtorIban("DE89370400440532013000");
+            inputDto.setCreditorIban("NL91ABNA0417164300");
             inputDto.setType(1);
 
             MockHttpServletRequestBuilder request = post("/payments")
@@ -288,8 +591,8 @@ class PaymentControllerTest {
             PaymentDTO inputDto = new PaymentDTO();
             inputDto.setAmount("100.123");
             inputDto.setCurrency(Payment.Currency.EUR);
-            inputDto.setDebtorIban("DE123");
-            inputDto.setCreditorIban("DE456");
+            inputDto.setDebtorIban("DE89370400440532013000");
+            inputDto.setCreditorIban("NL91ABNA0417164300");
             inputDto.setType(1);
 
             MockHttpServletRequestBuilder request = post("/payments")
@@ -301,13 +604,42 @@ class PaymentControllerTest {
             verify(paymentService, never()).savePayment(any());
         }
 
+        @Test
+        @DisplayName("Validation Error - Should return status 400 Bad Request for an IBAN with a wrong check digit or a malformed BIC")
+        void savePayment_whenInvalidIbanOrBic_shouldReturnBadRequest() throws Exception {
+            PaymentDTO badIban = new PaymentDTO();
+            badIban.setAmount("100.50");
+            badIban.setCurrency(Payment.Currency.EUR);
+            badIban.setDebtorIban("DE89370400440532013001");
+            badIban.setCreditorIban("NL91ABNA0417164300");
+            badIban.setType(1);
+            PaymentDTO badBic = new PaymentDTO();
+            badBic.setAmount("100.50");
+            badBic.setCurrency(Payment.Currency.EUR);
+            badBic.setDebtorIban("DE89370400440532013000");
+            badBic.setCreditorIban("NL91ABNA0417164300");
+            badBic.setBicCode("DEUTDE");
+            badBic.setType(3);
+
+            mockMvc.perform(post("/payments")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(badIban)))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(post("/payments")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(badBic)))
+                    .andExpect(status().isBadRequest());
+
+            verify(paymentService, never()).savePayment(any());
+        }
+
         @Test
         @DisplayName("Bad Request - Should return status 400 Bad Request for missing required fields (if any were added)")
         void savePayment_whenMissingRequiredFields_shouldReturnBadRequest() throws Exception {
             PaymentDTO inputDto = new PaymentDTO();
             inputDto.setAmount("50.00");
-            inputDto.setDebtorIban("DE123");
-            inputDto.setCreditorIban("DE456");
+            inputDto.setDebtorIban("DE89370400440532013000");
+            inputDto.setCreditorIban("NL91ABNA0417164300");
             inputDto.setType(1);
 
             MockHttpServletRequestBuilder request = post("/payments")
@@ -352,6 +684,234 @@ class PaymentControllerTest {
 
             verify(paymentService, never()).savePayment(any());
         }
+
+        @Test
+        @DisplayName("Idempotency - Should create through the idempotent path when a key is sent")
+        void savePayment_withIdempotencyKey_Created() throws Exception {
+            when(idempotentPaymentService.savePayment(eq("key-1"), any(PaymentDTO.class)))
+                    .thenReturn(new IdempotentPaymentService.Result(samplePaymentDTO, false));
+
+            mockMvc.perform(post("/payments")
+                            .header("Idempotency-Key", "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(samplePaymentDTO)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "false"))
+                    .andExpect(jsonPath("$.id", is(samplePaymentDTO.getId().toString())));
+
+            verify(paymentService, never()).savePayment(any());
+        }
+
+        @Test
+        @DisplayName("Idempotency - A replay should return the original payment and be marked as replayed")
+        void savePayment_withIdempotencyKey_Replayed() throws Exception {
+            when(idempotentPaymentService.savePayment(eq("key-1"), any(PaymentDTO.class)))
+                    .thenReturn(new IdempotentPaymentService.Result(samplePaymentDTO, true));
+
+            mockMvc.perform(post("/payments")
+                            .header("Idempotency-Key", "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(samplePaymentDTO)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "true"));
+        }
+
+        @Test
+        @DisplayName("Idempotency - A key reused for a different payment should return 422")
+        void savePayment_withReusedIdempotencyKey_ReturnsUnprocessableEntity() throws Exception {
+            when(idempotentPaymentService.savePayment(eq("key-1"), any(PaymentDTO.class)))
+                    .thenThrow(new IdempotencyKeyReusedException("Idempotency-Key key-1 was already used for a different payment."));
+
+            mockMvc.perform(post("/payments")
+                            .header("Idempotency-Key", "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(samplePaymentDTO)))
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(content().string(containsString("already used")));
+        }
+
+        @Test
+        @DisplayName("Idempotency - A blank or overlong key should return 400")
+        void savePayment_withInvalidIdempotencyKey_ReturnsBadRequest() throws Exception {
+            for (String key : List.of(" ", "k".repeat(256))) {
+                mockMvc.perform(post("/payments")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(samplePaymentDTO)))
+                        .andExpect(status().isBadRequest());
+            }
+
+            verifyNoInteractions(idempotentPaymentService);
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /payments/bulk")
+    class BulkCreateTests {
+
+        @Test
+        @DisplayName("Happy Path - Should stream the JSON array body to the service and return the report")
+        void bulkCreate_JsonArray_ReturnsReport() throws Exception {
+            BulkPaymentResultDTO report = new BulkPaymentResultDTO();
+            report.add(BulkPaymentItemResultDTO.created(0, validUuid));
+            report.add(BulkPaymentItemResultDTO.rejected(1, List.of("currency: must not be null")));
+            report.setReceived(2);
+            when(bulkPaymentService.createPayments(any())).thenReturn(report);
+
+            mockMvc.perform(post("/payments/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[{}, {}]"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.received", is(2)))
+                    .andExpect(jsonPath("$.created", is(1)))
+                    .andExpect(jsonPath("$.rejected", is(1)))
+                    .andExpect(jsonPath("$.items[0].status", is("CREATED")))
+                    .andExpect(jsonPath("$.items[0].id", is(validUuid.toString())))
+                    .andExpect(jsonPath("$.items[1].errors[0]", is("currency: must not be null")));
+
+            verify(bulkPaymentService).createPayments(any());
+        }
+
+        @Test
+        @DisplayName("Happy Path - Should accept NDJSON")
+        void bulkCreate_Ndjson_Accepted() throws Exception {
+            when(bulkPaymentService.createPayments(any())).thenReturn(new BulkPaymentResultDTO());
+
+            mockMvc.perform(post("/payments/bulk")
+                            .contentType("application/x-ndjson")
+                            .content("{}\n{}\n"))
+                    .andExpect(status().isOk());
+        }
+
+        @Test
+        @DisplayName("Bad Request - Should return 400 when the body is not JSON")
+        void bulkCreate_MalformedBody_ReturnsBadRequest() throws Exception {
+            when(bulkPaymentService.createPayments(any()))
+                    .thenThrow(new com.fasterxml.jackson.core.JsonParseException(null, "Unexpected close marker"));
+
+            mockMvc.perform(post("/payments/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("]"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("Unexpected close marker")));
+        }
+
+        @Test
+        @DisplayName("Unsupported Media Type - Should return 415 for other content types")
+        void bulkCreate_UnsupportedContentType() throws Exception {
+            mockMvc.perform(post("/payments/bulk")
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content("x"))
+                    .andExpect(status().isUnsupportedMediaType());
+
+            verify(bulkPaymentService, never()).createPayments(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /payments/bulk/cancel")
+    class BulkCancelTests {
+
+        @Test
+        @DisplayName("Happy Path - Should return per-id outcomes and a summary")
+        void bulkCancel_ReturnsOutcomes() throws Exception {
+            BulkCancellationResultDTO report = new BulkCancellationResultDTO();
+            report.add(BulkCancellationItemResultDTO.cancelled(validUuid, new BigDecimal("0.10")));
+            report.add(BulkCancellationItemResultDTO.failed(notFoundUuid, BulkCancellationItemResultDTO.Outcome.NOT_FOUND, "Payment not found."));
+            report.setRequested(2);
+            when(bulkPaymentService.cancelPayments(List.of(validUuid, notFoundUuid))).thenReturn(report);
+
+            mockMvc.perform(post("/payments/bulk/cancel")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(validUuid, notFoundUuid))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.requested", is(2)))
+                    .andExpect(jsonPath("$.summary.CANCELLED", is(1)))
+                    .andExpect(jsonPath("$.summary.NOT_FOUND", is(1)))
+                    .andExpect(jsonPath("$.items[0].outcome", is("CANCELLED")))
+                    .andExpect(jsonPath("$.items[0].fee", is(0.10)))
+                    .andExpect(jsonPath("$.items[1].outcome", is("NOT_FOUND")));
+        }
+
+        @Test
+        @DisplayName("Bad Request - Should return 400 when the body is not a list of ids")
+        void bulkCancel_InvalidBody_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(post("/payments/bulk/cancel")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[\"not-a-uuid\"]"))
+                    .andExpect(status().isBadRequest());
+
+            verify(bulkPaymentService, never()).cancelPayments(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET/POST /payments/cancellation-fees and GET /payments/{id}/cancellation-fee")
+    class CancellationFeeQuoteTests {
+
+        private FeeQuotesDTO quotes() {
+            LocalDateTime quotedAt = LocalDateTime.of(2025, 4, 2, 10, 30);
+            return new FeeQuotesDTO(quotedAt, List.of(
+                    FeeQuoteDTO.cancellable(samplePayment, new Money(Payment.Currency.EUR, 10), quotedAt.plusMinutes(30)),
+                    FeeQuoteDTO.rejected(notFoundUuid, FeeQuoteDTO.Status.NOT_FOUND, "Payment not found.")));
+        }
+
+        @Test
+        @DisplayName("Happy Path - Should quote ids given as a query parameter")
+        void quote_QueryParameter() throws Exception {
+            when(paymentService.quoteCancellationFees(List.of(validUuid, notFoundUuid))).thenReturn(quotes());
+
+            mockMvc.perform(get("/payments/cancellation-fees").param("ids", validUuid + "," + notFoundUuid))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.quotes[0].status", is("CANCELLABLE")))
+                    .andExpect(jsonPath("$.quotes[0].fee.amount", is(0.10)))
+                    .andExpect(jsonPath("$.quotes[0].fee.currency", is("EUR")))
+                    .andExpect(jsonPath("$.quotes[1].id", is(notFoundUuid.toString())))
+                    .andExpect(jsonPath("$.quotes[1].status", is("NOT_FOUND")));
+        }
+
+        @Test
+        @DisplayName("Happy Path - Should quote ids given in the body")
+        void quote_Body() throws Exception {
+            when(paymentService.quoteCancellationFees(List.of(validUuid, notFoundUuid))).thenReturn(quotes());
+
+            mockMvc.perform(post("/payments/cancellation-fees")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(validUuid, notFoundUuid))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.quotes", hasSize(2)));
+
+            verify(paymentService, never()).cancelPayment(any());
+        }
+
+        @Test
+        @DisplayName("Bad Request - Should return 400 when too many ids are given")
+        void quote_TooManyIds_ReturnsBadRequest() throws Exception {
+            when(paymentService.quoteCancellationFees(any())).thenThrow(new IllegalArgumentException("At most 1 payments can be quoted at once, got: 2"));
+
+            mockMvc.perform(get("/payments/cancellation-fees").param("ids", validUuid + "," + notFoundUuid))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("At most 1")));
+        }
+
+        @Test
+        @DisplayName("Happy Path - Should return the fees for the rest of the day, or 404 for an unknown payment")
+        void forecast() throws Exception {
+            LocalDateTime now = LocalDateTime.of(2025, 4, 2, 22, 30);
+            FeeForecastDTO forecast = new FeeForecastDTO(
+                    FeeQuoteDTO.cancellable(samplePayment, new Money(Payment.Currency.EUR, 5), now.plusMinutes(15)),
+                    List.of(new FeeForecastDTO.Step(now, new Money(Payment.Currency.EUR, 5)), new FeeForecastDTO.Step(now.plusMinutes(15), new Money(Payment.Currency.EUR, 10))));
+            when(paymentService.getCancellationFeeForecast(validUuid)).thenReturn(Optional.of(forecast));
+            when(paymentService.getCancellationFeeForecast(notFoundUuid)).thenReturn(Optional.empty());
+
+            mockMvc.perform(get("/payments/{id}/cancellation-fee", validUuid))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.quote.status", is("CANCELLABLE")))
+                    .andExpect(jsonPath("$.steps", hasSize(2)))
+                    .andExpect(jsonPath("$.steps[1].fee.amount", is(0.10)));
+            mockMvc.perform(get("/payments/{id}/cancellation-fee", notFoundUuid))
+                    .andExpect(status().isNotFound());
+        }
     }
 
     @Nested
@@ -361,12 +921,10 @@ class PaymentControllerTest {
         @Test
         @DisplayName("Happy Path - Should cancel payment and return status 200 OK")
         void cancelPayment_whenValidIdAndCancellable_shouldCancelAndReturnOk() throws Exception {
-            Payment paymentToCancel = samplePayment;
-            PaymentDTO cancelledDto = PaymentDTO.fromEntity(paymentToCancel);
+            PaymentDTO cancelledDto = PaymentDTO.fromEntity(samplePayment);
             cancelledDto.setCancelation(new BigDecimal("0.05"));
 
-            when(paymentService.getPaymentById(validUuid)).thenReturn(Optional.of(paymentToCancel));
-            when(paymentService.cancelPayment(paymentToCancel)).thenReturn(cancelledDto);
+            when(paymentService.cancelPayment(validUuid)).thenReturn(Optional.of(cancelledDto));
 
             ResultActions result = mockMvc.perform(put("/payments/{id}", validUuid));
 
@@ -375,21 +933,45 @@ class PaymentControllerTest {
                     .andExpect(jsonPath("$.id", is(validUuid.toString())))
                     .andExpect(jsonPath("$.cancelation", is(0.05)));
 
-            verify(paymentService).getPaymentById(validUuid);
-            verify(paymentService).cancelPayment(paymentToCancel);
+            verify(paymentService).cancelPayment(validUuid);
+            verify(paymentService, never()).getPaymentById(any());
         }
 
         @Test
         @DisplayName("Not Found - Should return status 404 Not Found when ID does not exist")
         void cancelPayment_whenIdNotFound_shouldReturnNotFound() throws Exception {
-            when(paymentService.getPaymentById(notFoundUuid)).thenReturn(Optional.empty());
+            when(paymentService.cancelPayment(notFoundUuid)).thenReturn(Optional.empty());
 
             ResultActions result = mockMvc.perform(put("/payments/{id}", notFoundUuid));
 
             result.andExpect(status().isNotFound());
 
-            verify(paymentService).getPaymentById(notFoundUuid);
-            verify(paymentService, never()).cancelPayment(any());
+            verify(paymentService).cancelPayment(notFoundUuid);
+        }
+
+        @Test
+        @DisplayName("Conflict - Should return status 409 when the payment is already cancelled or too old")
+        void cancelPayment_whenNotAllowed_shouldReturnConflict() throws Exception {
+            when(paymentService.cancelPayment(validUuid))
+                    .thenThrow(new CancellationNotAllowedException("Payment with ID " + validUuid + " has already been cancelled."));
+
+            ResultActions result = mockMvc.perform(put("/payments/{id}", validUuid));
+
+            result.andExpect(status().isConflict())
+                    .andExpect(content().string(containsString("has already been cancelled")));
+        }
+
+        @Test
+        @DisplayName("Retry - Should return status 503 with Retry-After when the payment kept changing")
+        void cancelPayment_whenRaced_shouldAskToRetry() throws Exception {
+            when(paymentService.cancelPayment(validUuid))
+                    .thenThrow(new CancellationRetryException("Payment with ID " + validUuid + " changed while it was being cancelled, please retry."));
+
+            ResultActions result = mockMvc.perform(put("/payments/{id}", validUuid));
+
+            result.andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(content().string(containsString("please retry")));
         }
 
         @Test
@@ -401,8 +983,7 @@ class PaymentControllerTest {
 
             result.andExpect(status().isBadRequest());
 
-            verify(paymentService, never()).getPaymentById(any());
             verify(paymentService, never()).cancelPayment(any());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Model.Payment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PaymentFieldTest {
+
+    @Test
+    @DisplayName("parse - Should accept names case-insensitively and return them in declaration order")
+    void parse_ValidNames() {
+        assertThat(PaymentField.parse(" Amount ,id,,CURRENCY"))
+                .containsExactly(PaymentField.ID, PaymentField.AMOUNT, PaymentField.CURRENCY);
+    }
+
+    @Test
+    @DisplayName("parse - Should reject unknown names and empty selections")
+    void parse_InvalidNames() {
+        assertThatThrownBy(() -> PaymentField.parse("id,iban"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("iban");
+        assertThatThrownBy(() -> PaymentField.parse(" , "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("valueOf - Should read the matching payment property")
+    void valueOf_ReadsProperty() {
+        Payment payment = new Payment();
+        payment.setAmount(new BigDecimal("12.34"));
+        payment.setType(2);
+
+        assertThat(PaymentField.AMOUNT.valueOf(payment)).isEqualTo(new BigDecimal("12.34"));
+        assertThat(PaymentField.TYPE.valueOf(payment)).isEqualTo(2);
+        assertThat(PaymentField.DETAILS.valueOf(payment)).isNull();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.Model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Nested
+    @DisplayName("Parsing")
+    class Parsing {
+
+        @ParameterizedTest(name = "\"{0}\" -> {1}")
+        @CsvSource({
+                "0,          0",
+                "7,          700",
+                "123.4,      12340",
+                "123.45,     12345",
+                "0.05,       5",
+                "'  55.66 ', 5566",
+                "92233720368547757.99, 9223372036854775799"
+        })
+        void parseMinorUnits_Valid(String amount, long expectedMinorUnits) {
+            assertThat(Money.parseMinorUnits(amount)).isEqualTo(expectedMinorUnits);
+            assertThat(Money.parseMinorUnits(amount)).isEqualTo(new BigDecimal(amount.trim()).movePointRight(2).longValueExact());
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"", " ", "abc", "-1.00", "+1", "1.", ".5", "1.234", "1,50", "1.5a", "1e2", "1 000", "92233720368547758"})
+        void parseMinorUnits_Invalid(String amount) {
+            assertThatThrownBy(() -> Money.parseMinorUnits(amount)).isInstanceOf(NumberFormatException.class);
+            assertThat(Money.isValidAmount(amount)).isFalse();
+        }
+
+        @Test
+        @DisplayName("isValidAmount - Should match the request format exactly, without surrounding whitespace")
+        void isValidAmount() {
+            assertThat(Money.isValidAmount("123.45")).isTrue();
+            assertThat(Money.isValidAmount("123")).isTrue();
+            assertThat(Money.isValidAmount(" 123.45")).isFalse();
+        }
+
+        @Test
+        @DisplayName("parseMinorUnits - Should reject null")
+        void parseMinorUnits_Null() {
+            assertThatThrownBy(() -> Money.parseMinorUnits(null)).isInstanceOf(NullPointerException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Conversion and arithmetic")
+    class Conversion {
+
+        @ParameterizedTest(name = "{0} -> {1}")
+        @CsvSource({
+                "0,      0.00",
+                "5,      0.05",
+                "1230,   12.30",
+                "12345,  123.45",
+                "-5,     -0.05",
+                "-12345, -123.45"
+        })
+        void toPlainString(long minorUnits, String expected) {
+            Money money = new Money(Payment.Currency.EUR, minorUnits);
+
+            assertThat(money.toPlainString()).isEqualTo(expected);
+            assertThat(money.toBigDecimal()).isEqualTo(new BigDecimal(expected));
+        }
+
+        @Test
+        @DisplayName("of - Should convert exactly and reject amounts that would need rounding")
+        void of_BigDecimal() {
+            assertThat(Money.of(Payment.Currency.USD, new BigDecimal("1.5"))).isEqualTo(new Money(Payment.Currency.USD, 150));
+            assertThat(Money.of(Payment.Currency.USD, new BigDecimal("1.500"))).isEqualTo(new Money(Payment.Currency.USD, 150));
+            assertThatThrownBy(() -> Money.of(Payment.Currency.USD, new BigDecimal("1.005"))).isInstanceOf(ArithmeticException.class);
+        }
+
+        @Test
+        @DisplayName("plus and compareTo - Should require the same currency")
+        void plus_SameCurrencyOnly() {
+            Money eur = new Money(Payment.Currency.EUR, 150);
+
+            assertThat(eur.plus(new Money(Payment.Currency.EUR, 5))).isEqualTo(new Money(Payment.Currency.EUR, 155));
+            assertThat(eur).isGreaterThan(new Money(Payment.Currency.EUR, 149));
+            assertThatThrownBy(() -> eur.plus(new Money(Payment.Currency.USD, 5))).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> eur.compareTo(new Money(Payment.Currency.USD, 5))).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("Constructor - Should require a currency")
+        void constructor_RequiresCurrency() {
+            assertThatThrownBy(() -> new Money(null, 1)).isInstanceOf(NullPointerException.class);
+        }
+    }
+}
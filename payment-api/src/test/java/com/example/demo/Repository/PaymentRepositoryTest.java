@@ -0,0 +1,273 @@
+package com.example.demo.Repository;
+
+import com.example.demo.Model.Payment;
+import com.example.demo.Service.CancellationFeeEngine;
+import com.example.demo.Service.ChangeFeedWatermark;
+import com.example.demo.Strategy.CancellationFeeSchedule;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the native queries against PostgreSQL, with the schema created by the Flyway migrations. The database is the
+ * one given by {@code -Dpayments.test.jdbcUrl} (with {@code payments.test.username} and
+ * {@code payments.test.password}), e.g. the docker-compose database, or otherwise a Testcontainers PostgreSQL.
+ * Without either the tests are reported as skipped.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PaymentRepositoryTest {
+
+    private static final String JDBC_URL = System.getProperty("payments.test.jdbcUrl");
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDateTime START_OF_DAY = LocalDateTime.of(2025, 5, 1, 0, 0);
+
+    @BeforeAll
+    static void requireDatabase() {
+        assumeTrue(JDBC_URL != null || DockerClientFactory.instance().isDockerAvailable(),
+                "PostgreSQL repository tests need Docker or -Dpayments.test.jdbcUrl");
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (JDBC_URL != null) {
+            registry.add("spring.datasource.url", () -> JDBC_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("payments.test.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("payments.test.password", ""));
+        } else {
+            // Started once for all tests of the class and removed by Testcontainers when the JVM exits.
+            POSTGRES.start();
+            registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+            registry.add("spring.datasource.username", POSTGRES::getUsername);
+            registry.add("spring.datasource.password", POSTGRES::getPassword);
+        }
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private CancellationFeeSchedule defaultSchedule;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        defaultSchedule = new CancellationFeeEngine(new ClassPathResource("fee-schedule.properties")).schedule();
+    }
+
+    private Payment persisted(Payment.Currency currency, int type, LocalDateTime creationDate, BigDecimal cancelation) {
+        Payment payment = new Payment();
+        payment.setAmount(new BigDecimal("100.00"));
+        payment.setCurrency(currency);
+        payment.setDebtorIban("NL91ABNA0417164300");
+        payment.setCreditorIban("DE89370400440532013000");
+        payment.setDetails("Repository test");
+        payment.setType(type);
+        payment.setCreationDate(creationDate);
+        payment.setCancelation(cancelation);
+        entityManager.persistAndFlush(payment);
+        entityManager.clear();
+        return payment;
+    }
+
+    private Optional<Payment> cancel(Payment payment, CancellationFeeSchedule schedule, LocalDateTime now) {
+        return paymentRepository.cancelIfAllowed(payment.getId(), schedule.sqlFees(), schedule.sqlCurrencies(), schedule.maxType(),
+                now, START_OF_DAY, START_OF_DAY.plusDays(1));
+    }
+
+    private static CancellationFeeSchedule schedule(String definition) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(definition));
+        return CancellationFeeSchedule.parse(properties);
+    }
+
+    @Nested
+    @DisplayName("cancelIfAllowed")
+    class CancelIfAllowed {
+
+        @ParameterizedTest(name = "{0} type {1} after {2} hours should cost {3}")
+        @CsvSource({
+                "EUR, 1, 5, 0.25",
+                "USD, 1, 5, 0.25",
+                "EUR, 2, 3, 0.30",
+                "USD, 2, 3, 0.30",
+                "EUR, 3, 7, 1.05",
+                "USD, 3, 7, 1.05"
+        })
+        void cancelIfAllowed_FeePerCurrencyAndType(Payment.Currency currency, int type, int hours, String expectedFee) {
+            Payment payment = persisted(currency, type, START_OF_DAY.plusMinutes(10), null);
+
+            Optional<Payment> cancelled = cancel(payment, defaultSchedule, payment.getCreationDate().plusHours(hours).plusMinutes(30));
+
+            assertThat(cancelled).isPresent();
+            assertThat(cancelled.get().getCancelation()).isEqualByComparingTo(expectedFee);
+            assertThat(cancelled.get().getVersion()).isEqualTo(payment.getVersion() + 1);
+            assertThat(entityManager.find(Payment.class, payment.getId()).getCancelation()).isEqualByComparingTo(expectedFee);
+        }
+
+        @Test
+        @DisplayName("Hours past the end of the table should be charged as hour 23")
+        void cancelIfAllowed_ClampsTo23Hours() {
+            Payment payment = persisted(Payment.Currency.EUR, 3, START_OF_DAY, null);
+
+            Optional<Payment> cancelled = cancel(payment, defaultSchedule, START_OF_DAY.plusHours(30));
+
+            assertThat(cancelled).map(Payment::getCancelation).hasValueSatisfying(fee -> assertThat(fee).isEqualByComparingTo("3.45"));
+        }
+
+        @Test
+        @DisplayName("Currencies and types without a rule should not be cancelled")
+        void cancelIfAllowed_NoRule() throws IOException {
+            CancellationFeeSchedule schedule = schedule("type.1.perHour=0.05\ncurrency.USD.type.2.perHour=1.00\n");
+            Payment eurType2 = persisted(Payment.Currency.EUR, 2, START_OF_DAY.plusHours(1), null);
+            Payment usdType2 = persisted(Payment.Currency.USD, 2, START_OF_DAY.plusHours(1), null);
+            Payment type3 = persisted(Payment.Currency.EUR, 3, START_OF_DAY.plusHours(1), null);
+
+            LocalDateTime now = START_OF_DAY.plusHours(3);
+
+            assertThat(cancel(eurType2, schedule, now)).isEmpty();
+            assertThat(cancel(type3, schedule, now)).isEmpty();
+            assertThat(cancel(usdType2, schedule, now)).map(Payment::getCancelation)
+                    .hasValueSatisfying(fee -> assertThat(fee).isEqualByComparingTo("2.00"));
+            entityManager.clear();
+            assertThat(entityManager.find(Payment.class, eurType2.getId()).getCancelation()).isNull();
+        }
+
+        @Test
+        @DisplayName("An already cancelled payment should keep its fee")
+        void cancelIfAllowed_AlreadyCancelled() {
+            Payment payment = persisted(Payment.Currency.EUR, 1, START_OF_DAY.plusHours(1), new BigDecimal("0.10"));
+
+            assertThat(cancel(payment, defaultSchedule, START_OF_DAY.plusHours(5))).isEmpty();
+
+            Payment reread = entityManager.find(Payment.class, payment.getId());
+            assertThat(reread.getCancelation()).isEqualByComparingTo("0.10");
+            assertThat(reread.getVersion()).isEqualTo(payment.getVersion());
+        }
+
+        @Test
+        @DisplayName("A payment created on another day should not be cancelled")
+        void cancelIfAllowed_OtherDay() {
+            Payment payment = persisted(Payment.Currency.EUR, 1, START_OF_DAY.minusHours(1), null);
+
+            assertThat(cancel(payment, defaultSchedule, START_OF_DAY.plusHours(1))).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("findCurrentById")
+    class FindCurrentById {
+
+        @Test
+        @DisplayName("Should return the row as it is now, not the instance the persistence context already holds")
+        void findCurrentById_BypassesManagedInstance() {
+            Payment payment = persisted(Payment.Currency.EUR, 1, START_OF_DAY.plusHours(1), null);
+            Payment managed = entityManager.find(Payment.class, payment.getId());
+            cancel(payment, defaultSchedule, START_OF_DAY.plusHours(2));
+            assertThat(paymentRepository.findById(payment.getId())).containsSame(managed);
+            assertThat(managed.getCancelation()).isNull();
+
+            Optional<Payment> current = paymentRepository.findCurrentById(payment.getId());
+
+            assertThat(current).map(Payment::getCancelation).hasValueSatisfying(fee -> assertThat(fee).isEqualByComparingTo("0.05"));
+            assertThat(entityManager.getEntityManager().contains(current.get())).isFalse();
+            assertThat(paymentRepository.findCurrentById(UUID.randomUUID())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("A cancellation after the re-read should return the updated row")
+        void cancelIfAllowed_AfterReRead_ReturnsUpdatedRow() {
+            Payment payment = persisted(Payment.Currency.EUR, 1, START_OF_DAY.plusHours(1), null);
+            entityManager.find(Payment.class, payment.getId());
+            paymentRepository.findCurrentById(payment.getId());
+
+            Optional<Payment> cancelled = cancel(payment, defaultSchedule, START_OF_DAY.plusHours(2));
+
+            assertThat(cancelled).map(Payment::getCancelation).hasValueSatisfying(fee -> assertThat(fee).isEqualByComparingTo("0.05"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Change feed")
+    class ChangeFeed {
+
+        private UUID insert(Connection connection) throws SQLException {
+            UUID id = UUID.randomUUID();
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO payment (id, amount, currency, debtor_iban, creditor_iban, type, creation_date, version)
+                    VALUES (?, 10.00, 'EUR', 'NL91ABNA0417164300', 'DE89370400440532013000', 1, now(), 0)
+                    """)) {
+                statement.setObject(1, id);
+                statement.executeUpdate();
+            }
+            return id;
+        }
+
+        @Test
+        @Transactional(propagation = Propagation.NOT_SUPPORTED)
+        @DisplayName("A change committing after a newer one should be served before it, not skipped")
+        void olderPositionCommittedLate() throws SQLException {
+            ChangeFeedWatermark watermark = new ChangeFeedWatermark(paymentRepository);
+            long start = watermark.current();
+            List<UUID> ids = new ArrayList<>();
+            try (Connection slow = dataSource.getConnection(); Connection fast = dataSource.getConnection()) {
+                slow.setAutoCommit(false);
+                UUID older = insert(slow);
+                ids.add(older);
+                UUID newer = insert(fast);
+                ids.add(newer);
+
+                long held = watermark.current();
+                assertThat(paymentRepository.findChangedBetween(start, held, Limit.unlimited()))
+                        .extracting(Payment::getId).doesNotContain(older, newer);
+
+                slow.commit();
+
+                long released = watermark.current();
+                assertThat(paymentRepository.findChangedBetween(start, released, Limit.unlimited()))
+                        .extracting(Payment::getId).containsExactly(older, newer);
+            } finally {
+                paymentRepository.deleteAllById(ids);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.PaymentField;
+import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivePaymentSnapshotTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ActivePaymentSnapshot activePaymentSnapshot;
+
+    private final LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        activePaymentSnapshot = new ActivePaymentSnapshot(paymentRepository, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Payment payment(int minute) {
+        Payment payment = new Payment();
+        payment.setId(UUID.randomUUID());
+        payment.setAmount(new BigDecimal("10.00"));
+        payment.setCurrency(Payment.Currency.EUR);
+        payment.setCreationDate(base.plusMinutes(minute));
+        return payment;
+    }
+
+    private static List<UUID> ids(ActivePaymentSnapshot.Snapshot snapshot) {
+        return snapshot.payments().stream().map(Payment::getId).toList();
+    }
+
+    @Test
+    @DisplayName("current - Should load once from the database, ordered by creation date")
+    void current_LoadsOnceInCreationOrder() {
+        Payment first = payment(1);
+        Payment second = payment(2);
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(second, first));
+
+        ActivePaymentSnapshot.Snapshot snapshot = activePaymentSnapshot.current();
+
+        assertThat(ids(snapshot)).containsExactly(first.getId(), second.getId());
+        assertThat(activePaymentSnapshot.current()).isSameAs(snapshot);
+        verify(paymentRepository, times(1)).findByCancelationIsNull();
+    }
+
+    @Test
+    @DisplayName("paymentsSaved - Should publish a new version with the payment appended")
+    void paymentsSaved_PublishesNewVersion() {
+        Payment existing = payment(1);
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(existing));
+        ActivePaymentSnapshot.Snapshot before = activePaymentSnapshot.current();
+        Payment created = payment(2);
+
+        activePaymentSnapshot.paymentsSaved(List.of(created));
+
+        ActivePaymentSnapshot.Snapshot after = activePaymentSnapshot.current();
+        assertThat(after.version()).isGreaterThan(before.version());
+        assertThat(ids(after)).containsExactly(existing.getId(), created.getId());
+        assertThat(ids(before)).containsExactly(existing.getId());
+    }
+
+    @Test
+    @DisplayName("paymentsCancelled - Should drop cancelled payments from the next version")
+    void paymentsCancelled_RemovesPayments() {
+        Payment kept = payment(1);
+        Payment cancelled = payment(2);
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(kept, cancelled));
+        activePaymentSnapshot.current();
+
+        activePaymentSnapshot.paymentsCancelled(List.of(cancelled.getId()));
+
+        assertThat(ids(activePaymentSnapshot.current())).containsExactly(kept.getId());
+    }
+
+    @Test
+    @DisplayName("paymentsSaved - A saved payment that is already cancelled should be removed")
+    void paymentsSaved_CancelledPaymentIsRemoved() {
+        Payment payment = payment(1);
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(payment));
+        activePaymentSnapshot.current();
+        Payment cancelledCopy = payment.copy();
+        cancelledCopy.setCancelation(new BigDecimal("0.05"));
+
+        activePaymentSnapshot.paymentsSaved(List.of(cancelledCopy));
+
+        assertThat(activePaymentSnapshot.current().payments()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Transactions - Writes should only be published after commit")
+    void paymentsSaved_DeferredUntilCommit() {
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of());
+        activePaymentSnapshot.current();
+        TransactionSynchronizationManager.initSynchronization();
+
+        activePaymentSnapshot.paymentsSaved(List.of(payment(1)));
+        assertThat(activePaymentSnapshot.current().payments()).isEmpty();
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(activePaymentSnapshot.current().payments()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Writes before the first load should be left to the load")
+    void paymentsSaved_BeforeLoad_Ignored() {
+        Payment payment = payment(1);
+        activePaymentSnapshot.paymentsSaved(List.of(payment));
+        verifyNoInteractions(paymentRepository);
+
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(payment));
+        assertThat(ids(activePaymentSnapshot.current())).containsExactly(payment.getId());
+    }
+
+    @Test
+    @DisplayName("json - Should serialize once per version")
+    void json_MemoizedPerVersion() throws Exception {
+        Payment payment = payment(1);
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(payment));
+        ActivePaymentSnapshot.Snapshot snapshot = activePaymentSnapshot.current();
+
+        byte[] json = snapshot.json();
+
+        assertThat(snapshot.json()).isSameAs(json);
+        assertThat(objectMapper.readTree(json).get(0).get("id").asText()).isEqualTo(payment.getId().toString());
+    }
+
+    @Test
+    @DisplayName("json(fields) - Should serialize only the selected fields, in declaration order")
+    void json_Projection() throws Exception {
+        Payment payment = payment(1);
+        payment.setDetails("rent");
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(payment));
+        ActivePaymentSnapshot.Snapshot snapshot = activePaymentSnapshot.current();
+
+        JsonNode row = objectMapper.readTree(snapshot.json(EnumSet.of(PaymentField.CREATION_DATE, PaymentField.ID))).get(0);
+
+        assertThat(row.fieldNames()).toIterable().containsExactly("id", "creationDate");
+        assertThat(row.get("id").asText()).isEqualTo(payment.getId().toString());
+        assertThat(snapshot.json(EnumSet.allOf(PaymentField.class))).isSameAs(snapshot.json());
+        assertThat(snapshot.etag(EnumSet.of(PaymentField.ID))).isNotEqualTo(snapshot.etag(EnumSet.of(PaymentField.AMOUNT)));
+    }
+
+    @Test
+    @DisplayName("refresh - Should reload from the database only once the snapshot is in use")
+    void refresh_ReloadsLoadedSnapshot() {
+        activePaymentSnapshot.refresh();
+        verifyNoInteractions(paymentRepository);
+
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of()).thenReturn(List.of(payment(1)));
+        ActivePaymentSnapshot.Snapshot loaded = activePaymentSnapshot.current();
+        activePaymentSnapshot.refresh();
+
+        assertThat(activePaymentSnapshot.current().version()).isGreaterThan(loaded.version());
+        assertThat(activePaymentSnapshot.current().payments()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("refresh - An unchanged list should keep its version and ETag")
+    void refresh_UnchangedKeepsVersion() {
+        Payment payment = payment(1);
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(payment));
+        ActivePaymentSnapshot.Snapshot loaded = activePaymentSnapshot.current();
+
+        activePaymentSnapshot.refresh();
+
+        assertThat(activePaymentSnapshot.current()).isSameAs(loaded);
+    }
+
+    @Test
+    @DisplayName("refresh - A changed row version should publish a new ETag")
+    void refresh_ChangedRowVersion() {
+        Payment payment = payment(1);
+        Payment updated = payment.copy();
+        updated.setVersion(1);
+        when(paymentRepository.findByCancelationIsNull()).thenReturn(List.of(payment)).thenReturn(List.of(updated));
+        ActivePaymentSnapshot.Snapshot loaded = activePaymentSnapshot.current();
+
+        activePaymentSnapshot.refresh();
+
+        assertThat(activePaymentSnapshot.current().etag()).isNotEqualTo(loaded.etag());
+    }
+}
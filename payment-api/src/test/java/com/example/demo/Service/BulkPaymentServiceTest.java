@@ -0,0 +1,260 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.BulkCancellationItemResultDTO;
+import com.example.demo.DTO.BulkCancellationResultDTO;
+import com.example.demo.DTO.BulkPaymentItemResultDTO;
+import com.example.demo.DTO.BulkPaymentResultDTO;
+import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkPaymentServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ActivePaymentSnapshot activePaymentSnapshot;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final PaymentCache paymentCache = new PaymentCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    private BulkPaymentService bulkPaymentService;
+
+    private final List<Integer> savedBatchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CancellationService cancellationService = new CancellationService(new CancellationFeeEngine(new ClassPathResource("fee-schedule.properties")));
+        bulkPaymentService = new BulkPaymentService(paymentRepository, cancellationService, paymentCache, activePaymentSnapshot, entityManager, transactionManager, VALIDATOR, objectMapper);
+        ReflectionTestUtils.setField(bulkPaymentService, "batchSize", 2);
+    }
+
+    private void assignIdsOnSave() {
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            savedBatchSizes.add(payments.size());
+            payments.forEach(payment -> payment.setId(UUID.randomUUID()));
+            return payments;
+        });
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String payment(String amount) {
+        return "{\"amount\":\"" + amount + "\",\"currency\":\"EUR\",\"debtorIban\":\"DE89370400440532013000\","
+                + "\"creditorIban\":\"NL91ABNA0417164300\",\"type\":1}";
+    }
+
+    @Test
+    @DisplayName("Happy Path - JSON array should be inserted in chunks of the batch size")
+    void createPayments_JsonArray() throws Exception {
+        assignIdsOnSave();
+        String array = "[" + payment("1.00") + "," + payment("2.00") + "," + payment("3.00") + "]";
+
+        BulkPaymentResultDTO result = bulkPaymentService.createPayments(body(array));
+
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(result.getRejected()).isZero();
+        assertThat(result.getItems()).extracting(BulkPaymentItemResultDTO::getIndex).containsExactly(0, 1, 2);
+        assertThat(result.getItems()).allSatisfy(item -> assertThat(item.getId()).isNotNull());
+        assertThat(savedBatchSizes).containsExactly(2, 1);
+        verify(activePaymentSnapshot, times(2)).paymentsSaved(anyList());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Happy Path - NDJSON stream should be accepted and client ids ignored")
+    void createPayments_Ndjson() throws Exception {
+        assignIdsOnSave();
+        UUID clientId = UUID.randomUUID();
+        String ndjson = payment("1.00").replace("{", "{\"id\":\"" + clientId + "\",") + "\n" + payment("2.50") + "\n";
+
+        BulkPaymentResultDTO result = bulkPaymentService.createPayments(body(ndjson));
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getItems()).extracting(BulkPaymentItemResultDTO::getId).doesNotContain(clientId);
+    }
+
+    @Test
+    @DisplayName("Validation - Invalid items should be rejected individually without reaching the database")
+    void createPayments_InvalidItems() throws Exception {
+        assignIdsOnSave();
+        String badIban = payment("2.00").replace("DE89370400440532013000", "DE89370400440532013001");
+        String array = "[" + payment("1.00") + "," + payment("12.345") + ",{\"amount\":\"5\",\"type\":2}," + badIban + "]";
+
+        BulkPaymentResultDTO result = bulkPaymentService.createPayments(body(array));
+
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getItems().get(1).getStatus()).isEqualTo(BulkPaymentItemResultDTO.Status.REJECTED);
+        assertThat(result.getItems().get(1).getErrors()).anyMatch(error -> error.startsWith("amount"));
+        assertThat(result.getItems().get(2).getErrors())
+                .contains("currency: must not be null", "debtorIban: must not be blank", "creditorIban: must not be blank");
+        assertThat(result.getItems().get(3).getErrors()).singleElement().asString().startsWith("debtorIban: Invalid IBAN");
+        assertThat(savedBatchSizes).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("Database Error - A failed chunk should be retried row by row to isolate the bad payment")
+    void createPayments_ChunkFailureIsolatesRow() throws Exception {
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            savedBatchSizes.add(payments.size());
+            if (payments.stream().anyMatch(payment -> payment.getAmount().signum() == 0)) {
+                throw new DataIntegrityViolationException("check constraint violated");
+            }
+            payments.forEach(payment -> payment.setId(UUID.randomUUID()));
+            return payments;
+        });
+        String array = "[" + payment("1.00") + "," + payment("0") + "]";
+
+        BulkPaymentResultDTO result = bulkPaymentService.createPayments(body(array));
+
+        assertThat(savedBatchSizes).containsExactly(2, 1, 1);
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getItems().get(0).getStatus()).isEqualTo(BulkPaymentItemResultDTO.Status.CREATED);
+        assertThat(result.getItems().get(1).getStatus()).isEqualTo(BulkPaymentItemResultDTO.Status.REJECTED);
+        assertThat(result.getItems().get(1).getErrors().get(0)).contains("check constraint violated");
+    }
+
+    @Test
+    @DisplayName("Malformed - A syntax error should stop the import and report the failing item")
+    void createPayments_MalformedItem() throws Exception {
+        assignIdsOnSave();
+        String ndjson = payment("1.00") + "\n{\"amount\": }\n" + payment("2.00");
+
+        BulkPaymentResultDTO result = bulkPaymentService.createPayments(body(ndjson));
+
+        assertThat(result.getReceived()).isEqualTo(2);
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getItems().get(1).getErrors().get(0)).startsWith("Malformed payment");
+    }
+
+    @Test
+    @DisplayName("Malformed - A body that is not JSON should be rejected")
+    void createPayments_NotJson() {
+        assertThatThrownBy(() -> bulkPaymentService.createPayments(body("]")))
+                .isInstanceOf(JsonProcessingException.class);
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    @DisplayName("Edge Case - An empty array should produce an empty report")
+    void createPayments_Empty() throws Exception {
+        BulkPaymentResultDTO result = bulkPaymentService.createPayments(body("[]"));
+
+        assertThat(result.getReceived()).isZero();
+        assertThat(result.getItems()).isEmpty();
+        verifyNoInteractions(paymentRepository);
+    }
+
+    private static Payment storedPayment(int type, LocalDateTime creationDate, BigDecimal cancelation) {
+        Payment payment = new Payment();
+        payment.setId(UUID.randomUUID());
+        payment.setAmount(new BigDecimal("100.00"));
+        payment.setCurrency(Payment.Currency.EUR);
+        payment.setType(type);
+        payment.setCreationDate(creationDate);
+        payment.setCancelation(cancelation);
+        return payment;
+    }
+
+    @Test
+    @DisplayName("Cancel - Should report one outcome per id without aborting on failures")
+    void cancelPayments_MixedOutcomes() {
+        LocalDateTime justNow = LocalDateTime.now().minusSeconds(1);
+        Payment cancellable = storedPayment(1, justNow, null);
+        Payment alreadyCancelled = storedPayment(1, justNow, new BigDecimal("0.05"));
+        Payment yesterday = storedPayment(2, justNow.minusDays(1), null);
+        Payment invalidType = storedPayment(7, justNow, null);
+        UUID missing = UUID.randomUUID();
+        paymentCache.put(cancellable);
+        when(paymentRepository.lockAllById(anyCollection()))
+                .thenReturn(List.of(cancellable, alreadyCancelled))
+                .thenReturn(List.of(yesterday, invalidType))
+                .thenReturn(List.of());
+
+        BulkCancellationResultDTO result = bulkPaymentService.cancelPayments(Arrays.asList(
+                cancellable.getId(), alreadyCancelled.getId(), yesterday.getId(), invalidType.getId(), missing,
+                cancellable.getId(), null));
+
+        assertThat(result.getRequested()).isEqualTo(5);
+        assertThat(result.getItems()).extracting(BulkCancellationItemResultDTO::getOutcome).containsExactly(
+                BulkCancellationItemResultDTO.Outcome.CANCELLED,
+                BulkCancellationItemResultDTO.Outcome.ALREADY_CANCELLED,
+                BulkCancellationItemResultDTO.Outcome.NOT_SAME_DAY,
+                BulkCancellationItemResultDTO.Outcome.INVALID_TYPE,
+                BulkCancellationItemResultDTO.Outcome.NOT_FOUND);
+        assertThat(result.getItems().get(0).getFee()).isEqualByComparingTo("0.00");
+        assertThat(result.getSummary()).containsEntry(BulkCancellationItemResultDTO.Outcome.CANCELLED, 1);
+        assertThat(alreadyCancelled.getCancelation()).isEqualByComparingTo("0.05");
+        assertThat(yesterday.getCancelation()).isNull();
+        verify(paymentRepository).saveAll(List.of(cancellable));
+        verify(paymentRepository, times(2)).saveAll(List.of());
+        verify(activePaymentSnapshot).paymentsCancelled(List.of(cancellable.getId()));
+        // The stale cached copy was invalidated, so the next read loads the cancelled payment.
+        assertThat(paymentCache.get(cancellable.getId(), id -> Optional.of(cancellable))).get()
+                .usingRecursiveComparison().isEqualTo(cancellable);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Cancel - An empty request should not touch the database")
+    void cancelPayments_Empty() {
+        BulkCancellationResultDTO result = bulkPaymentService.cancelPayments(List.of());
+
+        assertThat(result.getRequested()).isZero();
+        assertThat(result.getItems()).isEmpty();
+        verifyNoInteractions(paymentRepository);
+    }
+}
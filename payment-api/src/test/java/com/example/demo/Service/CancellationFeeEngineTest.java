@@ -0,0 +1,80 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Money;
+import com.example.demo.Model.Payment;
+import com.example.demo.Strategy.CancellationFeeSchedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CancellationFeeEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path scheduleFile;
+    private CancellationFeeEngine feeEngine;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        scheduleFile = tempDir.resolve("fees.properties");
+        write("type.1.perHour=0.05\n", 1);
+        feeEngine = new CancellationFeeEngine(new FileSystemResource(scheduleFile));
+
+        payment = new Payment();
+        payment.setCurrency(Payment.Currency.EUR);
+        payment.setType(1);
+        payment.setCreationDate(LocalDateTime.of(2025, 3, 1, 9, 0));
+    }
+
+    private void write(String schedule, long modifiedSecond) throws IOException {
+        Files.writeString(scheduleFile, schedule);
+        Files.setLastModifiedTime(scheduleFile, FileTime.from(Instant.ofEpochSecond(1_700_000_000L + modifiedSecond)));
+    }
+
+    @Test
+    @DisplayName("fee - Should use full hours elapsed since creation")
+    void fee_FullHours() {
+        Money fee = feeEngine.fee(payment, payment.getCreationDate().plusHours(2).plusMinutes(59));
+
+        assertThat(fee).isEqualTo(new Money(Payment.Currency.EUR, 10));
+    }
+
+    @Test
+    @DisplayName("reloadIfChanged - Should swap in a changed schedule and skip an unchanged one")
+    void reloadIfChanged_SwapsSchedule() throws IOException {
+        CancellationFeeSchedule initial = feeEngine.schedule();
+        assertThat(feeEngine.reloadIfChanged()).isFalse();
+
+        write("type.1.perHour=0.50\n", 2);
+
+        assertThat(feeEngine.reloadIfChanged()).isTrue();
+        assertThat(feeEngine.schedule()).isNotSameAs(initial);
+        assertThat(feeEngine.fee(payment, payment.getCreationDate().plusHours(2))).isEqualTo(new Money(Payment.Currency.EUR, 100));
+    }
+
+    @Test
+    @DisplayName("reloadQuietly - An invalid schedule should be rejected and the previous one kept")
+    void reloadQuietly_InvalidKeepsPrevious() throws IOException {
+        CancellationFeeSchedule initial = feeEngine.schedule();
+        write("type.1.perHour=lots\n", 2);
+
+        assertThatThrownBy(() -> feeEngine.reloadIfChanged()).isInstanceOf(IllegalArgumentException.class);
+        feeEngine.reloadQuietly();
+
+        assertThat(feeEngine.schedule()).isSameAs(initial);
+    }
+}
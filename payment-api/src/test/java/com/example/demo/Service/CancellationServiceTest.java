@@ -1,11 +1,12 @@
 package com.example.demo.Service;
 
+import com.example.demo.DTO.FeeForecastDTO;
+import com.example.demo.DTO.FeeQuoteDTO;
 import com.example.demo.Exception.CancellationNotAllowedException;
+import com.example.demo.Exception.PaymentAlreadyCancelledException;
 import com.example.demo.Exception.PaymentTypeIndeterminateException;
+import com.example.demo.Model.Money;
 import com.example.demo.Model.Payment;
-import com.example.demo.Strategy.CancellationFeeStrategyType1;
-import com.example.demo.Strategy.CancellationFeeStrategyType2;
-import com.example.demo.Strategy.CancellationFeeStrategyType3;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +15,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.springframework.core.io.ClassPathResource;
 
 
 import java.math.BigDecimal;
@@ -28,12 +30,14 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 class CancellationServiceTest {
 
+    private CancellationFeeEngine feeEngine;
     private CancellationService cancellationService;
     private Payment payment;
 
     @BeforeEach
-    void setUp() {
-        cancellationService = new CancellationService();
+    void setUp() throws Exception {
+        feeEngine = new CancellationFeeEngine(new ClassPathResource("fee-schedule.properties"));
+        cancellationService = new CancellationService(feeEngine);
         payment = new Payment();
         payment.setId(UUID.randomUUID());
         payment.setAmount(new BigDecimal("1000.00"));
@@ -53,8 +57,7 @@ class CancellationServiceTest {
             LocalDateTime creationTime = LocalDateTime.now().minusHours(3).minusMinutes(30);
             payment.setCreationDate(creationTime);
             BigDecimal expectedFee = new BigDecimal("0.15");
-            CancellationFeeStrategyType1 strategy = new CancellationFeeStrategyType1();
-            BigDecimal calculatedFee = strategy.calculateFee(payment, LocalDateTime.now());
+            BigDecimal calculatedFee = feeEngine.fee(payment, LocalDateTime.now()).toBigDecimal();
             Payment cancelledPayment = cancellationService.cancelPayment(payment);
 
             assertThat(calculatedFee).isEqualByComparingTo(expectedFee);
@@ -70,7 +73,7 @@ class CancellationServiceTest {
             BigDecimal expectedFee = BigDecimal.valueOf(5).multiply(new BigDecimal("0.10"));
 
             Payment cancelledPayment = cancellationService.cancelPayment(payment);
-            BigDecimal fee = new CancellationFeeStrategyType2().calculateFee(payment, cancellationTime);
+            BigDecimal fee = feeEngine.fee(payment, cancellationTime).toBigDecimal();
             cancelledPayment.setCancelation(fee);
 
 
@@ -86,7 +89,7 @@ class CancellationServiceTest {
             BigDecimal expectedFee = BigDecimal.valueOf(1).multiply(new BigDecimal("0.15"));
 
             Payment cancelledPayment = cancellationService.cancelPayment(payment);
-            BigDecimal fee = new CancellationFeeStrategyType3().calculateFee(payment, cancellationTime);
+            BigDecimal fee = feeEngine.fee(payment, cancellationTime).toBigDecimal();
             cancelledPayment.setCancelation(fee);
 
             assertThat(cancelledPayment.getCancelation()).isNotNull();
@@ -101,7 +104,7 @@ class CancellationServiceTest {
             BigDecimal expectedFee = BigDecimal.ZERO;
 
             Payment cancelledPayment = cancellationService.cancelPayment(payment);
-            BigDecimal fee = new CancellationFeeStrategyType1().calculateFee(payment, cancellationTime);
+            BigDecimal fee = feeEngine.fee(payment, cancellationTime).toBigDecimal();
             cancelledPayment.setCancelation(fee);
 
             assertThat(cancelledPayment.getCancelation()).isNotNull();
@@ -131,7 +134,7 @@ class CancellationServiceTest {
             BigDecimal expectedFee = BigDecimal.ZERO;
 
             Payment cancelledPayment = cancellationService.cancelPayment(payment);
-            BigDecimal fee = new CancellationFeeStrategyType1().calculateFee(payment, cancellationTime);
+            BigDecimal fee = feeEngine.fee(payment, cancellationTime).toBigDecimal();
             cancelledPayment.setCancelation(fee);
 
             assertThat(cancelledPayment.getCancelation()).isNotNull();
@@ -146,7 +149,7 @@ class CancellationServiceTest {
             BigDecimal expectedFee = BigDecimal.valueOf(1).multiply(new BigDecimal("0.05"));
 
             Payment cancelledPayment = cancellationService.cancelPayment(payment);
-            BigDecimal fee = new CancellationFeeStrategyType1().calculateFee(payment, cancellationTime);
+            BigDecimal fee = feeEngine.fee(payment, cancellationTime).toBigDecimal();
             cancelledPayment.setCancelation(fee);
 
             assertThat(cancelledPayment.getCancelation()).isNotNull();
@@ -170,13 +173,13 @@ class CancellationServiceTest {
         }
 
         @Test
-        @DisplayName("Error - Should throw CancellationNotAllowedException if payment already cancelled")
+        @DisplayName("Error - Should throw PaymentAlreadyCancelledException if payment already cancelled")
         void cancelPayment_AlreadyCancelled_ThrowsException() {
             payment.setType(1);
             payment.setCancelation(new BigDecimal("0.10"));
 
             assertThatThrownBy(() -> cancellationService.cancelPayment(payment))
-                    .isInstanceOf(CancellationNotAllowedException.class)
+                    .isInstanceOf(PaymentAlreadyCancelledException.class)
                     .hasMessageContaining("has already been cancelled");
         }
 
@@ -223,4 +226,115 @@ class CancellationServiceTest {
             });
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Same-day Fee Table Tests")
+    class SameDayFeeTable {
+
+        @Test
+        @DisplayName("Table should hold 24 hourly fees per currency and type from the schedule")
+        void getFeeSchedule_SqlTable() {
+            long[] fees = cancellationService.getFeeSchedule().sqlFees();
+
+            assertThat(fees).hasSize(2 * 3 * 24);
+            assertThat(fees[0]).isZero();
+            assertThat(fees[3]).isEqualTo(15);
+            assertThat(fees[24 + 5]).isEqualTo(50);
+            assertThat(fees[48 + 23]).isEqualTo(345);
+            assertThat(cancellationService.getFeeSchedule().sqlCurrencies()).containsExactly("EUR", "USD");
+        }
+
+        @Test
+        @DisplayName("verifyCancellable should apply the same rules as cancelPayment without setting a fee")
+        void verifyCancellable_AppliesRules() {
+            payment.setType(2);
+            assertDoesNotThrow(() -> cancellationService.verifyCancellable(payment, payment.getCreationDate().plusHours(1)));
+            assertThat(payment.getCancelation()).isNull();
+
+            assertThatThrownBy(() -> cancellationService.verifyCancellable(payment, payment.getCreationDate().plusDays(1)))
+                    .isInstanceOf(CancellationNotAllowedException.class);
+
+            payment.setType(7);
+            assertThatThrownBy(() -> cancellationService.verifyCancellable(payment, payment.getCreationDate()))
+                    .isInstanceOf(PaymentTypeIndeterminateException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Fee Quote Tests")
+    class FeeQuotes {
+
+        @Test
+        @DisplayName("quote - Should return the cancellation fee without cancelling the payment")
+        void quote_Cancellable() {
+            payment.setType(2);
+            LocalDateTime quoteTime = payment.getCreationDate().plusHours(3).plusMinutes(10);
+
+            FeeQuoteDTO quote = cancellationService.quote(payment, quoteTime, cancellationService.getFeeSchedule());
+
+            assertThat(quote.getStatus()).isEqualTo(FeeQuoteDTO.Status.CANCELLABLE);
+            assertThat(quote.getFee()).isEqualTo(new Money(Payment.Currency.EUR, 30));
+            assertThat(quote.getFee()).isEqualTo(feeEngine.fee(payment, quoteTime));
+            assertThat(quote.getValidUntil()).isEqualTo(payment.getCreationDate().plusHours(4));
+            assertThat(payment.getCancelation()).isNull();
+        }
+
+        @Test
+        @DisplayName("quote - A fee quoted in the last hour of the day should only be valid until midnight")
+        void quote_ValidUntilEndOfDay() {
+            payment.setType(1);
+            payment.setCreationDate(LocalDateTime.of(LocalDate.now(), LocalTime.of(22, 30)));
+
+            FeeQuoteDTO quote = cancellationService.quote(payment, payment.getCreationDate().plusHours(1), cancellationService.getFeeSchedule());
+
+            assertThat(quote.getValidUntil()).isEqualTo(LocalDate.now().plusDays(1).atStartOfDay());
+        }
+
+        @Test
+        @DisplayName("quote - Should report why a payment cannot be cancelled instead of throwing")
+        void quote_Rejected() {
+            payment.setType(1);
+            FeeQuoteDTO notSameDay = cancellationService.quote(payment, payment.getCreationDate().plusDays(1), cancellationService.getFeeSchedule());
+            payment.setType(9);
+            FeeQuoteDTO invalidType = cancellationService.quote(payment, payment.getCreationDate(), cancellationService.getFeeSchedule());
+            payment.setType(1);
+            payment.setCancelation(new BigDecimal("0.05"));
+            FeeQuoteDTO alreadyCancelled = cancellationService.quote(payment, payment.getCreationDate(), cancellationService.getFeeSchedule());
+
+            assertThat(notSameDay.getStatus()).isEqualTo(FeeQuoteDTO.Status.NOT_SAME_DAY);
+            assertThat(invalidType.getStatus()).isEqualTo(FeeQuoteDTO.Status.INVALID_TYPE);
+            assertThat(alreadyCancelled.getStatus()).isEqualTo(FeeQuoteDTO.Status.ALREADY_CANCELLED);
+            assertThat(alreadyCancelled.getMessage()).contains(payment.getId().toString());
+            assertThat(alreadyCancelled.getFee()).isNull();
+        }
+
+        @Test
+        @DisplayName("forecast - Should list the fee of every remaining hour of the day")
+        void forecast_RestOfDay() {
+            payment.setType(3);
+            payment.setCreationDate(LocalDateTime.of(LocalDate.now(), LocalTime.of(20, 15)));
+            LocalDateTime quoteTime = payment.getCreationDate().plusMinutes(30);
+
+            FeeForecastDTO forecast = cancellationService.forecast(payment, quoteTime, cancellationService.getFeeSchedule());
+
+            assertThat(forecast.getQuote().getFee().isZero()).isTrue();
+            assertThat(forecast.getSteps()).extracting(FeeForecastDTO.Step::getFrom).containsExactly(
+                    quoteTime,
+                    payment.getCreationDate().plusHours(1),
+                    payment.getCreationDate().plusHours(2),
+                    payment.getCreationDate().plusHours(3));
+            assertThat(forecast.getSteps()).extracting(step -> step.getFee().minorUnits()).containsExactly(0L, 15L, 30L, 45L);
+        }
+
+        @Test
+        @DisplayName("forecast - Should have no steps when the payment cannot be cancelled")
+        void forecast_NotCancellable() {
+            payment.setType(1);
+
+            FeeForecastDTO forecast = cancellationService.forecast(payment, payment.getCreationDate().plusDays(1), cancellationService.getFeeSchedule());
+
+            assertThat(forecast.getQuote().getStatus()).isEqualTo(FeeQuoteDTO.Status.NOT_SAME_DAY);
+            assertThat(forecast.getSteps()).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.Service;
+
+import com.example.demo.Repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedWatermarkTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private ChangeFeedWatermark changeFeedWatermark;
+
+    @BeforeEach
+    void setUp() {
+        changeFeedWatermark = new ChangeFeedWatermark(paymentRepository);
+    }
+
+    private long currentWith(long lastSeq, long xmin, long xmax) {
+        when(paymentRepository.findLastChangeSeq()).thenReturn(lastSeq);
+        when(paymentRepository.findSnapshotBounds()).thenReturn(new PaymentRepository.SnapshotBounds() {
+            @Override
+            public long getXmin() {
+                return xmin;
+            }
+
+            @Override
+            public long getXmax() {
+                return xmax;
+            }
+        });
+        return changeFeedWatermark.current();
+    }
+
+    @Test
+    @DisplayName("current - Without running transactions the watermark should be the last position drawn")
+    void current_NoRunningTransactions() {
+        assertThat(currentWith(5, 100, 100)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("current - An older position committing late should hold back the newer ones until it commits")
+    void current_OlderPositionCommitsLate() {
+        // Transaction 95 drew position 6 and is still open; 7 was drawn and committed by a later transaction.
+        assertThat(currentWith(7, 95, 100)).isZero();
+        assertThat(currentWith(9, 95, 103)).isZero();
+
+        // Transaction 95 ends; everything drawn before the first snapshot is final, 8 and 9 are still held back.
+        assertThat(currentWith(9, 101, 103)).isEqualTo(7);
+        assertThat(currentWith(9, 103, 103)).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("current - The watermark should never move backwards")
+    void current_Monotonic() {
+        assertThat(currentWith(9, 100, 100)).isEqualTo(9);
+
+        assertThat(currentWith(9, 100, 101)).isEqualTo(9);
+        assertThat(currentWith(4, 101, 101)).isEqualTo(9);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.Service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoIpCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private SimpleMeterRegistry meterRegistry;
+    private GeoIpCache geoIpCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        geoIpCache = new GeoIpCache(2, Duration.ofMinutes(10), Duration.ofSeconds(30), meterRegistry, ticker);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    @DisplayName("Resolved countries should live for the positive TTL")
+    void positiveEntries_UsePositiveTtl() {
+        geoIpCache.put("8.8.8.8", Optional.of("US"));
+
+        advance(Duration.ofMinutes(9));
+        assertThat(geoIpCache.getIfPresent("8.8.8.8")).contains("US");
+
+        advance(Duration.ofMinutes(2));
+        assertThat(geoIpCache.getIfPresent("8.8.8.8")).isNull();
+    }
+
+    @Test
+    @DisplayName("Failed lookups should expire after the shorter negative TTL")
+    void negativeEntries_UseNegativeTtl() {
+        geoIpCache.put("1.2.3.4", Optional.empty());
+
+        assertThat(geoIpCache.getIfPresent("1.2.3.4")).isEmpty();
+
+        advance(Duration.ofSeconds(31));
+        assertThat(geoIpCache.getIfPresent("1.2.3.4")).isNull();
+    }
+
+    @Test
+    @DisplayName("Cache should stay within its size bound")
+    void size_IsBounded() {
+        for (int i = 0; i < 50; i++) {
+            geoIpCache.put("10.0.0." + i, Optional.of("DE"));
+        }
+
+        assertThat(geoIpCache.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Hits and misses should be exported as metrics")
+    void stats_AreExported() {
+        geoIpCache.put("8.8.4.4", Optional.of("US"));
+        geoIpCache.getIfPresent("8.8.4.4");
+        geoIpCache.getIfPresent("9.9.9.9");
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "geoip").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "geoip").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+}
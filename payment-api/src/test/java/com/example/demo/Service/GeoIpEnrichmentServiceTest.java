@@ -0,0 +1,117 @@
+package com.example.demo.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeoIpEnrichmentServiceTest {
+
+    @Mock
+    private GeoIpService geoIpService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GeoIpEnrichmentService enrichmentService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        enrichmentService = new GeoIpEnrichmentService(geoIpService, meterRegistry, 1, 1, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        enrichmentService.shutdown();
+    }
+
+    private double tasks(String outcome) {
+        return meterRegistry.get("geoip.enrichment.tasks").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Happy Path - Should resolve the country on a worker thread")
+    void logPaymentListAccess_resolvesAsynchronously() {
+        when(geoIpService.getCountryFromIp("8.8.8.8")).thenReturn(Optional.of("US"));
+
+        boolean accepted = enrichmentService.logPaymentListAccess("8.8.8.8");
+
+        assertThat(accepted).isTrue();
+        verify(geoIpService, timeout(1000)).getCountryFromIp("8.8.8.8");
+        assertThat(tasks("submitted")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Virtual Threads - Should run lookups on virtual worker threads when enabled")
+    void logPaymentListAccess_virtualWorkers() throws InterruptedException {
+        enrichmentService.shutdown();
+        enrichmentService = new GeoIpEnrichmentService(geoIpService, meterRegistry, 1, 1, true);
+        CountDownLatch done = new CountDownLatch(1);
+        boolean[] virtual = new boolean[1];
+        when(geoIpService.getCountryFromIp("8.8.8.8")).thenAnswer(invocation -> {
+            virtual[0] = Thread.currentThread().isVirtual();
+            done.countDown();
+            return Optional.of("US");
+        });
+
+        enrichmentService.logPaymentListAccess("8.8.8.8");
+
+        assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(virtual[0]).isTrue();
+    }
+
+    @Test
+    @DisplayName("Overflow - Should drop lookups instead of blocking when the queue is full")
+    void logPaymentListAccess_dropsOnOverflow() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(geoIpService.getCountryFromIp(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of("US");
+        });
+
+        assertThat(enrichmentService.logPaymentListAccess("1.1.1.1")).isTrue();
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(enrichmentService.logPaymentListAccess("2.2.2.2")).isTrue();
+        assertThat(enrichmentService.logPaymentListAccess("3.3.3.3")).isFalse();
+
+        assertThat(tasks("dropped")).isEqualTo(1);
+        assertThat(meterRegistry.get("geoip.enrichment.queue.size").gauge().value()).isEqualTo(1);
+        release.countDown();
+        verify(geoIpService, timeout(1000)).getCountryFromIp("2.2.2.2");
+        verify(geoIpService, never()).getCountryFromIp("3.3.3.3");
+    }
+
+    @Test
+    @DisplayName("Error Case - Lookup failures should be counted, not propagated")
+    void logPaymentListAccess_countsFailures() {
+        when(geoIpService.getCountryFromIp("4.4.4.4")).thenThrow(new RuntimeException("boom"));
+
+        assertThat(enrichmentService.logPaymentListAccess("4.4.4.4")).isTrue();
+
+        verify(geoIpService, timeout(1000)).getCountryFromIp("4.4.4.4");
+        await(() -> tasks("failed") == 1);
+        assertThat(tasks("completed")).isZero();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
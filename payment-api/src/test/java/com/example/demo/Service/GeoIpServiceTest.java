@@ -1,9 +1,15 @@
 package com.example.demo.Service;
 
+import com.example.demo.Configuration.GeoIpResilienceConfig;
 import com.example.demo.Util.IpAddressUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -13,9 +19,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -27,6 +35,10 @@ class GeoIpServiceTest {
 
     private static MockWebServer mockWebServer;
     private GeoIpService geoIpService;
+    private GeoIpCache geoIpCache;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
     private WebClient.Builder webClientBuilder;
 
     @Mock
@@ -50,7 +62,11 @@ class GeoIpServiceTest {
         String baseUrl = String.format("http://localhost:%s", mockWebServer.getPort());
         webClientBuilder = WebClient.builder().baseUrl(baseUrl);
 
-        geoIpService = new GeoIpService(webClientBuilder, ipAddressUtil);
+        meterRegistry = new SimpleMeterRegistry();
+        geoIpCache = new GeoIpCache(100, Duration.ofHours(1), Duration.ofMinutes(1), meterRegistry);
+        circuitBreaker = CircuitBreaker.ofDefaults("geoip");
+        bulkhead = Bulkhead.of("geoip", BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+        geoIpService = new GeoIpService(webClientBuilder, ipAddressUtil, geoIpCache, Optional.empty(), circuitBreaker, bulkhead, meterRegistry);
 
         ReflectionTestUtils.setField(geoIpService, "apiUrlTemplate", baseUrl + "/geoip/{ip}");
         ReflectionTestUtils.setField(geoIpService, "apiTimeoutSeconds", 2L);
@@ -154,6 +170,135 @@ class GeoIpServiceTest {
         assertThat(mockWebServer.takeRequest().getPath()).isEqualTo("/geoip/5.5.5.5");
     }
 
+    @Test
+    @DisplayName("Cache - Repeated lookups for the same IP should hit the API once")
+    void getCountryFromIp_RepeatedLookupServedFromCache() throws JsonProcessingException, InterruptedException {
+        String ip = "9.9.9.9";
+        when(ipAddressUtil.isLocalhost(ip)).thenReturn(false);
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(objectMapper.writeValueAsString(objectMapper.createObjectNode().put("country", "CH")))
+                .addHeader("Content-Type", "application/json"));
+        int countBefore = mockWebServer.getRequestCount();
+
+        Optional<String> first = geoIpService.getCountryFromIp(ip);
+        Optional<String> second = geoIpService.getCountryFromIp(ip);
+
+        assertThat(first).contains("CH");
+        assertThat(second).contains("CH");
+        assertThat(mockWebServer.getRequestCount() - countBefore).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Cache - Failed lookups should be negatively cached")
+    void getCountryFromIp_FailureNegativelyCached() {
+        String ip = "6.6.6.6";
+        when(ipAddressUtil.isLocalhost(ip)).thenReturn(false);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        int countBefore = mockWebServer.getRequestCount();
+
+        assertThat(geoIpService.getCountryFromIp(ip)).isNotPresent();
+        assertThat(geoIpService.getCountryFromIp(ip)).isNotPresent();
+
+        assertThat(mockWebServer.getRequestCount() - countBefore).isEqualTo(1);
+        assertThat(geoIpCache.getIfPresent(ip)).isNotNull().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Single-flight - Concurrent lookups of the same IP should share one outbound request")
+    void lookupCountry_ConcurrentLookupsCoalesced() throws JsonProcessingException {
+        String ip = "7.7.7.7";
+        when(ipAddressUtil.isLocalhost(ip)).thenReturn(false);
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(objectMapper.writeValueAsString(objectMapper.createObjectNode().put("country", "FR")))
+                .addHeader("Content-Type", "application/json")
+                .setBodyDelay(200, TimeUnit.MILLISECONDS));
+        int countBefore = mockWebServer.getRequestCount();
+
+        Mono<Optional<String>> first = geoIpService.lookupCountry(ip);
+        Mono<Optional<String>> second = geoIpService.lookupCountry(ip);
+        Mono<Optional<String>> third = geoIpService.lookupCountry(ip);
+        var results = Mono.zip(first, second, third).block(Duration.ofSeconds(2));
+
+        assertThat(results).isNotNull();
+        assertThat(results.getT1()).contains("FR");
+        assertThat(results.getT2()).contains("FR");
+        assertThat(results.getT3()).contains("FR");
+        assertThat(mockWebServer.getRequestCount() - countBefore).isEqualTo(1);
+        assertThat(meterRegistry.get("geoip.lookups").tag("source", "remote").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("geoip.lookups").tag("source", "coalesced").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Circuit Breaker - Open circuit should return 'Unknown' without calling the API or caching")
+    void getCountryFromIp_CircuitOpen() {
+        String ip = "10.20.30.40";
+        when(ipAddressUtil.isLocalhost(ip)).thenReturn(false);
+        circuitBreaker.transitionToOpenState();
+        int countBefore = mockWebServer.getRequestCount();
+
+        Optional<String> country = geoIpService.getCountryFromIp(ip);
+
+        assertThat(country).contains("Unknown");
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(countBefore);
+        assertThat(geoIpCache.getIfPresent(ip)).isNull();
+        assertThat(meterRegistry.get("geoip.lookups").tag("source", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Circuit Breaker - 5xx responses should count as failures, 4xx responses should not")
+    void getCountryFromIp_CircuitRecordsOnlyServerErrors() {
+        when(ipAddressUtil.isLocalhost(anyString())).thenReturn(false);
+        CircuitBreaker recordingBreaker = CircuitBreaker.of("geoip", CircuitBreakerConfig.custom()
+                .recordException(GeoIpResilienceConfig::isDependencyFailure)
+                .build());
+        GeoIpService service = new GeoIpService(webClientBuilder, ipAddressUtil, geoIpCache, Optional.empty(), recordingBreaker, bulkhead, meterRegistry);
+        ReflectionTestUtils.setField(service, "apiUrlTemplate", ReflectionTestUtils.getField(geoIpService, "apiUrlTemplate"));
+        ReflectionTestUtils.setField(service, "apiTimeoutSeconds", 2L);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+
+        service.getCountryFromIp("11.11.11.11");
+        service.getCountryFromIp("12.12.12.12");
+
+        assertThat(recordingBreaker.getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(1);
+        assertThat(recordingBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Bulkhead - Saturated bulkhead should return 'Unknown' without calling the API")
+    void getCountryFromIp_BulkheadFull() {
+        String ip = "13.13.13.13";
+        when(ipAddressUtil.isLocalhost(ip)).thenReturn(false);
+        assertThat(bulkhead.tryAcquirePermission()).isTrue();
+        int countBefore = mockWebServer.getRequestCount();
+        try {
+            Optional<String> country = geoIpService.getCountryFromIp(ip);
+
+            assertThat(country).contains("Unknown");
+            assertThat(mockWebServer.getRequestCount()).isEqualTo(countBefore);
+            assertThat(geoIpCache.getIfPresent(ip)).isNull();
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    @Test
+    @DisplayName("Offline Mode - Should resolve from the local database without calling the API")
+    void getCountryFromIp_OfflineMode() {
+        OfflineGeoIpDatabase offlineDatabase = mock(OfflineGeoIpDatabase.class);
+        when(offlineDatabase.lookupCountryCode("81.2.69.142")).thenReturn("GB");
+        when(offlineDatabase.lookupCountryCode("203.0.113.9")).thenReturn(null);
+        when(ipAddressUtil.isLocalhost(anyString())).thenReturn(false);
+        GeoIpService offlineService = new GeoIpService(webClientBuilder, ipAddressUtil, geoIpCache, Optional.of(offlineDatabase), circuitBreaker, bulkhead, meterRegistry);
+        int countBefore = mockWebServer.getRequestCount();
+
+        assertThat(offlineService.getCountryFromIp("81.2.69.142")).contains("GB");
+        assertThat(offlineService.getCountryFromIp("203.0.113.9")).isNotPresent();
+
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(countBefore);
+        assertThat(geoIpCache.getIfPresent("81.2.69.142")).isNull();
+    }
+
     @Test
     @DisplayName("Edge Case - Localhost IP should not call API and return 'Localhost'")
     void getCountryFromIp_Localhost() throws InterruptedException {
@@ -0,0 +1,276 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.PaymentDTO;
+import com.example.demo.Exception.IdempotencyKeyReusedException;
+import com.example.demo.Exception.IdempotentRequestInProgressException;
+import com.example.demo.Model.IdempotencyRecord;
+import com.example.demo.Model.Payment;
+import com.example.demo.Repository.IdempotencyRecordRepository;
+import com.example.demo.Repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotentPaymentServiceTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private IdempotentPaymentService idempotentPaymentService;
+
+    private PaymentDTO request;
+    private PaymentDTO saved;
+    private TransactionStatus transactionStatus;
+
+    @BeforeEach
+    void setUp() {
+        idempotentPaymentService = new IdempotentPaymentService(paymentService, paymentRepository, idempotencyRecordRepository,
+                transactionManager, meterRegistry, Duration.ofHours(24), 1000, Duration.ofMillis(500));
+
+        request = new PaymentDTO();
+        request.setAmount("100.50");
+        request.setCurrency(Payment.Currency.EUR);
+        request.setDebtorIban("DE89370400440532013000");
+        request.setCreditorIban("NL91ABNA0417164300");
+        request.setType(1);
+
+        saved = new PaymentDTO();
+        saved.setId(UUID.randomUUID());
+        saved.setAmount("100.50");
+
+        transactionStatus = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(paymentService.savePayment(any(PaymentDTO.class))).thenReturn(saved);
+        when(idempotencyRecordRepository.insertIfAbsent(anyString(), anyString(), any(), any())).thenReturn(1);
+    }
+
+    private double outcomes(String outcome) {
+        return meterRegistry.counter("payments.idempotency", "outcome", outcome).count();
+    }
+
+    private Payment storedPayment(UUID id) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setAmount(new BigDecimal("100.50"));
+        payment.setCurrency(Payment.Currency.EUR);
+        payment.setCreationDate(LocalDateTime.now());
+        return payment;
+    }
+
+    private IdempotencyRecord record(String key, PaymentDTO body, UUID paymentId) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setRequestHash(IdempotentPaymentService.requestHash(body));
+        record.setPaymentId(paymentId);
+        record.setCreatedAt(LocalDateTime.now());
+        return record;
+    }
+
+    @Nested
+    @DisplayName("savePayment")
+    class SavePayment {
+
+        @Test
+        @DisplayName("First request - Should create the payment and record the key in the same transaction")
+        void savePayment_FirstRequest_Creates() {
+            IdempotentPaymentService.Result result = idempotentPaymentService.savePayment("key-1", request);
+
+            assertThat(result.replayed()).isFalse();
+            assertThat(result.payment()).isSameAs(saved);
+            ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+            verify(idempotencyRecordRepository).insertIfAbsent(eq("key-1"), hash.capture(), eq(saved.getId()), any());
+            assertThat(hash.getValue()).hasSize(64);
+            verify(transactionManager).commit(any());
+            assertThat(outcomes("created")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Retry - Should be answered from memory without touching the database")
+        void savePayment_Retry_ReplaysFromMemory() {
+            idempotentPaymentService.savePayment("key-1", request);
+            clearInvocations(paymentService, idempotencyRecordRepository, paymentRepository);
+
+            IdempotentPaymentService.Result result = idempotentPaymentService.savePayment("key-1", request);
+
+            assertThat(result.replayed()).isTrue();
+            assertThat(result.payment()).isSameAs(saved);
+            verifyNoInteractions(paymentService, idempotencyRecordRepository, paymentRepository);
+            assertThat(outcomes("replayed")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Reuse - The same key with a different body should be rejected")
+        void savePayment_DifferentBody_Rejected() {
+            idempotentPaymentService.savePayment("key-1", request);
+            PaymentDTO other = new PaymentDTO();
+            other.setAmount("999.00");
+
+            assertThatThrownBy(() -> idempotentPaymentService.savePayment("key-1", other))
+                    .isInstanceOf(IdempotencyKeyReusedException.class);
+            assertThat(idempotentPaymentService.savePayment("key-1", request).replayed()).isTrue();
+            verify(paymentService, times(1)).savePayment(any());
+        }
+
+        @Test
+        @DisplayName("Restart - A key only known to the database should replay the stored payment")
+        void savePayment_RecordedInDatabase_Replays() {
+            UUID paymentId = UUID.randomUUID();
+            when(idempotencyRecordRepository.findById("key-1")).thenReturn(Optional.of(record("key-1", request, paymentId)));
+            when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(storedPayment(paymentId)));
+
+            IdempotentPaymentService.Result result = idempotentPaymentService.savePayment("key-1", request);
+
+            assertThat(result.replayed()).isTrue();
+            assertThat(result.payment().getId()).isEqualTo(paymentId);
+            verify(paymentService, never()).savePayment(any());
+        }
+
+        @Test
+        @DisplayName("Race - Losing the key to another instance should roll back and replay the winner")
+        void savePayment_LostRace_RollsBackAndReplays() {
+            UUID winnerId = UUID.randomUUID();
+            when(idempotencyRecordRepository.insertIfAbsent(anyString(), anyString(), any(), any())).thenReturn(0);
+            when(idempotencyRecordRepository.findById("key-1"))
+                    .thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(record("key-1", request, winnerId)));
+            when(paymentRepository.findById(winnerId)).thenReturn(Optional.of(storedPayment(winnerId)));
+
+            IdempotentPaymentService.Result result = idempotentPaymentService.savePayment("key-1", request);
+
+            assertThat(result.replayed()).isTrue();
+            assertThat(result.payment().getId()).isEqualTo(winnerId);
+            assertThat(transactionStatus.isRollbackOnly()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Concurrency - A duplicate arriving mid-flight should wait for and share the first result")
+        void savePayment_ConcurrentDuplicate_JoinsInFlight() throws Exception {
+            CountDownLatch inside = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(paymentService.savePayment(any(PaymentDTO.class))).thenAnswer(invocation -> {
+                inside.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return saved;
+            });
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Future<IdempotentPaymentService.Result> first = executor.submit(() -> idempotentPaymentService.savePayment("key-1", request));
+                assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+                Future<IdempotentPaymentService.Result> duplicate = executor.submit(() -> idempotentPaymentService.savePayment("key-1", request));
+                release.countDown();
+
+                assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+                assertThat(duplicate.get(5, TimeUnit.SECONDS).replayed()).isTrue();
+                assertThat(duplicate.get().payment()).isSameAs(saved);
+            } finally {
+                executor.shutdownNow();
+            }
+            verify(paymentService, times(1)).savePayment(any());
+        }
+
+        @Test
+        @DisplayName("Concurrency - A duplicate should give up after the wait timeout")
+        void savePayment_InFlightTooLong_Throws() throws Exception {
+            CountDownLatch inside = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(paymentService.savePayment(any(PaymentDTO.class))).thenAnswer(invocation -> {
+                inside.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return saved;
+            });
+            CompletableFuture<IdempotentPaymentService.Result> first =
+                    CompletableFuture.supplyAsync(() -> idempotentPaymentService.savePayment("key-1", request));
+            try {
+                assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+
+                assertThatThrownBy(() -> idempotentPaymentService.savePayment("key-1", request))
+                        .isInstanceOf(IdempotentRequestInProgressException.class);
+            } finally {
+                release.countDown();
+            }
+            assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Failure - A failed request should release the key so a retry can succeed")
+        void savePayment_Failure_ReleasesKey() {
+            when(paymentService.savePayment(any(PaymentDTO.class)))
+                    .thenThrow(new IllegalStateException("database down"))
+                    .thenReturn(saved);
+
+            assertThatThrownBy(() -> idempotentPaymentService.savePayment("key-1", request))
+                    .isInstanceOf(IllegalStateException.class);
+            IdempotentPaymentService.Result retry = idempotentPaymentService.savePayment("key-1", request);
+
+            assertThat(retry.replayed()).isFalse();
+            assertThat(retry.payment()).isSameAs(saved);
+        }
+    }
+
+    @Test
+    @DisplayName("requestHash - Should ignore server-assigned fields")
+    void requestHash_IgnoresServerFields() {
+        PaymentDTO withServerFields = PaymentDTO.fromEntity(storedPayment(UUID.randomUUID()));
+        withServerFields.setAmount(request.getAmount());
+        withServerFields.setCurrency(request.getCurrency());
+        withServerFields.setDebtorIban(request.getDebtorIban());
+        withServerFields.setCreditorIban(request.getCreditorIban());
+        withServerFields.setType(request.getType());
+
+        assertThat(IdempotentPaymentService.requestHash(withServerFields)).isEqualTo(IdempotentPaymentService.requestHash(request));
+    }
+
+    @Test
+    @DisplayName("purgeExpiredRecords - Should delete records older than the TTL")
+    void purgeExpiredRecords_DeletesOlderThanTtl() {
+        idempotentPaymentService.purgeExpiredRecords();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(idempotencyRecordRepository).deleteCreatedBefore(cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(LocalDateTime.now().minusHours(24).minusMinutes(1), LocalDateTime.now().minusHours(23));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OfflineGeoIpDatabaseTest {
+
+    @TempDir
+    Path tempDir;
+
+    private OfflineGeoIpDatabase database;
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.shutdown();
+        }
+    }
+
+    private OfflineGeoIpDatabase open(String csv) throws IOException {
+        Path csvPath = tempDir.resolve("ranges.csv");
+        Files.writeString(csvPath, csv);
+        database = new OfflineGeoIpDatabase(tempDir.resolve("ranges.bin").toString(), csvPath.toString(), 0);
+        return database;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "1.0.0.0, AU",
+            "1.0.0.255, AU",
+            "8.8.8.8, US",
+            "200.1.2.3, BR",
+            "255.255.255.255, ZZ"
+    })
+    @DisplayName("lookupCountryCode - Should resolve addresses inside ranges, including unsigned high addresses")
+    void lookupCountryCode_InsideRange(String ip, String expected) throws IOException {
+        open("""
+                start,end,country
+                # comment
+                1.0.0.0,1.0.0.255,au
+                8.8.8.0,8.8.8.255,US
+                200.0.0.0,200.255.255.255,BR
+                4294967040,4294967295,ZZ
+                """);
+
+        assertThat(database.size()).isEqualTo(4);
+        assertThat(database.lookupCountryCode(ip)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.255.255.255", "1.0.1.0", "9.9.9.9", "2001:db8::1", "not-an-ip", "1.2.3", "256.1.1.1"})
+    @DisplayName("lookupCountryCode - Should return null for gaps, IPv6 and invalid input")
+    void lookupCountryCode_Miss(String ip) throws IOException {
+        open("1.0.0.0,1.0.0.255,AU\n8.8.8.0,8.8.8.255,US\n");
+
+        assertThat(database.lookupCountryCode(ip)).isNull();
+    }
+
+    @Test
+    @DisplayName("reloadIfChanged - Should swap in a recompiled dataset without restart")
+    void reloadIfChanged_SwapsDataset() throws IOException {
+        open("8.8.8.0,8.8.8.255,US\n");
+        assertThat(database.reloadIfChanged()).isFalse();
+
+        Path csvPath = tempDir.resolve("ranges.csv");
+        Files.writeString(csvPath, "8.8.8.0,8.8.8.255,DE\n9.9.9.0,9.9.9.255,CH\n");
+        Files.setLastModifiedTime(csvPath, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertThat(database.reloadIfChanged()).isTrue();
+        assertThat(database.lookupCountryCode("8.8.8.8")).isEqualTo("DE");
+        assertThat(database.lookupCountryCode("9.9.9.9")).isEqualTo("CH");
+    }
+
+    @Test
+    @DisplayName("compile - Should reject overlapping ranges")
+    void compile_OverlappingRanges_Throws() throws IOException {
+        Path csvPath = tempDir.resolve("bad.csv");
+        Files.writeString(csvPath, "1.0.0.0,1.0.0.255,AU\n1.0.0.128,1.0.1.0,CN\n");
+
+        assertThatThrownBy(() -> GeoIpDatabaseCompiler.compile(csvPath, tempDir.resolve("bad.bin")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Overlapping");
+    }
+
+    @Test
+    @DisplayName("open - Should reject files that are not compiled databases")
+    void open_CorruptFile_Throws() throws IOException {
+        Path binPath = tempDir.resolve("corrupt.bin");
+        Files.writeString(binPath, "definitely not a database");
+
+        assertThatThrownBy(() -> new OfflineGeoIpDatabase(binPath.toString(), "", 0))
+                .isInstanceOf(IOException.class);
+    }
+
+    /** Replaces the file, like the compiler does, with a database of the compiler's layout but arbitrary contents. */
+    private static void writeDatabase(Path path, int start, int end, String country) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(GeoIpDatabaseCompiler.HEADER_BYTES + GeoIpDatabaseCompiler.RECORD_BYTES);
+        buffer.putInt(GeoIpDatabaseCompiler.MAGIC).putInt(1)
+                .putInt(start).putInt(end)
+                .put(country.getBytes(StandardCharsets.US_ASCII));
+        Path temp = Files.write(path.resolveSibling(path.getFileName() + ".tmp"), buffer.array());
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a1", "[]", "\u0000\u0000"})
+    @DisplayName("open - Should reject a well-sized file with a country code outside A-Z")
+    void open_InvalidCountryCode_Throws(String country) throws IOException {
+        Path binPath = tempDir.resolve("country.bin");
+        writeDatabase(binPath, 0x08080800, 0x080808FF, country);
+
+        assertThatThrownBy(() -> new OfflineGeoIpDatabase(binPath.toString(), "", 0))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("country code");
+    }
+
+    @Test
+    @DisplayName("open - Should reject a record whose end is before its start")
+    void open_InvertedRange_Throws() throws IOException {
+        Path binPath = tempDir.resolve("inverted.bin");
+        writeDatabase(binPath, 0x080808FF, 0x08080800, "US");
+
+        assertThatThrownBy(() -> new OfflineGeoIpDatabase(binPath.toString(), "", 0))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("out of order");
+    }
+
+    @Test
+    @DisplayName("reloadIfChanged - Should keep the previous dataset when the new file is corrupt")
+    void reloadIfChanged_CorruptFile_KeepsPrevious() throws IOException {
+        Path binPath = tempDir.resolve("reload.bin");
+        writeDatabase(binPath, 0x08080800, 0x080808FF, "US");
+        database = new OfflineGeoIpDatabase(binPath.toString(), "", 0);
+
+        writeDatabase(binPath, 0x08080800, 0x080808FF, "u!");
+        Files.setLastModifiedTime(binPath, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertThatThrownBy(() -> database.reloadIfChanged()).isInstanceOf(IOException.class);
+        assertThat(database.lookupCountryCode("8.8.8.8")).isEqualTo("US");
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentCache paymentCache = new PaymentCache(100, Duration.ofMinutes(10), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Payment payment(UUID id, String cancelation) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setAmount(new BigDecimal("10.00"));
+        payment.setCancelation(cancelation == null ? null : new BigDecimal(cancelation));
+        return payment;
+    }
+
+    @Test
+    @DisplayName("get - Should load once and serve later reads from memory")
+    void get_ReadThrough() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            paymentCache.get(id, key -> {
+                loads.incrementAndGet();
+                return Optional.of(payment(key, null));
+            });
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "payments").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("getAll - Should load all misses in one call and serve hits from memory")
+    void getAll_LoadsMissesTogether() {
+        UUID cached = UUID.randomUUID();
+        UUID stored = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        paymentCache.put(payment(cached, null));
+        List<Set<? extends UUID>> loads = new ArrayList<>();
+
+        Map<UUID, Payment> payments = paymentCache.getAll(List.of(cached, stored, missing), keys -> {
+            loads.add(Set.copyOf(keys));
+            return Map.of(stored, payment(stored, null));
+        });
+
+        assertThat(payments).containsOnlyKeys(cached, stored);
+        assertThat(loads).containsExactly(Set.of(stored, missing));
+    }
+
+    @Test
+    @DisplayName("get/getAll - Should cache copies of loaded payments, not the loader's instances")
+    void get_CachesLoadedCopies() {
+        UUID id = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        Payment loaded = payment(id, null);
+        Payment otherLoaded = payment(other, null);
+
+        paymentCache.get(id, key -> Optional.of(loaded));
+        paymentCache.getAll(List.of(other), keys -> Map.of(other, otherLoaded));
+        loaded.setCancelation(new BigDecimal("1.00"));
+        otherLoaded.setCancelation(new BigDecimal("1.00"));
+
+        assertThat(paymentCache.get(id, key -> Optional.empty())).get()
+                .isNotSameAs(loaded)
+                .extracting(Payment::getCancelation).isNull();
+        assertThat(paymentCache.getAll(List.of(other), keys -> Map.of()).get(other))
+                .isNotSameAs(otherLoaded)
+                .extracting(Payment::getCancelation).isNull();
+    }
+
+    @Test
+    @DisplayName("put - Should store a snapshot that later changes to the entity do not affect")
+    void put_StoresSnapshot() {
+        UUID id = UUID.randomUUID();
+        Payment payment = payment(id, null);
+
+        paymentCache.put(payment);
+        payment.setCancelation(new BigDecimal("1.00"));
+
+        assertThat(paymentCache.get(id, key -> Optional.empty())).get()
+                .extracting(Payment::getCancelation).isNull();
+    }
+
+    @Test
+    @DisplayName("invalidateAll - Should force the next read to load again")
+    void invalidateAll_RemovesEntries() {
+        UUID id = UUID.randomUUID();
+        paymentCache.put(payment(id, null));
+
+        paymentCache.invalidateAll(List.of(id));
+
+        assertThat(paymentCache.get(id, key -> Optional.of(payment(key, "0.05")))).get()
+                .extracting(Payment::getCancelation).isEqualTo(new BigDecimal("0.05"));
+    }
+
+    @Test
+    @DisplayName("Transactions - Writes should only become visible after commit")
+    void put_DeferredUntilCommit() {
+        UUID id = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+
+        paymentCache.put(payment(id, null));
+        assertThat(paymentCache.size()).isZero();
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(paymentCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Transactions - Writes of a rolled-back transaction should be discarded")
+    void put_DiscardedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        paymentCache.put(payment(UUID.randomUUID(), null));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(paymentCache.size()).isZero();
+    }
+}
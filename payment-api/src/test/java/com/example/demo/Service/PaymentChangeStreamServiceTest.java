@@ -0,0 +1,215 @@
+package com.example.demo.Service;
+
+import com.example.demo.DTO.PaymentChangeDTO;
+import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentChangeStreamServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private ChangeFeedWatermark changeFeedWatermark;
+
+    private PaymentChangeStreamService paymentChangeStreamService;
+
+    @BeforeEach
+    void setUp() {
+        paymentChangeStreamService = new PaymentChangeStreamService(paymentRepository, changeFeedWatermark, Duration.ofMinutes(1), 2, 2, 100, Runnable::run);
+        lenient().when(changeFeedWatermark.current()).thenReturn(100L);
+    }
+
+    private static Payment changed(long seq) {
+        Payment payment = new Payment();
+        payment.setId(UUID.randomUUID());
+        payment.setChangeSeq(seq);
+        return payment;
+    }
+
+    /** Records the change payloads it is asked to send, optionally failing like a disconnected client. */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<Long> sent = new ArrayList<>();
+        private final boolean disconnected;
+        private boolean completed;
+
+        private RecordingEmitter(boolean disconnected) {
+            this.disconnected = disconnected;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (disconnected) {
+                throw new IOException("Broken pipe");
+            }
+            builder.build().stream()
+                    .filter(part -> part.getData() instanceof PaymentChangeDTO)
+                    .forEach(part -> sent.add(((PaymentChangeDTO) part.getData()).getSeq()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    @DisplayName("poll - Should not query the database without subscribers")
+    void poll_NoSubscribers_NoQuery() {
+        paymentChangeStreamService.poll();
+
+        verifyNoInteractions(paymentRepository, changeFeedWatermark);
+    }
+
+    @Test
+    @DisplayName("poll - Should hold back changes above the watermark until it advances")
+    void poll_WaitsForWatermark() {
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        paymentChangeStreamService.subscribe(0, emitter);
+        when(changeFeedWatermark.current()).thenReturn(0L).thenReturn(2L);
+        when(paymentRepository.findChangedBetween(0, 2, Limit.of(2))).thenReturn(List.of(changed(1), changed(2)));
+
+        paymentChangeStreamService.poll();
+        assertThat(emitter.sent).isEmpty();
+        verify(paymentRepository, never()).findChangedBetween(anyLong(), anyLong(), any());
+
+        paymentChangeStreamService.poll();
+        assertThat(emitter.sent).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("poll - One query from the oldest cursor should serve every subscriber from its own position")
+    void poll_FansOutFromOldestCursor() {
+        RecordingEmitter behind = new RecordingEmitter(false);
+        RecordingEmitter ahead = new RecordingEmitter(false);
+        paymentChangeStreamService.subscribe(0, behind);
+        paymentChangeStreamService.subscribe(2, ahead);
+        when(paymentRepository.findChangedBetween(0, 100, Limit.of(2))).thenReturn(List.of(changed(1), changed(2)));
+        when(paymentRepository.findChangedBetween(2, 100, Limit.of(2))).thenReturn(List.of(changed(3)));
+
+        paymentChangeStreamService.poll();
+
+        assertThat(behind.sent).containsExactly(1L, 2L, 3L);
+        assertThat(ahead.sent).containsExactly(3L);
+        verify(paymentRepository, times(2)).findChangedBetween(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("poll - A later poll should only send changes after each subscriber's cursor")
+    void poll_ResumesFromCursor() {
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        paymentChangeStreamService.subscribe(5, emitter);
+        when(paymentRepository.findChangedBetween(5, 100, Limit.of(2))).thenReturn(List.of(changed(6)));
+        when(paymentRepository.findChangedBetween(6, 100, Limit.of(2))).thenReturn(List.of());
+
+        paymentChangeStreamService.poll();
+        paymentChangeStreamService.poll();
+
+        assertThat(emitter.sent).containsExactly(6L);
+    }
+
+    @Test
+    @DisplayName("poll - A disconnected subscriber should be dropped without affecting the others")
+    void poll_DropsDisconnectedSubscriber() {
+        RecordingEmitter gone = new RecordingEmitter(true);
+        RecordingEmitter connected = new RecordingEmitter(false);
+        paymentChangeStreamService.subscribe(0, gone);
+        paymentChangeStreamService.subscribe(0, connected);
+        when(paymentRepository.findChangedBetween(0, 100, Limit.of(2))).thenReturn(List.of(changed(1)));
+
+        paymentChangeStreamService.poll();
+
+        assertThat(connected.sent).containsExactly(1L);
+        assertThat(paymentChangeStreamService.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("poll - Catching up should stop after maxBatchesPerPoll batches and continue on the next poll")
+    void poll_CapsCatchUpPerPoll() {
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        paymentChangeStreamService.subscribe(0, emitter);
+        when(paymentRepository.findChangedBetween(0, 100, Limit.of(2))).thenReturn(List.of(changed(1), changed(2)));
+        when(paymentRepository.findChangedBetween(2, 100, Limit.of(2))).thenReturn(List.of(changed(3), changed(4)));
+        when(paymentRepository.findChangedBetween(4, 100, Limit.of(2))).thenReturn(List.of(changed(5)));
+
+        paymentChangeStreamService.poll();
+        assertThat(emitter.sent).containsExactly(1L, 2L, 3L, 4L);
+        verify(paymentRepository, never()).findChangedBetween(eq(4L), anyLong(), any());
+
+        paymentChangeStreamService.poll();
+        assertThat(emitter.sent).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    @DisplayName("poll - A new subscriber catching up should not hold back the subscribers that are caught up")
+    void poll_ReadsLiveSubscribersSeparately() {
+        RecordingEmitter live = new RecordingEmitter(false);
+        RecordingEmitter newcomer = new RecordingEmitter(false);
+        paymentChangeStreamService.subscribe(0, live);
+        when(paymentRepository.findChangedBetween(0, 100, Limit.of(2)))
+                .thenReturn(List.of(changed(1)))
+                .thenReturn(List.of(changed(1), changed(2)));
+        when(paymentRepository.findChangedBetween(1, 100, Limit.of(2))).thenReturn(List.of(changed(2)));
+        when(paymentRepository.findChangedBetween(2, 100, Limit.of(2))).thenReturn(List.of());
+
+        paymentChangeStreamService.poll();
+        paymentChangeStreamService.subscribe(0, newcomer);
+        paymentChangeStreamService.poll();
+
+        assertThat(live.sent).containsExactly(1L, 2L);
+        assertThat(newcomer.sent).containsExactly(1L, 2L);
+        verify(paymentRepository).findChangedBetween(1, 100, Limit.of(2));
+    }
+
+    @Test
+    @DisplayName("poll - Should only queue events for the sender and disconnect a subscriber whose queue overflows")
+    void poll_QueueOverflow_EvictsSubscriber() {
+        List<Runnable> sends = new ArrayList<>();
+        PaymentChangeStreamService service = new PaymentChangeStreamService(
+                paymentRepository, changeFeedWatermark, Duration.ofMinutes(1), 2, 2, 2, sends::add);
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        service.subscribe(0, emitter);
+        when(paymentRepository.findChangedBetween(0, 100, Limit.of(2))).thenReturn(List.of(changed(1), changed(2)));
+        when(paymentRepository.findChangedBetween(2, 100, Limit.of(2))).thenReturn(List.of(changed(3)));
+
+        service.poll();
+        assertThat(emitter.sent).isEmpty();
+        assertThat(service.subscriberCount()).isZero();
+
+        assertThat(sends).hasSize(1);
+        sends.getFirst().run();
+        assertThat(emitter.sent).isEmpty();
+        assertThat(emitter.completed).isTrue();
+    }
+
+    @Test
+    @DisplayName("subscribe - Should reject a negative cursor")
+    void subscribe_NegativeCursor_Rejected() {
+        assertThatThrownBy(() -> paymentChangeStreamService.subscribe(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(paymentChangeStreamService.subscriberCount()).isZero();
+    }
+}
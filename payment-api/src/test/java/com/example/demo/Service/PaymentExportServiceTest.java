@@ -0,0 +1,106 @@
+package com.example.demo.Service;
+
+import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentExportServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private PaymentExportService paymentExportService;
+
+    @BeforeEach
+    void setUp() {
+        paymentExportService = new PaymentExportService(paymentRepository, entityManager, objectMapper);
+        ReflectionTestUtils.setField(paymentExportService, "flushEvery", 2);
+    }
+
+    private Payment payment(String amount) {
+        Payment payment = new Payment();
+        payment.setId(UUID.randomUUID());
+        payment.setAmount(new BigDecimal(amount));
+        payment.setCurrency(Payment.Currency.EUR);
+        payment.setDebtorIban("DE89370400440532013000");
+        payment.setCreditorIban("DE89370400440532013000");
+        payment.setType(1);
+        payment.setCreationDate(LocalDateTime.now());
+        return payment;
+    }
+
+    @Test
+    @DisplayName("Happy Path - Should write one JSON document per line, detach each row and close the cursor")
+    void exportActivePayments_writesNdjson() throws Exception {
+        Payment first = payment("10.00");
+        Payment second = payment("20.50");
+        Payment third = payment("30.99");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(paymentRepository.streamActivePayments())
+                .thenReturn(Stream.of(first, second, third).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = paymentExportService.exportActivePayments(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        JsonNode firstLine = objectMapper.readTree(lines[0]);
+        assertThat(firstLine.get("id").asText()).isEqualTo(first.getId().toString());
+        assertThat(objectMapper.readTree(lines[2]).get("amount").decimalValue()).isEqualByComparingTo("30.99");
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(entityManager).detach(third);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("Edge Case - Empty result should write nothing")
+    void exportActivePayments_empty() throws Exception {
+        when(paymentRepository.streamActivePayments()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = paymentExportService.exportActivePayments(out);
+
+        assertThat(exported).isZero();
+        assertThat(out.size()).isZero();
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @DisplayName("Error Case - Should propagate repository failures")
+    void exportActivePayments_repositoryFails() {
+        when(paymentRepository.streamActivePayments()).thenThrow(new org.springframework.dao.QueryTimeoutException("Timeout"));
+
+        assertThatThrownBy(() -> paymentExportService.exportActivePayments(new ByteArrayOutputStream()))
+                .isInstanceOf(org.springframework.dao.QueryTimeoutException.class);
+    }
+}
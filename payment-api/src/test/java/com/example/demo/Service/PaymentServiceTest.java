@@ -1,28 +1,50 @@
 package com.example.demo.Service;
 
+import com.example.demo.DTO.FeeForecastDTO;
+import com.example.demo.DTO.FeeQuoteDTO;
+import com.example.demo.DTO.FeeQuotesDTO;
+import com.example.demo.DTO.PaymentChangeDTO;
+import com.example.demo.DTO.PaymentChangesDTO;
 import com.example.demo.DTO.PaymentDTO;
+import com.example.demo.DTO.PaymentPageDTO;
 import com.example.demo.Exception.CancellationNotAllowedException;
+import com.example.demo.Exception.CancellationRetryException;
+import com.example.demo.Model.Money;
 import com.example.demo.Model.Payment;
+import com.example.demo.Repository.PaymentFilter;
 import com.example.demo.Repository.PaymentRepository;
+import com.example.demo.Strategy.CancellationFeeSchedule;
+import com.example.demo.Util.PageCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,15 +56,33 @@ class PaymentServiceTest {
     @Mock
     private CancellationService cancellationService;
 
+    @Mock
+    private ActivePaymentSnapshot activePaymentSnapshot;
+
+    @Mock
+    private ChangeFeedWatermark changeFeedWatermark;
+
+    @Spy
+    private PaymentCache paymentCache = new PaymentCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
     @InjectMocks
     private PaymentService paymentService;
 
     private Payment samplePayment;
     private PaymentDTO samplePaymentDTO;
     private UUID testUuid;
+    private CancellationFeeSchedule feeSchedule;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
+        feeSchedule = new CancellationFeeEngine(new ClassPathResource("fee-schedule.properties")).schedule();
+        lenient().when(cancellationService.getFeeSchedule()).thenReturn(feeSchedule);
+        ReflectionTestUtils.setField(paymentService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(paymentService, "maxPageSize", 3);
+        ReflectionTestUtils.setField(paymentService, "defaultChangesSize", 2);
+        ReflectionTestUtils.setField(paymentService, "maxChangesSize", 3);
+        ReflectionTestUtils.setField(paymentService, "maxQuoteIds", 10);
+
         testUuid = UUID.randomUUID();
 
         samplePayment = new Payment();
@@ -50,7 +90,7 @@ class PaymentServiceTest {
         samplePayment.setAmount(new BigDecimal("100.50"));
         samplePayment.setCurrency(Payment.Currency.EUR);
         samplePayment.setDebtorIban("DE89370400440532013000");
-        samplePayment.setCreditorIban("DE89370400440532013001");
+        samplePayment.setCreditorIban("NL91ABNA0417164300");
         samplePayment.setType(1);
         samplePayment.setCreationDate(LocalDateTime.now().minusHours(1));
         samplePayment.setCancelation(null);
@@ -60,7 +100,7 @@ class PaymentServiceTest {
         samplePaymentDTO.setAmount("100.50");
         samplePaymentDTO.setCurrency(Payment.Currency.EUR);
         samplePaymentDTO.setDebtorIban("DE89370400440532013000");
-        samplePaymentDTO.setCreditorIban("DE89370400440532013001");
+        samplePaymentDTO.setCreditorIban("NL91ABNA0417164300");
         samplePaymentDTO.setType(1);
     }
 
@@ -109,28 +149,25 @@ class PaymentServiceTest {
         }
 
         @Test
-        @DisplayName("Edge Case - Should handle DTO with existing ID (overwrite)")
+        @DisplayName("Edge Case - Should ignore a client-supplied ID and save a new payment")
         void savePayment_dtoWithId() {
-            UUID existingId = UUID.randomUUID();
+            UUID clientId = UUID.randomUUID();
+            UUID generatedId = UUID.randomUUID();
             PaymentDTO inputDto = samplePaymentDTO;
-            inputDto.setId(existingId);
+            inputDto.setId(clientId);
             inputDto.setAmount("99.99");
 
-            Payment paymentToSave = inputDto.toEntity();
-            paymentToSave.setId(existingId);
-
             Payment savedPayment = new Payment();
-            savedPayment.setId(existingId);
+            savedPayment.setId(generatedId);
             savedPayment.setAmount(new BigDecimal("99.99"));
             savedPayment.setCreationDate(LocalDateTime.now());
 
-
             when(paymentRepository.save(any(Payment.class))).thenReturn(savedPayment);
 
             PaymentDTO resultDto = paymentService.savePayment(inputDto);
 
-            verify(paymentRepository).save(argThat(p -> p.getId().equals(existingId) && p.getAmount().compareTo(new BigDecimal("99.99")) == 0));
-            assertThat(resultDto.getId()).isEqualTo(existingId);
+            verify(paymentRepository).save(argThat(p -> p.getId() == null && p.getAmount().compareTo(new BigDecimal("99.99")) == 0));
+            assertThat(resultDto.getId()).isEqualTo(generatedId);
             assertThat(resultDto.getAmount()).isEqualTo("99.99");
         }
 
@@ -174,79 +211,109 @@ class PaymentServiceTest {
     class CancelPaymentTests {
 
         @Test
-        @DisplayName("Happy Path - Should call cancellationService, save, convert, and return DTO")
+        @DisplayName("Happy Path - Should cancel with one conditional update and return DTO")
         void cancelPayment_happyPath() {
-            Payment paymentToCancel = samplePayment;
             Payment cancelledPayment = new Payment();
-            cancelledPayment.setId(paymentToCancel.getId());
-            cancelledPayment.setAmount(paymentToCancel.getAmount());
-            cancelledPayment.setCurrency(paymentToCancel.getCurrency());
-            cancelledPayment.setDebtorIban(paymentToCancel.getDebtorIban());
-            cancelledPayment.setCreditorIban(paymentToCancel.getCreditorIban());
-            cancelledPayment.setType(paymentToCancel.getType());
-            cancelledPayment.setCreationDate(paymentToCancel.getCreationDate());
+            cancelledPayment.setId(testUuid);
+            cancelledPayment.setAmount(samplePayment.getAmount());
+            cancelledPayment.setCurrency(samplePayment.getCurrency());
+            cancelledPayment.setDebtorIban(samplePayment.getDebtorIban());
+            cancelledPayment.setCreditorIban(samplePayment.getCreditorIban());
+            cancelledPayment.setType(samplePayment.getType());
+            cancelledPayment.setCreationDate(samplePayment.getCreationDate());
             cancelledPayment.setCancelation(new BigDecimal("0.05"));
 
-            when(cancellationService.cancelPayment(paymentToCancel)).thenReturn(cancelledPayment);
-            when(paymentRepository.save(cancelledPayment)).thenReturn(cancelledPayment);
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), eq(feeSchedule.sqlFees()), any(), anyInt(), any(), any(), any())).thenReturn(Optional.of(cancelledPayment));
 
-            PaymentDTO resultDto = paymentService.cancelPayment(paymentToCancel);
+            Optional<PaymentDTO> resultDto = paymentService.cancelPayment(testUuid);
 
-            verify(cancellationService).cancelPayment(paymentToCancel);
-            verify(paymentRepository).save(cancelledPayment);
+            assertThat(resultDto).isPresent();
+            assertThat(resultDto.get().getId()).isEqualTo(testUuid);
+            assertThat(resultDto.get().getCancelation()).isEqualTo(new BigDecimal("0.05"));
+            verify(paymentRepository, never()).findCurrentById(any());
+            verify(paymentRepository, never()).save(any());
+        }
 
-            assertThat(resultDto).isNotNull();
-            assertThat(resultDto.getId()).isEqualTo(paymentToCancel.getId());
-            assertThat(resultDto.getCancelation()).isEqualTo(new BigDecimal("0.05"));
+        @Test
+        @DisplayName("Happy Path - Should restrict the update to today's creation window")
+        void cancelPayment_passesTodayWindow() {
+            when(paymentRepository.cancelIfAllowed(any(), any(), any(), anyInt(), any(), any(), any())).thenReturn(Optional.of(samplePayment));
+
+            paymentService.cancelPayment(testUuid);
+
+            var now = ArgumentCaptor.forClass(LocalDateTime.class);
+            var startOfDay = ArgumentCaptor.forClass(LocalDateTime.class);
+            var startOfNextDay = ArgumentCaptor.forClass(LocalDateTime.class);
+            verify(paymentRepository).cancelIfAllowed(eq(testUuid), eq(feeSchedule.sqlFees()), eq(new String[]{"EUR", "USD"}), eq(3), now.capture(), startOfDay.capture(), startOfNextDay.capture());
+            assertThat(startOfDay.getValue()).isEqualTo(now.getValue().toLocalDate().atStartOfDay());
+            assertThat(startOfNextDay.getValue()).isEqualTo(startOfDay.getValue().plusDays(1));
         }
 
         @Test
-        @DisplayName("Error Case - Should propagate CancellationNotAllowedException from cancellationService")
+        @DisplayName("Not Found - Should return empty when no row was updated and the payment does not exist")
+        void cancelPayment_notFound() {
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any())).thenReturn(Optional.empty());
+            when(paymentRepository.findCurrentById(testUuid)).thenReturn(Optional.empty());
+
+            assertThat(paymentService.cancelPayment(testUuid)).isEmpty();
+            verify(cancellationService, never()).verifyCancellable(any(), any());
+        }
+
+        @Test
+        @DisplayName("Error Case - Should report why the update did not apply")
         void cancelPayment_whenCancellationNotAllowed() {
-            Payment paymentToCancel = samplePayment;
+            samplePayment.setCancelation(new BigDecimal("0.05"));
             CancellationNotAllowedException exception = new CancellationNotAllowedException("Already cancelled");
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any())).thenReturn(Optional.empty());
+            when(paymentRepository.findCurrentById(testUuid)).thenReturn(Optional.of(samplePayment));
+            doThrow(exception).when(cancellationService).verifyCancellable(eq(samplePayment), any());
 
-            when(cancellationService.cancelPayment(paymentToCancel)).thenThrow(exception);
-
-            assertThatThrownBy(() -> paymentService.cancelPayment(paymentToCancel))
+            assertThatThrownBy(() -> paymentService.cancelPayment(testUuid))
                     .isInstanceOf(CancellationNotAllowedException.class)
                     .isEqualTo(exception);
-
-            verify(cancellationService).cancelPayment(paymentToCancel);
             verify(paymentRepository, never()).save(any());
         }
 
         @Test
-        @DisplayName("Null Test - Should throw NullPointerException if input Payment is null")
-        void cancelPayment_nullPayment() {
-            Payment nullPayment = null;
+        @DisplayName("Race - Should retry the update once when the payment passes the checks on re-read")
+        void cancelPayment_changedBetweenStatements_retries() {
+            Payment cancelledPayment = new Payment();
+            cancelledPayment.setId(testUuid);
+            cancelledPayment.setAmount(samplePayment.getAmount());
+            cancelledPayment.setCreationDate(samplePayment.getCreationDate());
+            cancelledPayment.setCancelation(new BigDecimal("0.05"));
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any()))
+                    .thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(cancelledPayment));
+            when(paymentRepository.findCurrentById(testUuid)).thenReturn(Optional.of(samplePayment));
 
-            when(cancellationService.cancelPayment(null)).thenThrow(NullPointerException.class);
+            Optional<PaymentDTO> resultDto = paymentService.cancelPayment(testUuid);
 
-            assertThatThrownBy(() -> paymentService.cancelPayment(nullPayment))
-                    .isInstanceOf(NullPointerException.class);
-
-            verify(cancellationService).cancelPayment(null);
-            verify(paymentRepository, never()).save(any());
+            assertThat(resultDto).map(PaymentDTO::getCancelation).contains(new BigDecimal("0.05"));
+            verify(paymentRepository, times(2)).cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any());
         }
 
         @Test
-        @DisplayName("Error Case - Should propagate DataAccessException from repository save")
-        void cancelPayment_repositoryThrowsExceptionOnSave() {
-            Payment paymentToCancel = samplePayment;
-            Payment cancelledPayment = new Payment();
-            cancelledPayment.setId(paymentToCancel.getId());
-            cancelledPayment.setCancelation(new BigDecimal("0.10"));
-
-
-            when(cancellationService.cancelPayment(paymentToCancel)).thenReturn(cancelledPayment);
-            when(paymentRepository.save(cancelledPayment)).thenThrow(new org.springframework.dao.OptimisticLockingFailureException("Concurrency issue"));
+        @DisplayName("Race - Should ask the client to retry when the retried update does not apply either")
+        void cancelPayment_changedBetweenStatements_twice() {
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any())).thenReturn(Optional.empty());
+            when(paymentRepository.findCurrentById(testUuid)).thenReturn(Optional.of(samplePayment));
+
+            assertThatThrownBy(() -> paymentService.cancelPayment(testUuid))
+                    .isInstanceOf(CancellationRetryException.class)
+                    .hasMessageContaining("please retry");
+            verify(paymentRepository, times(2)).cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any());
+        }
 
-            assertThatThrownBy(() -> paymentService.cancelPayment(paymentToCancel))
-                    .isInstanceOf(org.springframework.dao.OptimisticLockingFailureException.class);
+        @Test
+        @DisplayName("Error Case - Should propagate DataAccessException from the update")
+        void cancelPayment_repositoryThrowsException() {
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any()))
+                    .thenThrow(new org.springframework.dao.QueryTimeoutException("Timeout"));
 
-            verify(cancellationService).cancelPayment(paymentToCancel);
-            verify(paymentRepository).save(cancelledPayment);
+            assertThatThrownBy(() -> paymentService.cancelPayment(testUuid))
+                    .isInstanceOf(org.springframework.dao.QueryTimeoutException.class);
+            verify(paymentRepository, never()).findCurrentById(any());
         }
     }
 
@@ -288,6 +355,261 @@ class PaymentServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Active payment snapshot")
+    class ActivePaymentSnapshotTests {
+
+        @Test
+        @DisplayName("getActivePaymentsSnapshot - Should serve the in-memory snapshot")
+        void getActivePaymentsSnapshot_delegates() {
+            ActivePaymentSnapshot.Snapshot snapshot = new ActivePaymentSnapshot.Snapshot(3, Map.of(testUuid, samplePayment), null);
+            when(activePaymentSnapshot.current()).thenReturn(snapshot);
+
+            assertThat(paymentService.getActivePaymentsSnapshot()).isSameAs(snapshot);
+            verify(paymentRepository, never()).findByCancelationIsNull();
+        }
+
+        @Test
+        @DisplayName("savePayment - Should add the saved payment to the snapshot")
+        void savePayment_updatesSnapshot() {
+            when(paymentRepository.save(any(Payment.class))).thenReturn(samplePayment);
+
+            paymentService.savePayment(samplePaymentDTO);
+
+            verify(activePaymentSnapshot).paymentsSaved(List.of(samplePayment));
+        }
+
+        @Test
+        @DisplayName("cancelPayment - Should remove the cancelled payment from the snapshot")
+        void cancelPayment_updatesSnapshot() {
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any())).thenReturn(Optional.of(samplePayment));
+
+            paymentService.cancelPayment(testUuid);
+
+            verify(activePaymentSnapshot).paymentsCancelled(List.of(testUuid));
+        }
+
+        @Test
+        @DisplayName("cancelPayment - A rejected cancellation should leave the snapshot alone")
+        void cancelPayment_rejected_doesNotUpdateSnapshot() {
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any())).thenReturn(Optional.empty());
+            when(paymentRepository.findCurrentById(testUuid)).thenReturn(Optional.empty());
+
+            paymentService.cancelPayment(testUuid);
+
+            verifyNoInteractions(activePaymentSnapshot);
+        }
+    }
+
+    @Nested
+    @DisplayName("getActivePaymentsPage Tests")
+    class GetActivePaymentsPageTests {
+
+        private Payment paymentAt(int minute) {
+            Payment payment = new Payment();
+            payment.setId(UUID.randomUUID());
+            payment.setCreationDate(LocalDateTime.of(2025, 1, 1, 10, minute));
+            return payment;
+        }
+
+        @Test
+        @DisplayName("Happy Path - Should return full page with cursor pointing at the last item")
+        void getActivePaymentsPage_morePagesAvailable() {
+            Payment first = paymentAt(1);
+            Payment second = paymentAt(2);
+            when(paymentRepository.findActivePage(any(PaymentFilter.class), isNull(), eq(3)))
+                    .thenReturn(List.of(first, second, paymentAt(3)));
+
+            PaymentPageDTO page = paymentService.getActivePaymentsPage(PaymentFilter.none(), null, null);
+
+            assertThat(page.getItems()).containsExactly(first, second);
+            assertThat(PageCursor.decode(page.getNextCursor()))
+                    .isEqualTo(new PageCursor(second.getCreationDate(), second.getId()));
+        }
+
+        @Test
+        @DisplayName("Happy Path - Last page should have no cursor")
+        void getActivePaymentsPage_lastPage() {
+            Payment only = paymentAt(1);
+            PageCursor after = new PageCursor(LocalDateTime.of(2025, 1, 1, 9, 0), UUID.randomUUID());
+            when(paymentRepository.findActivePage(any(PaymentFilter.class), eq(after), eq(3))).thenReturn(List.of(only));
+
+            PaymentPageDTO page = paymentService.getActivePaymentsPage(PaymentFilter.none(), after.encode(), null);
+
+            assertThat(page.getItems()).containsExactly(only);
+            assertThat(page.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Edge Case - Requested size above the maximum should be capped")
+        void getActivePaymentsPage_limitCapped() {
+            when(paymentRepository.findActivePage(any(PaymentFilter.class), isNull(), eq(4))).thenReturn(Collections.emptyList());
+
+            PaymentPageDTO page = paymentService.getActivePaymentsPage(PaymentFilter.none(), null, 1000);
+
+            assertThat(page.getItems()).isEmpty();
+            verify(paymentRepository).findActivePage(any(PaymentFilter.class), isNull(), eq(4));
+        }
+
+        @Test
+        @DisplayName("Error Case - Should reject non-positive page size and malformed cursor before querying")
+        void getActivePaymentsPage_invalidInput() {
+            assertThatThrownBy(() -> paymentService.getActivePaymentsPage(PaymentFilter.none(), null, 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> paymentService.getActivePaymentsPage(PaymentFilter.none(), "garbage!", null))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            verify(paymentRepository, never()).findActivePage(any(), any(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("getChangesSince Tests")
+    class GetChangesSinceTests {
+
+        private Payment changed(long seq, BigDecimal cancelation) {
+            Payment payment = new Payment();
+            payment.setId(UUID.randomUUID());
+            payment.setCancelation(cancelation);
+            payment.setChangeSeq(seq);
+            return payment;
+        }
+
+        @BeforeEach
+        void setUpWatermark() {
+            lenient().when(changeFeedWatermark.current()).thenReturn(100L);
+        }
+
+        @Test
+        @DisplayName("Happy Path - Should map rows to typed changes and advance the cursor to the last one")
+        void getChangesSince_mapsChanges() {
+            Payment created = changed(11, null);
+            Payment cancelled = changed(12, new BigDecimal("0.05"));
+            when(paymentRepository.findChangedBetween(10, 100, Limit.of(3))).thenReturn(List.of(created, cancelled));
+
+            PaymentChangesDTO changes = paymentService.getChangesSince(10, null);
+
+            assertThat(changes.getChanges()).extracting(PaymentChangeDTO::getType)
+                    .containsExactly(PaymentChangeDTO.Type.CREATED, PaymentChangeDTO.Type.CANCELLED);
+            assertThat(changes.getChanges()).extracting(PaymentChangeDTO::getPayment).containsExactly(created, cancelled);
+            assertThat(changes.getNextCursor()).isEqualTo(12);
+            assertThat(changes.isHasMore()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Happy Path - An extra row should report more changes and be left for the next call")
+        void getChangesSince_hasMore() {
+            when(paymentRepository.findChangedBetween(0, 100, Limit.of(3)))
+                    .thenReturn(List.of(changed(1, null), changed(2, null), changed(3, null)));
+
+            PaymentChangesDTO changes = paymentService.getChangesSince(0, null);
+
+            assertThat(changes.getChanges()).hasSize(2);
+            assertThat(changes.getNextCursor()).isEqualTo(2);
+            assertThat(changes.isHasMore()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Edge Case - No changes should keep the cursor and cap the limit")
+        void getChangesSince_noChanges() {
+            when(paymentRepository.findChangedBetween(42, 100, Limit.of(4))).thenReturn(Collections.emptyList());
+
+            PaymentChangesDTO changes = paymentService.getChangesSince(42, 1000);
+
+            assertThat(changes.getChanges()).isEmpty();
+            assertThat(changes.getNextCursor()).isEqualTo(42);
+        }
+
+        @Test
+        @DisplayName("Error Case - Should reject a negative cursor or non-positive limit before querying")
+        void getChangesSince_invalidInput() {
+            assertThatThrownBy(() -> paymentService.getChangesSince(-1, null))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> paymentService.getChangesSince(0, 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(paymentRepository, never()).findChangedBetween(anyLong(), anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("Watermark - Should not read past changes that may still be preceded by an uncommitted one")
+        void getChangesSince_cappedAtWatermark() {
+            when(changeFeedWatermark.current()).thenReturn(11L);
+            when(paymentRepository.findChangedBetween(10, 11, Limit.of(3))).thenReturn(List.of(changed(11, null)));
+
+            PaymentChangesDTO changes = paymentService.getChangesSince(10, null);
+
+            assertThat(changes.getNextCursor()).isEqualTo(11);
+            assertThat(changes.isHasMore()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Watermark - A cursor at the watermark should return no changes without querying them")
+        void getChangesSince_atWatermark() {
+            when(changeFeedWatermark.current()).thenReturn(11L);
+
+            PaymentChangesDTO changes = paymentService.getChangesSince(11, null);
+
+            assertThat(changes.getChanges()).isEmpty();
+            assertThat(changes.getNextCursor()).isEqualTo(11);
+            verify(paymentRepository, never()).findChangedBetween(anyLong(), anyLong(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("quoteCancellationFees Tests")
+    class QuoteCancellationFeesTests {
+
+        @Test
+        @DisplayName("Happy Path - Should quote all payments from one fetch, one clock reading and one schedule")
+        void quoteCancellationFees_batch() {
+            UUID missingId = UUID.randomUUID();
+            FeeQuoteDTO quote = FeeQuoteDTO.cancellable(samplePayment, new Money(Payment.Currency.EUR, 5), LocalDateTime.now());
+            when(paymentRepository.findAllReadOnlyById(any())).thenReturn(List.of(samplePayment));
+            when(cancellationService.quote(argThat(p -> testUuid.equals(p.getId())), any(LocalDateTime.class), eq(feeSchedule))).thenReturn(quote);
+
+            FeeQuotesDTO quotes = paymentService.quoteCancellationFees(Arrays.asList(missingId, testUuid, missingId, null));
+
+            assertThat(quotes.getQuotes()).extracting(FeeQuoteDTO::getId).containsExactly(missingId, testUuid);
+            assertThat(quotes.getQuotes()).extracting(FeeQuoteDTO::getStatus)
+                    .containsExactly(FeeQuoteDTO.Status.NOT_FOUND, FeeQuoteDTO.Status.CANCELLABLE);
+            verify(paymentRepository).findAllReadOnlyById(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(missingId, testUuid))));
+            verify(cancellationService).quote(argThat(p -> testUuid.equals(p.getId())), eq(quotes.getQuotedAt()), eq(feeSchedule));
+            verify(cancellationService, never()).cancelPayment(any(), any());
+        }
+
+        @Test
+        @DisplayName("Cache - Cached payments should not be fetched again")
+        void quoteCancellationFees_usesCache() {
+            when(paymentRepository.findAllReadOnlyById(any())).thenReturn(List.of(samplePayment));
+
+            paymentService.quoteCancellationFees(List.of(testUuid));
+            paymentService.quoteCancellationFees(List.of(testUuid));
+
+            verify(paymentRepository, times(1)).findAllReadOnlyById(any());
+        }
+
+        @Test
+        @DisplayName("Error Case - Should reject more ids than allowed before querying")
+        void quoteCancellationFees_tooManyIds() {
+            ReflectionTestUtils.setField(paymentService, "maxQuoteIds", 1);
+
+            assertThatThrownBy(() -> paymentService.quoteCancellationFees(List.of(UUID.randomUUID(), UUID.randomUUID())))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(paymentRepository, never()).findAllReadOnlyById(any());
+        }
+
+        @Test
+        @DisplayName("Forecast - Should forecast a found payment and return empty otherwise")
+        void getCancellationFeeForecast() {
+            FeeForecastDTO forecast = new FeeForecastDTO(FeeQuoteDTO.cancellable(samplePayment, new Money(Payment.Currency.EUR, 0), LocalDateTime.now()), List.of());
+            when(paymentRepository.findById(testUuid)).thenReturn(Optional.of(samplePayment));
+            when(cancellationService.forecast(argThat(p -> testUuid.equals(p.getId())), any(LocalDateTime.class), eq(feeSchedule))).thenReturn(forecast);
+
+            assertThat(paymentService.getCancellationFeeForecast(testUuid)).containsSame(forecast);
+            assertThat(paymentService.getCancellationFeeForecast(UUID.randomUUID())).isEmpty();
+        }
+    }
+
     @Nested
     @DisplayName("getPaymentById Tests")
     class GetPaymentByIdTests {
@@ -300,7 +622,7 @@ class PaymentServiceTest {
             Optional<Payment> result = paymentService.getPaymentById(testUuid);
 
             verify(paymentRepository).findById(testUuid);
-            assertThat(result).isPresent().contains(samplePayment);
+            assertThat(result).get().usingRecursiveComparison().isEqualTo(samplePayment);
         }
 
         @Test
@@ -337,5 +659,56 @@ class PaymentServiceTest {
 
             verify(paymentRepository).findById(testUuid);
         }
+
+        @Test
+        @DisplayName("Cache - Repeated reads should hit the database only once")
+        void getPaymentById_cachesHits() {
+            when(paymentRepository.findById(testUuid)).thenReturn(Optional.of(samplePayment));
+
+            paymentService.getPaymentById(testUuid);
+            Optional<Payment> second = paymentService.getPaymentById(testUuid);
+
+            assertThat(second).get().usingRecursiveComparison().isEqualTo(samplePayment);
+            verify(paymentRepository, times(1)).findById(testUuid);
+        }
+
+        @Test
+        @DisplayName("Cache - Missing payments should not be cached")
+        void getPaymentById_doesNotCacheMisses() {
+            when(paymentRepository.findById(testUuid)).thenReturn(Optional.empty()).thenReturn(Optional.of(samplePayment));
+
+            assertThat(paymentService.getPaymentById(testUuid)).isEmpty();
+            assertThat(paymentService.getPaymentById(testUuid)).isPresent();
+        }
+
+        @Test
+        @DisplayName("Cache - A cancellation should replace the cached payment")
+        void getPaymentById_seesCancellation() {
+            when(paymentRepository.findById(testUuid)).thenReturn(Optional.of(samplePayment));
+            paymentService.getPaymentById(testUuid);
+
+            Payment cancelledPayment = new Payment();
+            cancelledPayment.setId(testUuid);
+            cancelledPayment.setAmount(samplePayment.getAmount());
+            cancelledPayment.setCreationDate(samplePayment.getCreationDate());
+            cancelledPayment.setCancelation(new BigDecimal("0.05"));
+            when(paymentRepository.cancelIfAllowed(eq(testUuid), any(), any(), anyInt(), any(), any(), any())).thenReturn(Optional.of(cancelledPayment));
+            paymentService.cancelPayment(testUuid);
+
+            assertThat(paymentService.getPaymentById(testUuid)).get()
+                    .extracting(Payment::getCancelation).isEqualTo(new BigDecimal("0.05"));
+            verify(paymentRepository, times(1)).findById(testUuid);
+        }
+
+        @Test
+        @DisplayName("Cache - A saved payment should be served from the cache")
+        void getPaymentById_seesSavedPayment() {
+            when(paymentRepository.save(any(Payment.class))).thenReturn(samplePayment);
+            paymentService.savePayment(samplePaymentDTO);
+
+            assertThat(paymentService.getPaymentById(testUuid)).get()
+                    .extracting(Payment::getAmount).isEqualTo(samplePayment.getAmount());
+            verify(paymentRepository, never()).findById(any());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.example.demo.Strategy;
+
+import com.example.demo.Model.Money;
+import com.example.demo.Model.Payment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CancellationFeeScheduleTest {
+
+    private static CancellationFeeSchedule schedule(String definition) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(definition));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return CancellationFeeSchedule.parse(properties);
+    }
+
+    private static CancellationFeeSchedule defaultSchedule() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = CancellationFeeScheduleTest.class.getResourceAsStream("/fee-schedule.properties")) {
+            properties.load(in);
+        }
+        return CancellationFeeSchedule.parse(properties);
+    }
+
+    @Nested
+    @DisplayName("Default schedule (0.05 / 0.10 / 0.15 per hour)")
+    class DefaultSchedule {
+
+        @ParameterizedTest(name = "Type {0}, Hours Passed: {1}, Expected Fee: {2}")
+        @CsvSource({
+                "1, 0,  0.00",
+                "1, 1,  0.05",
+                "1, 5,  0.25",
+                "1, 23, 1.15",
+                "2, 0,  0.00",
+                "2, 1,  0.10",
+                "2, 5,  0.50",
+                "2, 23, 2.30",
+                "3, 0,  0.00",
+                "3, 1,  0.15",
+                "3, 5,  0.75",
+                "3, 23, 3.45"
+        })
+        void fee_PerTypeAndHour(int type, long hours, String expectedFee) throws IOException {
+            CancellationFeeSchedule schedule = defaultSchedule();
+
+            assertThat(schedule.fee(Payment.Currency.EUR, type, hours).toBigDecimal()).isEqualByComparingTo(expectedFee);
+            assertThat(schedule.fee(Payment.Currency.USD, type, hours).toBigDecimal()).isEqualByComparingTo(expectedFee);
+            assertThat(schedule.feeMinorUnits(Payment.Currency.EUR, type, hours))
+                    .isEqualTo(new BigDecimal(expectedFee).movePointRight(2).longValueExact());
+        }
+
+        @Test
+        @DisplayName("Negative hours (clock skew) count as zero, hours past the day as the last hour")
+        void fee_HoursClamped() throws IOException {
+            CancellationFeeSchedule schedule = defaultSchedule();
+
+            assertThat(schedule.feeMinorUnits(Payment.Currency.EUR, 1, -1)).isZero();
+            assertThat(schedule.feeMinorUnits(Payment.Currency.EUR, 1, 30)).isEqualTo(115);
+        }
+
+        @Test
+        @DisplayName("Lookups return the precomputed amount in the payment's currency")
+        void fee_Money() throws IOException {
+            CancellationFeeSchedule schedule = defaultSchedule();
+
+            assertThat(schedule.fee(Payment.Currency.EUR, 2, 3)).isEqualTo(new Money(Payment.Currency.EUR, 30));
+            assertThat(schedule.fee(Payment.Currency.USD, 2, 3)).isEqualTo(new Money(Payment.Currency.USD, 30));
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 4, -1})
+        @DisplayName("Types without a rule are not supported")
+        void supports_UnknownType(int type) throws IOException {
+            CancellationFeeSchedule schedule = defaultSchedule();
+
+            assertThat(schedule.supports(Payment.Currency.EUR, type)).isFalse();
+            assertThatThrownBy(() -> schedule.fee(Payment.Currency.EUR, type, 1))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Schedule rules")
+    class Rules {
+
+        @Test
+        @DisplayName("Cap - Fees should not exceed the type's cap")
+        void fee_Capped() {
+            CancellationFeeSchedule schedule = schedule("type.1.perHour=0.50\ntype.1.cap=2.00\n");
+
+            assertThat(schedule.fee(Payment.Currency.EUR, 1, 3).toBigDecimal()).isEqualByComparingTo("1.50");
+            assertThat(schedule.fee(Payment.Currency.EUR, 1, 10).toBigDecimal()).isEqualByComparingTo("2.00");
+        }
+
+        @Test
+        @DisplayName("Currency - A currency rule should override only the properties it sets")
+        void fee_CurrencyOverride() {
+            CancellationFeeSchedule schedule = schedule("""
+                    type.1.perHour=0.50
+                    type.1.cap=2.00
+                    currency.USD.type.1.perHour=0.60
+                    currency.USD.type.2.perHour=1.00
+                    """);
+
+            assertThat(schedule.fee(Payment.Currency.EUR, 1, 1).toBigDecimal()).isEqualByComparingTo("0.50");
+            assertThat(schedule.fee(Payment.Currency.USD, 1, 1).toBigDecimal()).isEqualByComparingTo("0.60");
+            assertThat(schedule.fee(Payment.Currency.USD, 1, 10).toBigDecimal()).isEqualByComparingTo("2.00");
+            assertThat(schedule.supports(Payment.Currency.USD, 2)).isTrue();
+            assertThat(schedule.supports(Payment.Currency.EUR, 2)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Rounding - Fees should be rounded exactly to the minor unit with the configured mode")
+        void fee_Rounding() {
+            assertThat(schedule("type.1.perHour=0.0125\n").feeMinorUnits(Payment.Currency.EUR, 1, 2)).isEqualTo(2);
+            assertThat(schedule("rounding=HALF_UP\ntype.1.perHour=0.0125\n").feeMinorUnits(Payment.Currency.EUR, 1, 2)).isEqualTo(3);
+            assertThat(schedule("type.1.perHour=0.0125\ncurrency.USD.rounding=CEILING\n").feeMinorUnits(Payment.Currency.USD, 1, 1)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("SQL table - Fees should be minor units in table order, with -1 for unsupported types")
+        void sqlFees_Layout() {
+            CancellationFeeSchedule schedule = schedule("type.2.perHour=1\n");
+
+            long[] fees = schedule.sqlFees();
+
+            assertThat(fees).hasSize(2 * 2 * 24);
+            assertThat(fees[0]).isEqualTo(-1);
+            assertThat(fees[24 + 3]).isEqualTo(300);
+            assertThat(schedule.maxType()).isEqualTo(2);
+            assertThat(schedule.sqlCurrencies()).containsExactly("EUR", "USD");
+
+            fees[24 + 3] = 1000;
+            assertThat(schedule.sqlFees()[24 + 3]).isEqualTo(300);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "",
+                "type.1.perhour=0.05",
+                "type.1.perHour=abc",
+                "type.1.perHour=-0.05",
+                "type.0.perHour=0.05",
+                "currency.GBP.type.1.perHour=0.05",
+                "rounding=SIDEWAYS",
+                "type.1.cap=1.00"
+        })
+        @DisplayName("Invalid definitions should be rejected as a whole")
+        void parse_Invalid(String definition) {
+            assertThatThrownBy(() -> schedule(definition)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.Util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BicTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"DEUTDEFF", "DEUTDEFF500", "NEDSZAJJXXX", "B1CDBEBB", "ABNANL2A"})
+    void isValid_Valid(String bic) {
+        assertThat(Bic.isValid(bic)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "DEUTDEF", "DEUTDEFF5", "DEUTDEFF5000", "deutdeff", "DEUT1EFF", "DEUTDEF-", "DEUT DEFF"})
+    void isValid_Invalid(String bic) {
+        assertThat(Bic.isValid(bic)).isFalse();
+    }
+}
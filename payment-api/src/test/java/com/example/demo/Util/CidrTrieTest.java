@@ -0,0 +1,74 @@
+package com.example.demo.Util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CidrTrieTest {
+
+    private final CidrTrie trie = CidrTrie.of("10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "203.0.113.7", "fc00::/7", "::1");
+
+    @ParameterizedTest
+    @CsvSource({
+            "10.0.0.0, true",
+            "10.255.255.255, true",
+            "11.0.0.0, false",
+            "172.15.255.255, false",
+            "172.16.0.0, true",
+            "172.20.1.1, true",
+            "172.31.255.255, true",
+            "172.32.0.0, false",
+            "192.168.42.1, true",
+            "192.169.0.1, false",
+            "203.0.113.7, true",
+            "203.0.113.8, false",
+            "fd12:3456::1, true",
+            "fe80::1, false",
+            "::1, true",
+            "::2, false",
+            "2001:db8::1, false",
+            "not-an-ip, false"
+    })
+    @DisplayName("contains - Should classify addresses against registered ranges")
+    void contains_VariousAddresses(String address, boolean expected) {
+        assertThat(trie.contains(address)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("contains - IPv4 ranges should not match IPv6 addresses and vice versa")
+    void contains_FamiliesAreSeparate() {
+        assertThat(CidrTrie.of("0.0.0.0/0").contains("8.8.8.8")).isTrue();
+        assertThat(CidrTrie.of("0.0.0.0/0").contains("2001:4860::8888")).isFalse();
+        assertThat(CidrTrie.of("2000::/3").contains("8.8.8.8")).isFalse();
+    }
+
+    @Test
+    @DisplayName("contains - IPv4-mapped IPv6 addresses should match IPv4 ranges")
+    void contains_Ipv4Mapped() {
+        assertThat(trie.contains("::ffff:10.1.2.3")).isTrue();
+    }
+
+    @Test
+    @DisplayName("add - Many ranges should grow the node arrays without losing entries")
+    void add_ManyRanges() {
+        CidrTrie large = new CidrTrie();
+        for (int i = 0; i < 256; i++) {
+            large.add("10." + i + ".0.0/16");
+        }
+        assertThat(large.contains("10.0.1.1")).isTrue();
+        assertThat(large.contains("10.255.1.1")).isTrue();
+        assertThat(large.contains("11.0.1.1")).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"10.0.0.0/33", "::/129", "10.0.0.0/-1", "10.0.0.0/x", "10.0.0/8", "nope/8"})
+    @DisplayName("add - Should reject malformed ranges")
+    void add_Invalid(String cidr) {
+        assertThatThrownBy(() -> new CidrTrie().add(cidr)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
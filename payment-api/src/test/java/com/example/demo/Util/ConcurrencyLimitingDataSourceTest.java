@@ -0,0 +1,115 @@
+package com.example.demo.Util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+    @Mock
+    private Connection connection;
+
+    private ConcurrencyLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConcurrencyLimitingDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("getConnection - Should hold a permit until the connection is closed, once")
+    void getConnection_ReleasesOnClose() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+
+        first.close();
+        first.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("getConnection - Should time out when all permits are held")
+    void getConnection_TimesOut() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThatThrownBy(() -> dataSource.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("2 database connections");
+    }
+
+    @Test
+    @DisplayName("getConnection - A waiting caller should get the permit a closed connection returns")
+    void getConnection_WaiterAdmittedOnClose() throws Exception {
+        dataSource = new ConcurrencyLimitingDataSource(target, 1, Duration.ofSeconds(10));
+        when(target.getConnection()).thenReturn(connection);
+        Connection held = dataSource.getConnection();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return dataSource.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            while (dataSource.getWaitingCount() == 0) {
+                Thread.onSpinWait();
+            }
+
+            held.close();
+
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("getConnection - Should give the permit back when the pool fails")
+    void getConnection_ReleasesOnFailure() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThatThrownBy(() -> dataSource.getConnection()).hasMessage("pool exhausted");
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Connection - Other calls should reach the pooled connection")
+    void connection_Delegates() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        Connection limited = dataSource.getConnection();
+
+        assertThat(limited.getAutoCommit()).isTrue();
+        assertThat(limited).isEqualTo(limited).isNotEqualTo(connection);
+    }
+}
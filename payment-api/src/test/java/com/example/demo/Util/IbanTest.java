@@ -0,0 +1,63 @@
+package com.example.demo.Util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IbanTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "DE89370400440532013000",
+            "NL91ABNA0417164300",
+            "GB82WEST12345698765432",
+            "CH9300762011623852957",
+            "FR1420041010050500013M02606",
+            "BE68539007547034",
+            "LT121000011101001000",
+            "NO9386011117947",
+            "LC55HEMM000100010012001200023015",
+            "RU0304452522540817810538091310419"
+    })
+    void isValid_RegistryExamples(String iban) {
+        assertThat(Iban.isValid(iban)).isTrue();
+        assertThat(Iban.isValid(iban)).isEqualTo(checksumWithBigInteger(iban));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "DE",
+            "DE89370400440532013001",
+            "DE89370400440532013",
+            "DE893704004405320130000",
+            "de89370400440532013000",
+            "DE89 3704 0044 0532 0130 00",
+            "DEX9370400440532013000",
+            "DE8937040044053201300-",
+            "US12345678901234567890",
+            "XX89370400440532013000",
+            "NL91ABNA04171643OO"
+    })
+    void isValid_Invalid(String iban) {
+        assertThat(Iban.isValid(iban)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"DE00370400440532013000", "DE98370400440532013000", "GB00WEST12345698765432", "FR0020041010050500013M02606"})
+    void isValid_SameAsBigIntegerChecksum(String iban) {
+        assertThat(Iban.isValid(iban)).isEqualTo(checksumWithBigInteger(iban));
+    }
+
+    private static boolean checksumWithBigInteger(String iban) {
+        String rearranged = iban.substring(4) + iban.substring(0, 4);
+        StringBuilder digits = new StringBuilder();
+        for (char c : rearranged.toCharArray()) {
+            digits.append(Character.getNumericValue(c));
+        }
+        return new BigInteger(digits.toString()).mod(BigInteger.valueOf(97)).intValue() == 1;
+    }
+}
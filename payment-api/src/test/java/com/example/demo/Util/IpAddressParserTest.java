@@ -0,0 +1,107 @@
+package com.example.demo.Util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpAddressParserTest {
+
+    @Nested
+    @DisplayName("IPv4")
+    class Ipv4Tests {
+
+        @Test
+        @DisplayName("Should parse dotted-quad addresses into unsigned values")
+        void parseIpv4_Valid() {
+            assertThat(IpAddressParser.parseIpv4("0.0.0.0", 0, 7)).isZero();
+            assertThat(IpAddressParser.parseIpv4("255.255.255.255", 0, 15)).isEqualTo(0xFFFFFFFFL);
+            assertThat(IpAddressParser.parseIpv4("192.168.1.10", 0, 12)).isEqualTo(0xC0A8010AL);
+        }
+
+        @Test
+        @DisplayName("Should parse a region of a larger sequence")
+        void parseIpv4_Region() {
+            String header = "for=10.1.2.3;proto=https";
+            assertThat(IpAddressParser.parseIpv4(header, 4, 12)).isEqualTo(0x0A010203L);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1..2.3", "1.2.3.", ".1.2.3", "1.2.3.a", "1234.1.1.1"})
+        @DisplayName("Should reject malformed addresses")
+        void parseIpv4_Invalid(String value) {
+            assertThat(IpAddressParser.parseIpv4(value, 0, value.length())).isEqualTo(-1);
+        }
+
+        @Test
+        @DisplayName("Should map IPv4 addresses into the IPv4-mapped IPv6 space")
+        void parse_Ipv4Mapped() {
+            long[] out = new long[2];
+            assertThat(IpAddressParser.parse("8.8.8.8", out)).isTrue();
+            assertThat(out[0]).isZero();
+            assertThat(out[1]).isEqualTo(0x0000FFFF08080808L);
+            assertThat(IpAddressParser.isIpv4(out[0], out[1])).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("IPv6")
+    class Ipv6Tests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "::", "::1", "1::", "2001:db8::1", "2001:0db8:0000:0000:0000:ff00:0042:8329", "fe80::1:2:3:4",
+                "1:2:3:4:5:6:7:8", "1::8", "1:2:3:4:5:6::8", "::ffff:192.0.2.128", "64:ff9b::10.0.0.1",
+                "1:2:3:4:5:6:1.2.3.4", "ABCD:ef01::", "0:0:0:0:0:0:0:1", "1:2:3:4:5:6:7::"
+        })
+        @DisplayName("Should agree with InetAddress for valid addresses")
+        void parse_MatchesInetAddress(String value) throws Exception {
+            long[] out = new long[2];
+            assertThat(IpAddressParser.parse(value, out)).isTrue();
+
+            byte[] expected = InetAddress.getByName(value).getAddress();
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            if (expected.length == 4) {
+                buffer.putLong(0).putLong(0x0000FFFF00000000L | (ByteBuffer.wrap(expected).getInt() & 0xFFFFFFFFL));
+            } else {
+                buffer.put(expected);
+            }
+            buffer.flip();
+            assertThat(out[0]).isEqualTo(buffer.getLong());
+            assertThat(out[1]).isEqualTo(buffer.getLong());
+        }
+
+        @Test
+        @DisplayName("Should ignore a zone id")
+        void parse_ZoneId() {
+            long[] out = new long[2];
+            assertThat(IpAddressParser.parse("fe80::1%eth0", out)).isTrue();
+            assertThat(out[0]).isEqualTo(0xFE80000000000000L);
+            assertThat(out[1]).isEqualTo(1L);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                ":", ":::", "1:", ":1", "1:::2", "1::2::3", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "12345::",
+                "g::1", "1:2:3:4:5:6:7::8", "::1.2.3", "1.2.3.4::", "fe80::1%", "[::1]", "1::2:1.2.3.4:5",
+                "1:2:3:4:5:6:7:8::", "::1:2:3:4:5:6:7:8", "1:2:3:4::5:6:7:8"
+        })
+        @DisplayName("Should reject malformed addresses")
+        void parse_Invalid(String value) {
+            assertThat(IpAddressParser.parse(value, new long[2])).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject null and empty input")
+    void parse_NullOrEmpty() {
+        assertThat(IpAddressParser.parse(null, new long[2])).isFalse();
+        assertThat(IpAddressParser.parse("", new long[2])).isFalse();
+    }
+}
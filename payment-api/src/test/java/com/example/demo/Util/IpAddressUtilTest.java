@@ -2,14 +2,17 @@ package com.example.demo.Util;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.*;
 
@@ -98,10 +101,55 @@ class IpAddressUtilTest {
         assertThat(ipAddressUtil.getClientIpAddress(request)).isEqualTo("8.8.8.8");
     }
 
+    @Test
+    @DisplayName("getClientIpAddress - Private ranges across all of 172.16/12 are skipped")
+    void getClientIpAddress_Skips172PrivateRange() {
+        when(request.getHeader("X-Forwarded-For")).thenReturn("172.20.4.5, 172.31.0.1, 9.9.9.9");
+        assertThat(ipAddressUtil.getClientIpAddress(request)).isEqualTo("9.9.9.9");
+    }
+
+    @Test
+    @DisplayName("getClientIpAddress - Ports are stripped from IPv4 and bracketed IPv6 entries")
+    void getClientIpAddress_StripsPorts() {
+        when(request.getHeader("X-Forwarded-For")).thenReturn("10.0.0.1:1234, [2001:4860:4860::8888]:443");
+        assertThat(ipAddressUtil.getClientIpAddress(request)).isEqualTo("2001:4860:4860::8888");
+
+        when(request.getHeader("X-Forwarded-For")).thenReturn(" 1.1.1.1:8080 ");
+        assertThat(ipAddressUtil.getClientIpAddress(request)).isEqualTo("1.1.1.1");
+    }
+
+    @Test
+    @DisplayName("getClientIpAddress - Public IPv6 in header, private IPv6 skipped")
+    void getClientIpAddress_Ipv6() {
+        when(request.getHeader("X-Forwarded-For")).thenReturn("fd00::1, fe80::1, 2606:4700::1111");
+        assertThat(ipAddressUtil.getClientIpAddress(request)).isEqualTo("2606:4700::1111");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "10.1.2.3, true",
+            "172.16.0.1, true",
+            "172.31.255.254, true",
+            "172.32.0.1, false",
+            "192.168.0.1, true",
+            "100.64.0.1, true",
+            "169.254.1.1, true",
+            "8.8.8.8, false",
+            "fc00::1, true",
+            "fe80::1, true",
+            "2606:4700::1111, false",
+            "not-an-ip, false"
+    })
+    @DisplayName("isPrivateIp Tests")
+    void isPrivateIp_VariousInputs(String ip, boolean expected) {
+        assertThat(ipAddressUtil.isPrivateIp(ip)).isEqualTo(expected);
+    }
 
     @ParameterizedTest
     @CsvSource({
             "127.0.0.1, true",
+            "127.0.1.1, true",
+            "::1, true",
             "0:0:0:0:0:0:0:1, true",
             "192.168.1.1, false",
             "10.0.0.1, false",
@@ -120,4 +168,99 @@ class IpAddressUtilTest {
             assertThat(ipAddressUtil.isLocalhost(ip)).isEqualTo(expected);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Trusted proxy mode")
+    class TrustedProxyModeTests {
+
+        private final IpAddressUtil trustedProxyUtil = new IpAddressUtil("trusted-proxies", new String[]{"10.0.0.0/8", "2001:db8:ffff::/48"});
+
+        private MockHttpServletRequest requestFrom(String remoteAddr) {
+            MockHttpServletRequest mockRequest = new MockHttpServletRequest();
+            mockRequest.setRemoteAddr(remoteAddr);
+            return mockRequest;
+        }
+
+        @Test
+        @DisplayName("Headers from an untrusted peer are ignored")
+        void untrustedPeer_UsesRemoteAddr() {
+            MockHttpServletRequest mockRequest = requestFrom("81.2.69.142");
+            mockRequest.addHeader("X-Forwarded-For", "1.1.1.1");
+            mockRequest.addHeader("Proxy-Client-IP", "2.2.2.2");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("81.2.69.142");
+        }
+
+        @Test
+        @DisplayName("X-Forwarded-For is walked right-to-left up to the first untrusted hop")
+        void xForwardedFor_RightToLeft() {
+            MockHttpServletRequest mockRequest = requestFrom("10.0.0.2");
+            mockRequest.addHeader("X-Forwarded-For", "6.6.6.6, 81.2.69.142, 10.0.0.7");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("81.2.69.142");
+        }
+
+        @Test
+        @DisplayName("Private client addresses behind the proxy are returned as-is")
+        void xForwardedFor_PrivateClient() {
+            MockHttpServletRequest mockRequest = requestFrom("10.0.0.2");
+            mockRequest.addHeader("X-Forwarded-For", "192.168.1.20:51515");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("192.168.1.20");
+        }
+
+        @Test
+        @DisplayName("Separate header lines are treated as one chain, nearest line last")
+        void xForwardedFor_MultipleLines() {
+            MockHttpServletRequest mockRequest = requestFrom("10.0.0.2");
+            mockRequest.addHeader("X-Forwarded-For", "6.6.6.6");
+            mockRequest.addHeader("X-Forwarded-For", "10.1.1.1, 81.2.69.142, 10.0.0.9");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("81.2.69.142");
+        }
+
+        @Test
+        @DisplayName("An unparseable hop stops the walk at the last trusted address")
+        void xForwardedFor_GarbageStopsWalk() {
+            MockHttpServletRequest mockRequest = requestFrom("10.0.0.2");
+            mockRequest.addHeader("X-Forwarded-For", "6.6.6.6, not-an-ip, 10.0.0.7");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("10.0.0.7");
+        }
+
+        @Test
+        @DisplayName("A chain made only of trusted proxies resolves to its leftmost hop")
+        void xForwardedFor_AllTrusted() {
+            MockHttpServletRequest mockRequest = requestFrom("10.0.0.2");
+            mockRequest.addHeader("X-Forwarded-For", "10.9.9.9, 10.0.0.7");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("10.9.9.9");
+        }
+
+        @Test
+        @DisplayName("RFC 7239 Forwarded is used when X-Forwarded-For is absent")
+        void forwarded_Rfc7239() {
+            MockHttpServletRequest mockRequest = requestFrom("2001:db8:ffff::1");
+            mockRequest.addHeader("Forwarded", "for=6.6.6.6, for=\"[2606:4700::1111]:4711\";proto=https, For=10.0.0.3;by=10.0.0.2");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("2606:4700::1111");
+        }
+
+        @Test
+        @DisplayName("Obfuscated Forwarded identifiers stop the walk")
+        void forwarded_Obfuscated() {
+            MockHttpServletRequest mockRequest = requestFrom("10.0.0.2");
+            mockRequest.addHeader("Forwarded", "for=_hidden;proto=https");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("10.0.0.2");
+        }
+
+        @Test
+        @DisplayName("Missing remote address resolves to 'Unknown'")
+        void missingRemoteAddr() {
+            MockHttpServletRequest mockRequest = requestFrom("");
+            assertThat(trustedProxyUtil.getClientIpAddress(mockRequest)).isEqualTo("Unknown");
+        }
+
+        @Test
+        @DisplayName("Trusted proxy mode requires at least one range")
+        void requiresTrustedRanges() {
+            assertThatThrownBy(() -> new IpAddressUtil("trusted-proxies", new String[0]))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new IpAddressUtil("trusted-proxies", new String[]{"10.0.0.0/99"}))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.Util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    @DisplayName("encode/decode - Should round-trip creation date (with nanos) and id")
+    void encodeDecode_RoundTrip() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000), UUID.randomUUID());
+
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("encode - Token should be URL safe")
+    void encode_IsUrlSafe() {
+        String token = new PageCursor(LocalDateTime.now(), UUID.randomUUID()).encode();
+
+        assertThat(token).matches("^[A-Za-z0-9_-]+$");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not a cursor", "AAAA", "%%%"})
+    @DisplayName("decode - Should reject malformed tokens")
+    void decode_Malformed_Throws(String token) {
+        assertThatThrownBy(() -> PageCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid page cursor");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {Long.MAX_VALUE, Long.MIN_VALUE})
+    @DisplayName("decode - Should reject a well-formed token whose date is out of range")
+    void decode_DateOutOfRange_Throws(long epochSecond) {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + 2 * Long.BYTES);
+        buffer.putLong(epochSecond).putInt(0).putLong(1).putLong(2);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+
+        assertThatThrownBy(() -> PageCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid page cursor");
+    }
+
+    @Test
+    @DisplayName("constructor - Should reject missing components")
+    void constructor_NullComponents_Throws() {
+        assertThatThrownBy(() -> new PageCursor(null, UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.Util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UuidV7Test {
+
+    @Test
+    @DisplayName("next - Should produce version 7, IETF variant UUIDs carrying the current time")
+    void next_VersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UuidV7.timestampMillis(uuid)).isBetween(before, after);
+    }
+
+    @Test
+    @DisplayName("next - Ids from one thread should be strictly increasing in string and byte order")
+    void next_StrictlyIncreasing() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7.next().toString());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("next - A clock going backwards should not break ordering")
+    void next_ClockRegression() throws Exception {
+        // Synthetic clocks run on their own thread so they do not leak into the per-thread state of other tests.
+        List<UUID> ids = onFreshThread(() -> List.of(UuidV7.next(2_000_000_000_000L), UuidV7.next(1_999_999_999_000L)));
+
+        assertThat(ids.get(1).toString()).isGreaterThan(ids.get(0).toString());
+        assertThat(UuidV7.timestampMillis(ids.get(1))).isEqualTo(2_000_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("next - An exhausted counter should move on to the next millisecond")
+    void next_CounterRollover() throws Exception {
+        long millis = 2_000_000_000_000L;
+        List<UUID> ids = onFreshThread(() -> {
+            List<UUID> generated = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++) {
+                generated.add(UuidV7.next(millis));
+            }
+            return generated;
+        });
+
+        assertThat(ids).extracting(UUID::toString).isSorted().doesNotHaveDuplicates();
+        assertThat(UuidV7.timestampMillis(ids.get(ids.size() - 1))).isGreaterThan(millis);
+    }
+
+    @Test
+    @DisplayName("next - Concurrent generation should not produce duplicates")
+    void next_ConcurrentUnique() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(UuidV7.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(160_000);
+    }
+
+    @Test
+    @DisplayName("timestampMillis - Should reject UUIDs of other versions")
+    void timestampMillis_RejectsOtherVersions() {
+        assertThatThrownBy(() -> UuidV7.timestampMillis(UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static <T> T onFreshThread(Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(task).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}